@@ -11,6 +11,7 @@ import android.content.pm.ShortcutInfo;
 import android.content.pm.ShortcutManager;
 import android.graphics.drawable.Icon;
 import android.os.Build;
+import android.os.Trace;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.RequiresApi;
@@ -19,6 +20,7 @@ import androidx.lifecycle.LifecycleEventObserver;
 import androidx.lifecycle.LifecycleOwner;
 import androidx.lifecycle.ProcessLifecycleOwner;
 
+import com.beemdevelopment.aegis.helpers.HandoffRegistry;
 import com.beemdevelopment.aegis.services.NotificationService;
 import com.beemdevelopment.aegis.ui.MainActivity;
 import com.beemdevelopment.aegis.util.IOUtils;
@@ -31,16 +33,21 @@ import com.mikepenz.iconics.Iconics;
 import com.mikepenz.material_design_iconic_typeface_library.MaterialDesignIconic;
 import com.topjohnwu.superuser.Shell;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class AegisApplication extends Application {
     private VaultFile _vaultFile;
     private VaultManager _manager;
     private Preferences _prefs;
+    private HandoffRegistry _handoffs;
     private List<LockListener> _lockListeners;
     private boolean _blockAutoLock;
+    private boolean _iconicsInitialized;
 
     private static final String CODE_LOCK_STATUS_ID = "lock_status_channel";
     private static final String CODE_LOCK_VAULT_ACTION = "lock_vault";
@@ -52,32 +59,80 @@ public class AegisApplication extends Application {
 
     @Override
     public void onCreate() {
-        super.onCreate();
-        _prefs = new Preferences(this);
-        _lockListeners = new ArrayList<>();
-
-        Iconics.init(this);
-        Iconics.registerFont(new MaterialDesignIconic());
+        Trace.beginSection("AegisApplication.onCreate");
+        try {
+            super.onCreate();
+            _prefs = new Preferences(this);
+            _handoffs = new HandoffRegistry();
+            _lockListeners = new ArrayList<>();
+
+            // listen for SCREEN_OFF events
+            ScreenOffReceiver receiver = new ScreenOffReceiver();
+            IntentFilter intentFilter = new IntentFilter();
+            intentFilter.addAction(Intent.ACTION_SCREEN_OFF);
+            intentFilter.addAction(CODE_LOCK_VAULT_ACTION);
+            registerReceiver(receiver, intentFilter);
+
+            // lock the app if the user moves the application to the background
+            ProcessLifecycleOwner.get().getLifecycle().addObserver(new AppLifecycleObserver());
+
+            // NotificationService may post to these channels right away, so they must exist
+            // before anything else runs. Creating them is cheap.
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+                Trace.beginSection("initNotificationChannels");
+                initNotificationChannels();
+                Trace.endSection();
+            }
 
-        // listen for SCREEN_OFF events
-        ScreenOffReceiver receiver = new ScreenOffReceiver();
-        IntentFilter intentFilter = new IntentFilter();
-        intentFilter.addAction(Intent.ACTION_SCREEN_OFF);
-        intentFilter.addAction(CODE_LOCK_VAULT_ACTION);
-        registerReceiver(receiver, intentFilter);
+            // take a snapshot of the cache directory now, so that the deferred cleanup
+            // can't remove any of the files that are created after startup
+            File[] cacheFiles = getCacheDir().listFiles();
 
-        // lock the app if the user moves the application to the background
-        ProcessLifecycleOwner.get().getLifecycle().addObserver(new AppLifecycleObserver());
+            // nothing else is needed to show the first activity, so do the rest in the background
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            executor.execute(() -> initDeferred(cacheFiles));
+            executor.shutdown();
+        } finally {
+            Trace.endSection();
+        }
+    }
 
-        // clear the cache directory on startup, to make sure no temporary vault export files remain
-        IOUtils.clearDirectory(getCacheDir(), false);
+    private void initDeferred(File[] cacheFiles) {
+        Trace.beginSection("AegisApplication.initDeferred");
+        try {
+            // clear the cache directory, to make sure no temporary vault export files remain
+            Trace.beginSection("clearCache");
+            if (cacheFiles != null) {
+                for (File file : cacheFiles) {
+                    if (file.isDirectory()) {
+                        IOUtils.clearDirectory(file, true);
+                    } else {
+                        file.delete();
+                    }
+                }
+            }
+            Trace.endSection();
 
-        if (android.os.Build.VERSION.SDK_INT >= Build.VERSION_CODES.N_MR1) {
-            initAppShortcuts();
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N_MR1) {
+                Trace.beginSection("initAppShortcuts");
+                initAppShortcuts();
+                Trace.endSection();
+            }
+        } finally {
+            Trace.endSection();
         }
+    }
 
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-            initNotificationChannels();
+    /**
+     * Initializes Iconics and registers the icon font with it, if that hasn't happened
+     * yet. Only a few screens use the icon font, so this is done on first use instead of
+     * at startup. This must be called before the layout of such a screen is inflated.
+     */
+    public synchronized void initIconics() {
+        if (!_iconicsInitialized) {
+            Iconics.init(this);
+            Iconics.registerFont(new MaterialDesignIconic());
+            _iconicsInitialized = true;
         }
     }
 
@@ -88,9 +143,9 @@ public class AegisApplication extends Application {
     /**
      * Loads the vault file from disk at the default location, stores an internal
      * reference to it for future use and returns it. This must only be called before
-     * initVaultManager() or after lock().
+     * initVaultManager() or after lock(). It is safe to call this from a background thread.
      */
-    public VaultFile loadVaultFile() throws VaultManagerException {
+    public synchronized VaultFile loadVaultFile() throws VaultManagerException {
         if (!isVaultLocked()) {
             throw new AssertionError("loadVaultFile() may only be called before initVaultManager() or after lock()");
         }
@@ -130,6 +185,10 @@ public class AegisApplication extends Application {
         return _prefs;
     }
 
+    public HandoffRegistry getHandoffRegistry() {
+        return _handoffs;
+    }
+
     public boolean isAutoLockEnabled(int autoLockType) {
         return _prefs.isAutoLockTypeEnabled(autoLockType) && !isVaultLocked() && _manager.isEncryptionEnabled();
     }
@@ -158,6 +217,7 @@ public class AegisApplication extends Application {
     public void lock(boolean userInitiated) {
         _manager.destroy();
         _manager = null;
+        _handoffs.clear();
 
         for (LockListener listener : _lockListeners) {
             listener.onLocked(userInitiated);
@@ -205,10 +265,16 @@ public class AegisApplication extends Application {
     private class AppLifecycleObserver implements LifecycleEventObserver {
         @Override
         public void onStateChanged(@NonNull LifecycleOwner source, @NonNull Lifecycle.Event event) {
-            if (event == Lifecycle.Event.ON_STOP
-                    && isAutoLockEnabled(Preferences.AUTO_LOCK_ON_MINIMIZE)
-                    && !_blockAutoLock) {
+            if (event != Lifecycle.Event.ON_STOP) {
+                return;
+            }
+
+            if (isAutoLockEnabled(Preferences.AUTO_LOCK_ON_MINIMIZE) && !_blockAutoLock) {
                 lock(false);
+            } else if (!isVaultLocked()) {
+                // vaults that stay unlocked in the background can be killed at any time,
+                // so don't wait for the quiet period to pass before creating the backup
+                _manager.getBackupManager().flushPendingBackup();
             }
         }
     }
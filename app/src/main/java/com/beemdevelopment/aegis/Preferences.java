@@ -190,7 +190,12 @@ public class Preferences {
     }
 
     public void setBackupsLocation(Uri location) {
-        _prefs.edit().putString("pref_backups_location", location == null ? null : location.toString()).apply();
+        // the latest backup is tracked per location, so forget about it when the location changes
+        _prefs.edit()
+                .putString("pref_backups_location", location == null ? null : location.toString())
+                .remove("pref_backups_latest_hash")
+                .remove("pref_backups_latest_timestamp")
+                .apply();
     }
 
     public int getBackupsVersionCount() {
@@ -201,6 +206,14 @@ public class Preferences {
         _prefs.edit().putInt("pref_backups_versions", versions).apply();
     }
 
+    public boolean isBackupsCompressionEnabled() {
+        return _prefs.getBoolean("pref_backups_compression", false);
+    }
+
+    public boolean isBackupsIncrementalEnabled() {
+        return _prefs.getBoolean("pref_backups_incremental", false);
+    }
+
     public void setBackupsError(Exception e) {
         _prefs.edit().putString("pref_backups_error", e == null ? null : e.toString()).apply();
     }
@@ -209,6 +222,21 @@ public class Preferences {
         return _prefs.getString("pref_backups_error", null);
     }
 
+    public String getLatestBackupHash() {
+        return _prefs.getString("pref_backups_latest_hash", null);
+    }
+
+    public Date getLatestBackupTimestamp() {
+        return new Date(_prefs.getLong("pref_backups_latest_timestamp", 0));
+    }
+
+    public void setLatestBackup(String hash, Date timestamp) {
+        _prefs.edit()
+                .putString("pref_backups_latest_hash", hash)
+                .putLong("pref_backups_latest_timestamp", timestamp.getTime())
+                .apply();
+    }
+
     public boolean isPinKeyboardEnabled() {
         return _prefs.getBoolean("pref_pin_keyboard", false);
     }
@@ -224,4 +252,20 @@ public class Preferences {
     public boolean isCopyOnTapEnabled() {
         return _prefs.getBoolean("pref_copy_on_tap", false);
     }
+
+    public boolean isDeveloperModeEnabled() {
+        return _prefs.getBoolean("pref_developer_mode", false);
+    }
+
+    public void setIsDeveloperModeEnabled(boolean enabled) {
+        _prefs.edit().putBoolean("pref_developer_mode", enabled).apply();
+    }
+
+    public boolean isIconMigrationDone() {
+        return _prefs.getBoolean("pref_icon_migration", false);
+    }
+
+    public void setIsIconMigrationDone(boolean done) {
+        _prefs.edit().putBoolean("pref_icon_migration", done).apply();
+    }
 }
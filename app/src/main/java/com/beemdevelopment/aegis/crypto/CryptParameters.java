@@ -7,6 +7,7 @@ import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.Serializable;
+import java.util.Arrays;
 
 public class CryptParameters implements Serializable {
     private byte[] _nonce;
@@ -43,4 +44,22 @@ public class CryptParameters implements Serializable {
     public byte[] getTag() {
         return _tag;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CryptParameters)) {
+            return false;
+        }
+
+        CryptParameters params = (CryptParameters) o;
+        return Arrays.equals(_nonce, params._nonce) && Arrays.equals(_tag, params._tag);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(_nonce) + Arrays.hashCode(_tag);
+    }
 }
@@ -0,0 +1,99 @@
+package com.beemdevelopment.aegis.crypto;
+
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.generators.HKDFBytesGenerator;
+import org.bouncycastle.crypto.params.HKDFParameters;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.UUID;
+
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Derives the keys that the secrets of entries are encrypted with, if the vault encrypts
+ * them separately. Every entry gets its own key, derived from the master key with
+ * HKDF-SHA256, using a random salt that is stored in the vault and the UUID of the entry.
+ */
+public class EntryKeys implements Serializable {
+    private static final byte[] INFO_PREFIX = "aegis-entry".getBytes(StandardCharsets.UTF_8);
+
+    private final MasterKey _masterKey;
+    private final byte[] _salt;
+
+    public EntryKeys(MasterKey masterKey, byte[] salt) {
+        if (masterKey == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        _masterKey = masterKey;
+        _salt = salt;
+    }
+
+    public static EntryKeys generate(MasterKey masterKey) {
+        return new EntryKeys(masterKey, CryptoUtils.generateSalt());
+    }
+
+    /**
+     * Derives the key of the entry with the given UUID.
+     */
+    public MasterKey deriveKey(UUID uuid) {
+        byte[] info = ByteBuffer.allocate(INFO_PREFIX.length + 16)
+                .put(INFO_PREFIX)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+
+        byte[] ikm = _masterKey.getBytes();
+        byte[] keyBytes = new byte[CryptoUtils.CRYPTO_AEAD_KEY_SIZE];
+        HKDFBytesGenerator generator = new HKDFBytesGenerator(new SHA256Digest());
+        generator.init(new HKDFParameters(ikm, _salt, info));
+        generator.generateBytes(keyBytes, 0, keyBytes.length);
+        Arrays.fill(ikm, (byte) 0);
+
+        return new MasterKey(new SecretKeySpec(keyBytes, "AES"));
+    }
+
+    /**
+     * Reports whether these keys are derived from the given master key.
+     */
+    public boolean isDerivedFrom(MasterKey masterKey) {
+        byte[] keyBytes = _masterKey.getBytes();
+        byte[] otherKeyBytes = masterKey.getBytes();
+        try {
+            return MessageDigest.isEqual(keyBytes, otherKeyBytes);
+        } finally {
+            Arrays.fill(keyBytes, (byte) 0);
+            Arrays.fill(otherKeyBytes, (byte) 0);
+        }
+    }
+
+    public byte[] getSalt() {
+        return _salt;
+    }
+
+    /**
+     * Keys are equal if they have the same salt and are derived from the same master key,
+     * because they derive the same key for every entry in that case.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof EntryKeys)) {
+            return false;
+        }
+
+        EntryKeys keys = (EntryKeys) o;
+        return Arrays.equals(_salt, keys._salt) && isDerivedFrom(keys._masterKey);
+    }
+
+    @Override
+    public int hashCode() {
+        // the master key is left out on purpose, so that it can't leak through the hash
+        return Arrays.hashCode(_salt);
+    }
+}
@@ -1,16 +1,24 @@
 package com.beemdevelopment.aegis.crypto;
 
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.generators.HKDFBytesGenerator;
+import org.bouncycastle.crypto.params.HKDFParameters;
+
 import java.io.IOException;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 
 import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
 import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.Mac;
 import javax.crypto.NoSuchPaddingException;
 import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
 
 public class MasterKey implements Serializable {
     private SecretKey _key;
@@ -55,6 +63,33 @@ public class MasterKey implements Serializable {
         }
     }
 
+    /**
+     * Computes an HMAC-SHA256 of the given data, with a key that is derived from this
+     * master key for the given purpose. Unlike a plain hash, the result reveals nothing
+     * about the data to anyone who doesn't have the master key.
+     */
+    public byte[] hmac(String purpose, byte[]... data) throws MasterKeyException {
+        byte[] ikm = getBytes();
+        byte[] keyBytes = new byte[32];
+        HKDFBytesGenerator generator = new HKDFBytesGenerator(new SHA256Digest());
+        generator.init(new HKDFParameters(ikm, null, purpose.getBytes(StandardCharsets.UTF_8)));
+        generator.generateBytes(keyBytes, 0, keyBytes.length);
+        Arrays.fill(ikm, (byte) 0);
+
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(keyBytes, "HmacSHA256"));
+            for (byte[] bytes : data) {
+                mac.update(bytes);
+            }
+            return mac.doFinal();
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new MasterKeyException(e);
+        } finally {
+            Arrays.fill(keyBytes, (byte) 0);
+        }
+    }
+
     public byte[] getBytes() {
         return _key.getEncoded();
     }
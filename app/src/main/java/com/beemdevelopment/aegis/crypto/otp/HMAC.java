@@ -0,0 +1,132 @@
+package com.beemdevelopment.aegis.crypto.otp;
+
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * An HMAC (RFC 2104) with a fixed key. The states of the hash function after absorbing
+ * the inner and the outer padded key are computed once, so that computing a MAC only
+ * requires hashing the message and the inner hash. For OTP generation, where the message
+ * is an 8 byte counter, this saves most of the work of setting up a Mac for every code.
+ *
+ * Instances are safe to use from multiple threads.
+ */
+public class HMAC {
+    private static final byte IPAD = 0x36;
+    private static final byte OPAD = 0x5c;
+
+    private final String _algo;
+    private final MessageDigest _inner;
+    private final MessageDigest _outer;
+
+    // only used if the MessageDigest implementation of the provider can't be cloned
+    private final Mac _mac;
+
+    private HMAC(String algo, MessageDigest inner, MessageDigest outer, Mac mac) {
+        _algo = algo;
+        _inner = inner;
+        _outer = outer;
+        _mac = mac;
+    }
+
+    /**
+     * Creates an HMAC with the given key. Supported algorithms are HmacSHA1, HmacSHA256
+     * and HmacSHA512.
+     */
+    public static HMAC create(byte[] key, String algo) throws NoSuchAlgorithmException, InvalidKeyException {
+        String digestAlgo;
+        int blockSize;
+        switch (algo) {
+            case "HmacSHA1":
+                digestAlgo = "SHA-1";
+                blockSize = 64;
+                break;
+            case "HmacSHA256":
+                digestAlgo = "SHA-256";
+                blockSize = 64;
+                break;
+            case "HmacSHA512":
+                digestAlgo = "SHA-512";
+                blockSize = 128;
+                break;
+            default:
+                throw new NoSuchAlgorithmException(String.format("Unsupported HMAC algorithm: %s", algo));
+        }
+
+        if (key == null || key.length == 0) {
+            throw new InvalidKeyException("Empty key");
+        }
+
+        MessageDigest inner = MessageDigest.getInstance(digestAlgo);
+        if (!isCloneable(inner)) {
+            Mac mac = Mac.getInstance(algo);
+            mac.init(new SecretKeySpec(key, "RAW"));
+            return new HMAC(algo, null, null, mac);
+        }
+
+        // keys that are longer than the block size are hashed first
+        if (key.length > blockSize) {
+            key = inner.digest(key);
+        }
+
+        byte[] pad = Arrays.copyOf(key, blockSize);
+        for (int i = 0; i < pad.length; i++) {
+            pad[i] ^= IPAD;
+        }
+        inner.update(pad);
+
+        for (int i = 0; i < pad.length; i++) {
+            pad[i] ^= IPAD ^ OPAD;
+        }
+        MessageDigest outer = MessageDigest.getInstance(digestAlgo);
+        outer.update(pad);
+        Arrays.fill(pad, (byte) 0);
+
+        return new HMAC(algo, inner, outer, null);
+    }
+
+    public String getAlgorithm() {
+        return _algo;
+    }
+
+    public byte[] doFinal(byte[] message) {
+        if (_mac != null) {
+            synchronized (_mac) {
+                return _mac.doFinal(message);
+            }
+        }
+
+        MessageDigest inner = cloneDigest(_inner);
+        MessageDigest outer = cloneDigest(_outer);
+        outer.update(inner.digest(message));
+        return outer.digest();
+    }
+
+    private static MessageDigest cloneDigest(MessageDigest digest) {
+        try {
+            return (MessageDigest) digest.clone();
+        } catch (CloneNotSupportedException e) {
+            // this was checked when the HMAC was created
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Reports whether the given digest can be cloned. MessageDigest instances are usually
+     * wrappers around the implementation of a provider, so the only way to know for sure
+     * is to try it.
+     */
+    private static boolean isCloneable(MessageDigest digest) {
+        try {
+            digest.clone();
+            return true;
+        } catch (CloneNotSupportedException e) {
+            return false;
+        }
+    }
+}
@@ -1,31 +1,31 @@
 package com.beemdevelopment.aegis.crypto.otp;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-
 public class HOTP {
     private HOTP() {
     }
 
     public static OTP generateOTP(byte[] secret, String algo, int digits, long counter)
             throws NoSuchAlgorithmException, InvalidKeyException {
-        SecretKeySpec key = new SecretKeySpec(secret, "RAW");
+        return generateOTP(HMAC.create(secret, algo), digits, counter);
+    }
 
+    /**
+     * Generates an OTP with an HMAC that was created earlier for the secret. Reusing the
+     * HMAC avoids keying it again for every code.
+     */
+    public static OTP generateOTP(HMAC hmac, int digits, long counter) {
         // encode counter in big endian
-        byte[] counterBytes = ByteBuffer.allocate(8)
-                .order(ByteOrder.BIG_ENDIAN)
-                .putLong(counter)
-                .array();
+        byte[] counterBytes = new byte[8];
+        for (int i = counterBytes.length - 1; i >= 0; i--) {
+            counterBytes[i] = (byte) counter;
+            counter >>>= 8;
+        }
 
         // calculate the hash of the counter
-        Mac mac = Mac.getInstance(algo);
-        mac.init(key);
-        byte[] hash = mac.doFinal(counterBytes);
+        byte[] hash = hmac.doFinal(counterBytes);
 
         // truncate hash to get the HTOP value
         // http://tools.ietf.org/html/rfc4226#section-5.4
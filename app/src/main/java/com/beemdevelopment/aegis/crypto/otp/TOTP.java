@@ -10,12 +10,20 @@ public class TOTP {
 
     public static OTP generateOTP(byte[] secret, String algo, int digits, long period, long seconds)
             throws InvalidKeyException, NoSuchAlgorithmException {
-        long counter = (long) Math.floor((double) seconds / period);
-        return HOTP.generateOTP(secret, algo, digits, counter);
+        return generateOTP(HMAC.create(secret, algo), digits, period, seconds);
     }
 
     public static OTP generateOTP(byte[] secret, String algo, int digits, long period)
             throws InvalidKeyException, NoSuchAlgorithmException {
         return generateOTP(secret, algo, digits, period, System.currentTimeMillis() / 1000);
     }
+
+    public static OTP generateOTP(HMAC hmac, int digits, long period, long seconds) {
+        long counter = (long) Math.floor((double) seconds / period);
+        return HOTP.generateOTP(hmac, digits, counter);
+    }
+
+    public static OTP generateOTP(HMAC hmac, int digits, long period) {
+        return generateOTP(hmac, digits, period, System.currentTimeMillis() / 1000);
+    }
 }
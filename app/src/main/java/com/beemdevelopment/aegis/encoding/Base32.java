@@ -1,21 +1,33 @@
 package com.beemdevelopment.aegis.encoding;
 
-import com.google.common.io.BaseEncoding;
-
 public class Base32 {
+    private static final BaseCodec CODEC = new BaseCodec("ABCDEFGHIJKLMNOPQRSTUVWXYZ234567", true, '=', false);
+
     private Base32() {
 
     }
 
     public static byte[] decode(String s) throws EncodingException {
-        try {
-            return BaseEncoding.base32().decode(s.toUpperCase());
-        } catch (IllegalArgumentException e) {
-            throw new EncodingException(e);
-        }
+        return CODEC.decode(s);
+    }
+
+    public static int decode(CharSequence s, byte[] out, int offset) throws EncodingException {
+        return CODEC.decode(s, out, offset);
+    }
+
+    public static int getMaxDecodedLength(int chars) {
+        return CODEC.getMaxDecodedLength(chars);
     }
 
     public static String encode(byte[] data) {
-        return BaseEncoding.base32().omitPadding().encode(data);
+        return CODEC.encode(data);
+    }
+
+    public static int encode(byte[] data, int offset, int length, byte[] out, int outOffset) {
+        return CODEC.encode(data, offset, length, out, outOffset);
+    }
+
+    public static int getEncodedLength(int bytes) {
+        return CODEC.getEncodedLength(bytes);
     }
 }
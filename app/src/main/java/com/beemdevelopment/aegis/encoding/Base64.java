@@ -1,27 +1,57 @@
 package com.beemdevelopment.aegis.encoding;
 
-import com.google.common.io.BaseEncoding;
-
-import java.nio.charset.StandardCharsets;
-
 public class Base64 {
+    private static final BaseCodec CODEC = new BaseCodec("ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/", false, '=', true);
+
     private Base64() {
 
     }
 
     public static byte[] decode(String s) throws EncodingException {
-        try {
-            return BaseEncoding.base64().decode(s);
-        } catch (IllegalArgumentException e) {
-            throw new EncodingException(e);
-        }
+        return CODEC.decode(s);
     }
 
     public static byte[] decode(byte[] s) throws EncodingException {
-        return decode(new String(s, StandardCharsets.UTF_8));
+        return CODEC.decode(s, 0, s.length);
+    }
+
+    public static int decode(CharSequence s, byte[] out, int offset) throws EncodingException {
+        return CODEC.decode(s, out, offset);
+    }
+
+    /**
+     * Decodes the given ASCII bytes into the given buffer and returns the number of bytes
+     * that were written. The buffer may be the input itself, to decode in place.
+     */
+    public static int decode(byte[] in, int inOffset, int inLength, byte[] out, int offset) throws EncodingException {
+        return CODEC.decode(in, inOffset, inLength, out, offset);
+    }
+
+    /**
+     * Checks that the given string is valid Base64, without decoding it, and returns the
+     * number of bytes it decodes to.
+     */
+    public static int check(CharSequence s) throws EncodingException {
+        return CODEC.check(s);
+    }
+
+    public static int getDecodedLength(CharSequence s) throws EncodingException {
+        return CODEC.getDecodedLength(s);
+    }
+
+    public static int getMaxDecodedLength(int chars) {
+        return CODEC.getMaxDecodedLength(chars);
     }
 
     public static String encode(byte[] data) {
-        return BaseEncoding.base64().encode(data);
+        return CODEC.encode(data);
+    }
+
+    public static int encode(byte[] data, int offset, int length, byte[] out, int outOffset) {
+        return CODEC.encode(data, offset, length, out, outOffset);
+    }
+
+    public static int getEncodedLength(int bytes) {
+        return CODEC.getEncodedLength(bytes);
     }
 }
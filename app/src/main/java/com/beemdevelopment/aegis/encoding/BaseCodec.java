@@ -0,0 +1,264 @@
+package com.beemdevelopment.aegis.encoding;
+
+import java.util.Arrays;
+
+/**
+ * A table-driven codec for the power-of-two bases (16, 32 and 64). Decoding looks every
+ * character up in a table, so case-insensitive alphabets don't need the input to be
+ * converted first, and both directions can work directly on caller-supplied buffers.
+ *
+ * The accepted input is the same as that of Guava's BaseEncoding: trailing padding is
+ * ignored, the number of characters must be valid for the base and unused trailing bits
+ * are dropped.
+ */
+final class BaseCodec {
+    private static final byte INVALID = -1;
+
+    private final char[] _alphabet;
+    private final byte[] _decodeTable;
+    private final int _bitsPerChar;
+    private final int _charsPerChunk;
+    private final char _padding;
+    private final boolean _writePadding;
+
+    /**
+     * @param alphabet The characters to encode with.
+     * @param ignoreCase Whether the other case of the alphabet is accepted when decoding.
+     * @param padding The padding character, or 0 if there is none.
+     * @param writePadding Whether encoded output is padded to a whole chunk.
+     */
+    BaseCodec(String alphabet, boolean ignoreCase, char padding, boolean writePadding) {
+        _alphabet = alphabet.toCharArray();
+        _bitsPerChar = Integer.numberOfTrailingZeros(_alphabet.length);
+        _charsPerChunk = 8 / gcd(8, _bitsPerChar);
+        _padding = padding;
+        _writePadding = writePadding;
+
+        _decodeTable = new byte[128];
+        Arrays.fill(_decodeTable, INVALID);
+        for (int i = 0; i < _alphabet.length; i++) {
+            char c = _alphabet[i];
+            _decodeTable[c] = (byte) i;
+            if (ignoreCase) {
+                _decodeTable[Character.toLowerCase(c)] = (byte) i;
+                _decodeTable[Character.toUpperCase(c)] = (byte) i;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of bytes the given number of characters decodes to at most.
+     */
+    public int getMaxDecodedLength(int chars) {
+        return (int) ((long) chars * _bitsPerChar / 8);
+    }
+
+    /**
+     * Returns the number of characters the given number of bytes encodes to.
+     */
+    public int getEncodedLength(int bytes) {
+        int chars = (int) (((long) bytes * 8 + _bitsPerChar - 1) / _bitsPerChar);
+        if (_writePadding) {
+            chars = (chars + _charsPerChunk - 1) / _charsPerChunk * _charsPerChunk;
+        }
+        return chars;
+    }
+
+    /**
+     * Returns the number of bytes the given characters decode to. Only the length of the
+     * input is checked, not whether every character is part of the alphabet.
+     */
+    public int getDecodedLength(CharSequence s) throws EncodingException {
+        return getDecodedLength(trimPadding(s));
+    }
+
+    /**
+     * Checks that the given characters can be decoded, without decoding them, and returns
+     * the number of bytes they decode to.
+     */
+    public int check(CharSequence s) throws EncodingException {
+        int len = trimPadding(s);
+        int decodedLength = getDecodedLength(len);
+        for (int i = 0; i < len; i++) {
+            lookup(s.charAt(i), i);
+        }
+
+        return decodedLength;
+    }
+
+    public byte[] decode(CharSequence s) throws EncodingException {
+        int len = trimPadding(s);
+        byte[] out = new byte[getDecodedLength(len)];
+        decodeChars(s, len, out, 0);
+        return out;
+    }
+
+    /**
+     * Decodes the given characters into the given buffer and returns the number of bytes
+     * that were written.
+     */
+    public int decode(CharSequence s, byte[] out, int offset) throws EncodingException {
+        int len = trimPadding(s);
+        checkBounds(out, offset, getDecodedLength(len));
+        return decodeChars(s, len, out, offset);
+    }
+
+    /**
+     * Decodes the given ASCII bytes into the given buffer and returns the number of bytes
+     * that were written. The output may overlap with the input, as long as it doesn't
+     * start after it.
+     */
+    public int decode(byte[] in, int inOffset, int inLength, byte[] out, int offset) throws EncodingException {
+        checkBounds(in, inOffset, inLength);
+        int len = trimPadding(in, inOffset, inLength);
+        checkBounds(out, offset, getDecodedLength(len));
+        return decodeBytes(in, inOffset, len, out, offset);
+    }
+
+    public byte[] decode(byte[] in, int inOffset, int inLength) throws EncodingException {
+        checkBounds(in, inOffset, inLength);
+        int len = trimPadding(in, inOffset, inLength);
+        byte[] out = new byte[getDecodedLength(len)];
+        decodeBytes(in, inOffset, len, out, 0);
+        return out;
+    }
+
+    public String encode(byte[] data) {
+        return encode(data, 0, data.length);
+    }
+
+    public String encode(byte[] data, int offset, int length) {
+        checkBounds(data, offset, length);
+        char[] chars = new char[getEncodedLength(length)];
+
+        long buffer = 0;
+        int bits = 0;
+        int c = 0;
+        int mask = _alphabet.length - 1;
+        for (int i = offset; i < offset + length; i++) {
+            buffer = (buffer << 8) | (data[i] & 0xff);
+            bits += 8;
+            while (bits >= _bitsPerChar) {
+                bits -= _bitsPerChar;
+                chars[c++] = _alphabet[(int) (buffer >>> bits) & mask];
+            }
+        }
+        if (bits > 0) {
+            chars[c++] = _alphabet[(int) (buffer << (_bitsPerChar - bits)) & mask];
+        }
+        while (c < chars.length) {
+            chars[c++] = _padding;
+        }
+
+        return new String(chars);
+    }
+
+    /**
+     * Encodes the given bytes as ASCII into the given buffer and returns the number of
+     * bytes that were written.
+     */
+    public int encode(byte[] data, int offset, int length, byte[] out, int outOffset) {
+        checkBounds(data, offset, length);
+        int outLength = getEncodedLength(length);
+        checkBounds(out, outOffset, outLength);
+
+        long buffer = 0;
+        int bits = 0;
+        int o = outOffset;
+        int mask = _alphabet.length - 1;
+        for (int i = offset; i < offset + length; i++) {
+            buffer = (buffer << 8) | (data[i] & 0xff);
+            bits += 8;
+            while (bits >= _bitsPerChar) {
+                bits -= _bitsPerChar;
+                out[o++] = (byte) _alphabet[(int) (buffer >>> bits) & mask];
+            }
+        }
+        if (bits > 0) {
+            out[o++] = (byte) _alphabet[(int) (buffer << (_bitsPerChar - bits)) & mask];
+        }
+        while (o < outOffset + outLength) {
+            out[o++] = (byte) _padding;
+        }
+
+        return outLength;
+    }
+
+    private int decodeChars(CharSequence s, int len, byte[] out, int offset) throws EncodingException {
+        long buffer = 0;
+        int bits = 0;
+        int o = offset;
+        for (int i = 0; i < len; i++) {
+            buffer = (buffer << _bitsPerChar) | lookup(s.charAt(i), i);
+            bits += _bitsPerChar;
+            if (bits >= 8) {
+                bits -= 8;
+                out[o++] = (byte) (buffer >>> bits);
+            }
+        }
+
+        return o - offset;
+    }
+
+    private int decodeBytes(byte[] in, int inOffset, int len, byte[] out, int offset) throws EncodingException {
+        long buffer = 0;
+        int bits = 0;
+        int o = offset;
+        for (int i = 0; i < len; i++) {
+            buffer = (buffer << _bitsPerChar) | lookup((char) (in[inOffset + i] & 0xff), i);
+            bits += _bitsPerChar;
+            if (bits >= 8) {
+                bits -= 8;
+                out[o++] = (byte) (buffer >>> bits);
+            }
+        }
+
+        return o - offset;
+    }
+
+    private int lookup(char c, int index) throws EncodingException {
+        int value = c < _decodeTable.length ? _decodeTable[c] : INVALID;
+        if (value == INVALID) {
+            throw new EncodingException(String.format("Unrecognized character at index %d", index));
+        }
+        return value;
+    }
+
+    private int trimPadding(byte[] in, int offset, int length) {
+        int len = length;
+        if (_padding != 0) {
+            while (len > 0 && in[offset + len - 1] == _padding) {
+                len--;
+            }
+        }
+        return len;
+    }
+
+    private int trimPadding(CharSequence s) {
+        int len = s.length();
+        if (_padding != 0) {
+            while (len > 0 && s.charAt(len - 1) == _padding) {
+                len--;
+            }
+        }
+        return len;
+    }
+
+    private int getDecodedLength(int chars) throws EncodingException {
+        // a trailing character that doesn't contribute to a full byte means the input was cut off
+        if ((long) chars * _bitsPerChar % 8 >= _bitsPerChar) {
+            throw new EncodingException(String.format("Invalid input length %d", chars));
+        }
+        return getMaxDecodedLength(chars);
+    }
+
+    private static void checkBounds(byte[] array, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > array.length - length) {
+            throw new IndexOutOfBoundsException(String.format("Range [%d, %d) out of bounds for length %d", offset, offset + length, array.length));
+        }
+    }
+
+    private static int gcd(int a, int b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+}
@@ -3,6 +3,10 @@ package com.beemdevelopment.aegis.encoding;
 import java.io.IOException;
 
 public class EncodingException extends IOException {
+    public EncodingException(String message) {
+        super(message);
+    }
+
     public EncodingException(Throwable cause) {
         super(cause);
     }
@@ -1,21 +1,25 @@
 package com.beemdevelopment.aegis.encoding;
 
-import com.google.common.io.BaseEncoding;
-
 public class Hex {
+    private static final BaseCodec CODEC = new BaseCodec("0123456789abcdef", true, (char) 0, false);
+
     private Hex() {
 
     }
 
     public static byte[] decode(String s) throws EncodingException {
-        try {
-            return BaseEncoding.base16().decode(s.toUpperCase());
-        } catch (IllegalArgumentException e) {
-            throw new EncodingException(e);
-        }
+        return CODEC.decode(s);
+    }
+
+    public static int decode(CharSequence s, byte[] out, int offset) throws EncodingException {
+        return CODEC.decode(s, out, offset);
     }
 
     public static String encode(byte[] data) {
-        return BaseEncoding.base16().lowerCase().encode(data);
+        return CODEC.encode(data);
+    }
+
+    public static int encode(byte[] data, int offset, int length, byte[] out, int outOffset) {
+        return CODEC.encode(data, offset, length, out, outOffset);
     }
 }
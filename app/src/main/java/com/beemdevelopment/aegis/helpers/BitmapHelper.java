@@ -1,8 +1,16 @@
 package com.beemdevelopment.aegis.helpers;
 
 import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Build;
+
+import java.io.ByteArrayOutputStream;
 
 public class BitmapHelper {
+    // the maximum width/height of the icons that are stored in the vault
+    public static final int ICON_MAX_SIZE = 256;
+    private static final int ICON_QUALITY = 90;
+
     private BitmapHelper() {
 
     }
@@ -28,4 +36,73 @@ public class BitmapHelper {
 
         return Bitmap.createScaledBitmap(bitmap, width, height, true);
     }
+
+    /**
+     * Encodes the given Bitmap for storage as an entry icon. The Bitmap is scaled down to
+     * ICON_MAX_SIZE if needed and encoded as WebP, which keeps transparency intact.
+     */
+    public static byte[] toIconBytes(Bitmap bitmap) {
+        int size = Math.max(bitmap.getWidth(), bitmap.getHeight());
+        if (size > ICON_MAX_SIZE) {
+            float scale = (float) ICON_MAX_SIZE / size;
+            int width = Math.max(1, Math.round(bitmap.getWidth() * scale));
+            int height = Math.max(1, Math.round(bitmap.getHeight() * scale));
+            bitmap = Bitmap.createScaledBitmap(bitmap, width, height, true);
+        }
+
+        Bitmap.CompressFormat format;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+            format = Bitmap.CompressFormat.WEBP_LOSSY;
+        } else {
+            format = Bitmap.CompressFormat.WEBP;
+        }
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        bitmap.compress(format, ICON_QUALITY, stream);
+        return stream.toByteArray();
+    }
+
+    /**
+     * Re-encodes the given icon with toIconBytes if it is larger than ICON_MAX_SIZE. The
+     * original is returned if the icon is small enough already, if it can't be decoded or
+     * if re-encoding it wouldn't make it any smaller.
+     */
+    public static byte[] normalizeIcon(byte[] data) {
+        BitmapFactory.Options opts = decodeBounds(data);
+        int size = Math.max(opts.outWidth, opts.outHeight);
+        if (size <= ICON_MAX_SIZE) {
+            return data;
+        }
+
+        // subsample large images while decoding, but never below the maximum icon size
+        opts.inJustDecodeBounds = false;
+        opts.inSampleSize = 1;
+        while (size / (opts.inSampleSize * 2) >= ICON_MAX_SIZE) {
+            opts.inSampleSize *= 2;
+        }
+
+        Bitmap bitmap = BitmapFactory.decodeByteArray(data, 0, data.length, opts);
+        if (bitmap == null) {
+            return data;
+        }
+
+        byte[] res = toIconBytes(bitmap);
+        return res.length < data.length ? res : data;
+    }
+
+    /**
+     * Reports whether the given icon is larger than ICON_MAX_SIZE, by only decoding its
+     * dimensions. Icons that can't be decoded are not considered to be oversized.
+     */
+    public static boolean isIconOversized(byte[] data) {
+        BitmapFactory.Options opts = decodeBounds(data);
+        return Math.max(opts.outWidth, opts.outHeight) > ICON_MAX_SIZE;
+    }
+
+    private static BitmapFactory.Options decodeBounds(byte[] data) {
+        BitmapFactory.Options opts = new BitmapFactory.Options();
+        opts.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(data, 0, data.length, opts);
+        return opts;
+    }
 }
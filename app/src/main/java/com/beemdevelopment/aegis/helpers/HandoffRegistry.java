@@ -0,0 +1,58 @@
+package com.beemdevelopment.aegis.helpers;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * An in-memory registry for handing objects over from one Activity to another without
+ * serializing them into an Intent. Objects are parked under a random token and only the
+ * token is passed along. The registry is owned by AegisApplication and is cleared when
+ * the vault is locked, so parked objects never outlive the unlocked session.
+ */
+public class HandoffRegistry {
+    private final Map<String, Object> _objects = new HashMap<>();
+
+    /**
+     * Parks the given object in the registry and returns the token to retrieve it with.
+     */
+    public synchronized String park(Object obj) {
+        String token = UUID.randomUUID().toString();
+        _objects.put(token, obj);
+        return token;
+    }
+
+    /**
+     * Returns the object that was parked under the given token, while leaving it in the
+     * registry. Returns null if there is no such object, which happens if the vault was
+     * locked since it was parked.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> T get(String token) {
+        if (token == null) {
+            return null;
+        }
+
+        return (T) _objects.get(token);
+    }
+
+    /**
+     * Removes the object that was parked under the given token from the registry and
+     * returns it. Returns null if there is no such object.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> T take(String token) {
+        if (token == null) {
+            return null;
+        }
+
+        return (T) _objects.remove(token);
+    }
+
+    /**
+     * Removes all parked objects from the registry.
+     */
+    public synchronized void clear() {
+        _objects.clear();
+    }
+}
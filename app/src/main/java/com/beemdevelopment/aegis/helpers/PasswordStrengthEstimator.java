@@ -0,0 +1,104 @@
+package com.beemdevelopment.aegis.helpers;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.text.TextUtils;
+
+import com.nulabinc.zxcvbn.Strength;
+import com.nulabinc.zxcvbn.Zxcvbn;
+
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Estimates the strength of a password in the background as the user types it. Requests
+ * are debounced and results that belong to outdated input are discarded. All methods of
+ * this class must be called from the main thread.
+ */
+public class PasswordStrengthEstimator {
+    private static final long DEBOUNCE_DELAY = 150;
+
+    // loading the dictionaries of Zxcvbn is expensive, so a single instance is shared by
+    // the whole process and it's only ever accessed from the thread of this executor
+    private static final ExecutorService _executor = Executors.newSingleThreadExecutor();
+    private static Zxcvbn _zxcvbn;
+
+    private final Handler _handler;
+    private Listener _listener;
+    private Runnable _pending;
+    private volatile int _generation;
+
+    public PasswordStrengthEstimator(Listener listener) {
+        _handler = new Handler(Looper.getMainLooper());
+        _listener = listener;
+        warmUp();
+    }
+
+    /**
+     * Loads the shared Zxcvbn instance in the background, if that hasn't happened yet.
+     */
+    public static void warmUp() {
+        _executor.execute(PasswordStrengthEstimator::getZxcvbn);
+    }
+
+    private static Zxcvbn getZxcvbn() {
+        if (_zxcvbn == null) {
+            _zxcvbn = new Zxcvbn();
+        }
+
+        return _zxcvbn;
+    }
+
+    /**
+     * Schedules an estimation of the strength of the given password. Any estimation that
+     * was scheduled earlier and hasn't been delivered to the listener yet is discarded.
+     * The contents of the password are read once the debounce delay has passed.
+     */
+    public void estimate(CharSequence password) {
+        int generation = ++_generation;
+        _handler.removeCallbacks(_pending);
+        _pending = () -> {
+            char[] chars = new char[password.length()];
+            TextUtils.getChars(password, 0, chars.length, chars, 0);
+
+            _executor.execute(() -> {
+                if (generation != _generation) {
+                    Arrays.fill(chars, '\0');
+                    return;
+                }
+
+                Strength strength = getZxcvbn().measure(CharBuffer.wrap(chars));
+                Arrays.fill(chars, '\0');
+
+                // the result is always posted back, so that it can be wiped even if it's outdated
+                _handler.post(() -> {
+                    if (generation == _generation && _listener != null) {
+                        _listener.onStrengthEstimated(strength);
+                    }
+                    strength.wipe();
+                });
+            });
+        };
+        _handler.postDelayed(_pending, DEBOUNCE_DELAY);
+    }
+
+    /**
+     * Discards all pending estimations. The listener will not be called after this.
+     */
+    public void destroy() {
+        _generation++;
+        _handler.removeCallbacks(_pending);
+        _pending = null;
+        _listener = null;
+    }
+
+    public interface Listener {
+        /**
+         * Called on the main thread with the result of the most recent estimation. The
+         * given Strength is wiped after this method returns.
+         */
+        void onStrengthEstimated(Strength strength);
+    }
+}
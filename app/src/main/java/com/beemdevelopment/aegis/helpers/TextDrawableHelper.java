@@ -1,7 +1,15 @@
 package com.beemdevelopment.aegis.helpers;
 
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.util.LruCache;
 import android.view.View;
 
+import androidx.annotation.VisibleForTesting;
+
 import com.amulyakhare.textdrawable.TextDrawable;
 import com.amulyakhare.textdrawable.util.ColorGenerator;
 
@@ -31,11 +39,32 @@ public class TextDrawableHelper {
             0xFF455A64
     ));
 
+    // letter avatars only differ in letter, color and size, so they're rendered once into a
+    // bitmap that is shared by every entry without an icon, instead of drawing the text
+    // again for every bind. The cache is bounded by the size of the bitmaps, which leaves
+    // room for a few screens worth of avatars at the highest screen densities.
+    private static final int CACHE_SIZE = 8 * 1024 * 1024;
+    private static final LruCache<Key, Bitmap> _cache = new LruCache<Key, Bitmap>(CACHE_SIZE) {
+        @Override
+        protected int sizeOf(Key key, Bitmap bitmap) {
+            return bitmap.getByteCount();
+        }
+    };
+
     private TextDrawableHelper() {
 
     }
 
-    public static TextDrawable generate(String text, String fallback, View view) {
+    public static Drawable generate(String text, String fallback, View view) {
+        return generate(text, fallback, view.getResources(), view.getLayoutParams().width, view.getLayoutParams().height);
+    }
+
+    /**
+     * Returns a letter avatar for the given text, or the fallback if the text is empty.
+     * Every call returns a new drawable, but the bitmap it draws is shared with the
+     * avatars of other views, so it must not be modified.
+     */
+    public static Drawable generate(String text, String fallback, Resources res, int width, int height) {
         if (text == null || text.isEmpty()) {
             if (fallback == null || fallback.isEmpty()) {
                 return null;
@@ -43,11 +72,83 @@ public class TextDrawableHelper {
             text = fallback;
         }
 
-        int color = _generator.getColor(text);
+        // the avatar can only be rendered ahead of time if the size of the view is fixed
+        if (width <= 0 || height <= 0) {
+            return createDrawable(text, width, height);
+        }
+
+        return new BitmapDrawable(res, getBitmap(text, width, height));
+    }
+
+    @VisibleForTesting
+    static Bitmap getBitmap(String text, int width, int height) {
+        int color = getColor(text);
+        Key key = new Key(text.charAt(0), color, width, height);
+        Bitmap bitmap = _cache.get(key);
+        if (bitmap == null) {
+            TextDrawable drawable = createDrawable(text, width, height);
+            bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            drawable.setBounds(0, 0, width, height);
+            drawable.draw(new Canvas(bitmap));
+            _cache.put(key, bitmap);
+        }
+
+        return bitmap;
+    }
+
+    @VisibleForTesting
+    static TextDrawable createDrawable(String text, int width, int height) {
         return TextDrawable.builder().beginConfig()
-                .width(view.getLayoutParams().width)
-                .height(view.getLayoutParams().height)
+                .width(width)
+                .height(height)
                 .endConfig()
-                .buildRect(text.substring(0, 1).toUpperCase(), color);
+                .buildRect(text.substring(0, 1).toUpperCase(), getColor(text));
+    }
+
+    @VisibleForTesting
+    static LruCache<Key, Bitmap> getCache() {
+        return _cache;
+    }
+
+    @VisibleForTesting
+    static int getColor(String text) {
+        return _generator.getColor(text);
+    }
+
+    static class Key {
+        private final char _letter;
+        private final int _color;
+        private final int _width;
+        private final int _height;
+
+        private Key(char letter, int color, int width, int height) {
+            _letter = letter;
+            _color = color;
+            _width = width;
+            _height = height;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) o;
+            return _letter == key._letter
+                    && _color == key._color
+                    && _width == key._width
+                    && _height == key._height;
+        }
+
+        @Override
+        public int hashCode() {
+            // computed by hand, Objects.hash would box every field for each lookup
+            int res = _letter;
+            res = 31 * res + _color;
+            res = 31 * res + _width;
+            res = 31 * res + _height;
+            return res;
+        }
     }
 }
@@ -0,0 +1,156 @@
+package com.beemdevelopment.aegis.helpers;
+
+import android.os.SystemClock;
+import android.os.Trace;
+
+import com.beemdevelopment.aegis.util.TimingBuffer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Instruments the stages of unlocking the vault. Every stage is reported as a Trace
+ * section and its duration is kept in an in-memory ring buffer, so that the timings of
+ * the most recent unlocks can be inspected on the developer screen. Nothing is persisted.
+ */
+public class UnlockTracer {
+    public static final String STAGE_READ_FILE = "readVaultFile";
+    public static final String STAGE_PARSE_FILE = "parseVaultFile";
+    public static final String STAGE_DERIVE_KEY = "deriveKey";
+    public static final String STAGE_DECRYPT = "decryptVault";
+    public static final String STAGE_PARSE_VAULT = "parseVault";
+    public static final String STAGE_ADD_ENTRIES = "addEntries";
+    public static final String STAGE_FIRST_BIND = "firstBind";
+
+    private static final String[] STAGES = {
+            STAGE_READ_FILE, STAGE_PARSE_FILE, STAGE_DERIVE_KEY, STAGE_DECRYPT,
+            STAGE_PARSE_VAULT, STAGE_ADD_ENTRIES, STAGE_FIRST_BIND
+    };
+    private static final int CAPACITY = 32;
+
+    private static final Map<String, TimingBuffer> _timings = new LinkedHashMap<>();
+    private static volatile long _firstBindStart;
+
+    static {
+        for (String stage : STAGES) {
+            _timings.put(stage, new TimingBuffer(CAPACITY));
+        }
+    }
+
+    private UnlockTracer() {
+
+    }
+
+    /**
+     * Starts timing the given stage. The returned Section must be closed on the same
+     * thread, preferably with a try-with-resources statement.
+     */
+    public static Section begin(String stage) {
+        return new Section(stage);
+    }
+
+    /**
+     * Starts timing the first bind of an entry after the entry list has been populated.
+     * The stage ends with the next call to onBind.
+     */
+    public static void beginFirstBind() {
+        _firstBindStart = SystemClock.elapsedRealtimeNanos();
+    }
+
+    /**
+     * Called whenever an entry is bound to a view. This is cheap if no first bind is pending.
+     */
+    public static void onBind() {
+        long start = _firstBindStart;
+        if (start != 0) {
+            _firstBindStart = 0;
+            record(STAGE_FIRST_BIND, SystemClock.elapsedRealtimeNanos() - start);
+        }
+    }
+
+    private static synchronized void record(String stage, long nanos) {
+        _timings.get(stage).add(nanos);
+    }
+
+    /**
+     * Returns a snapshot of the statistics of every stage, in the order of the unlock pipeline.
+     */
+    public static synchronized List<Stats> getStats() {
+        List<Stats> stats = new ArrayList<>();
+        for (Map.Entry<String, TimingBuffer> entry : _timings.entrySet()) {
+            TimingBuffer buffer = entry.getValue();
+            stats.add(new Stats(entry.getKey(), buffer.size(), buffer.getLast(), buffer.getPercentile(50), buffer.getPercentile(95)));
+        }
+
+        return stats;
+    }
+
+    public static synchronized void clear() {
+        for (TimingBuffer buffer : _timings.values()) {
+            buffer.clear();
+        }
+    }
+
+    public static class Section implements AutoCloseable {
+        private final String _stage;
+        private final long _start;
+
+        private Section(String stage) {
+            if (!_timings.containsKey(stage)) {
+                throw new IllegalArgumentException(String.format("Unknown stage: %s", stage));
+            }
+
+            _stage = stage;
+            Trace.beginSection(stage);
+            _start = SystemClock.elapsedRealtimeNanos();
+        }
+
+        @Override
+        public void close() {
+            long nanos = SystemClock.elapsedRealtimeNanos() - _start;
+            Trace.endSection();
+            record(_stage, nanos);
+        }
+    }
+
+    public static class Stats {
+        private final String _stage;
+        private final int _count;
+        private final long _last;
+        private final long _p50;
+        private final long _p95;
+
+        private Stats(String stage, int count, long last, long p50, long p95) {
+            _stage = stage;
+            _count = count;
+            _last = last;
+            _p50 = p50;
+            _p95 = p95;
+        }
+
+        public String getStage() {
+            return _stage;
+        }
+
+        public int getCount() {
+            return _count;
+        }
+
+        /**
+         * Returns the duration of the most recent run of this stage in nanoseconds.
+         */
+        public long getLast() {
+            return _last;
+        }
+
+        public long getP50() {
+            return _p50;
+        }
+
+        public long getP95() {
+            return _p95;
+        }
+    }
+}
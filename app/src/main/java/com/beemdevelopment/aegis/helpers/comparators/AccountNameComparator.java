@@ -2,11 +2,14 @@ package com.beemdevelopment.aegis.helpers.comparators;
 
 import com.beemdevelopment.aegis.vault.VaultEntry;
 
+import java.text.Collator;
 import java.util.Comparator;
 
 public class AccountNameComparator implements Comparator<VaultEntry> {
+    private final Collator _collator = SortCollator.getInstance();
+
     @Override
     public int compare(VaultEntry a, VaultEntry b) {
-        return a.getName().compareToIgnoreCase(b.getName());
+        return a.getNameSortKey(_collator).compareTo(b.getNameSortKey(_collator));
     }
-}
\ No newline at end of file
+}
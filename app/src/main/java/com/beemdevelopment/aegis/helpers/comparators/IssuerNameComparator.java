@@ -2,11 +2,14 @@ package com.beemdevelopment.aegis.helpers.comparators;
 
 import com.beemdevelopment.aegis.vault.VaultEntry;
 
+import java.text.Collator;
 import java.util.Comparator;
 
 public class IssuerNameComparator implements Comparator<VaultEntry> {
+    private final Collator _collator = SortCollator.getInstance();
+
     @Override
     public int compare(VaultEntry a, VaultEntry b) {
-        return a.getIssuer().compareToIgnoreCase(b.getIssuer());
+        return a.getIssuerSortKey(_collator).compareTo(b.getIssuerSortKey(_collator));
     }
 }
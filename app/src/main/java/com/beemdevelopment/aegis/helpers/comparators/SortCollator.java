@@ -0,0 +1,27 @@
+package com.beemdevelopment.aegis.helpers.comparators;
+
+import java.text.Collator;
+import java.util.Locale;
+
+/**
+ * Provides the collator that entries and groups are sorted with, so that the entry list
+ * and the group lists agree on the order. The same instance is returned for as long as
+ * the default locale doesn't change, which allows entries to keep their sort keys.
+ */
+public class SortCollator {
+    private static Collator _collator;
+    private static Locale _locale;
+
+    private SortCollator() {
+
+    }
+
+    public static synchronized Collator getInstance() {
+        Locale locale = Locale.getDefault();
+        if (_collator == null || !locale.equals(_locale)) {
+            _collator = Collator.getInstance(locale);
+            _locale = locale;
+        }
+        return _collator;
+    }
+}
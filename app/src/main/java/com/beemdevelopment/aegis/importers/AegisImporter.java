@@ -5,13 +5,18 @@ import android.content.DialogInterface;
 
 import androidx.lifecycle.Lifecycle;
 
+import com.beemdevelopment.aegis.crypto.EntryKeys;
+import com.beemdevelopment.aegis.crypto.MasterKey;
 import com.beemdevelopment.aegis.encoding.EncodingException;
 import com.beemdevelopment.aegis.helpers.ContextHelper;
 import com.beemdevelopment.aegis.otp.OtpInfoException;
 import com.beemdevelopment.aegis.ui.dialogs.Dialogs;
 import com.beemdevelopment.aegis.ui.tasks.PasswordSlotDecryptTask;
 import com.beemdevelopment.aegis.util.IOUtils;
+import com.beemdevelopment.aegis.vault.Vault;
+import com.beemdevelopment.aegis.vault.VaultDelta;
 import com.beemdevelopment.aegis.vault.VaultEntry;
+import com.beemdevelopment.aegis.vault.VaultException;
 import com.beemdevelopment.aegis.vault.VaultFile;
 import com.beemdevelopment.aegis.vault.VaultFileCredentials;
 import com.beemdevelopment.aegis.vault.VaultFileException;
@@ -46,7 +51,7 @@ public class AegisImporter extends DatabaseImporter {
             if (file.isEncrypted()) {
                 return new EncryptedState(file);
             }
-            return new DecryptedState(file.getContent());
+            return new DecryptedState(file.getContent(), null);
         } catch (VaultFileException | IOException e) {
             throw new DatabaseImporterException(e);
         }
@@ -72,7 +77,7 @@ public class AegisImporter extends DatabaseImporter {
                 throw new DatabaseImporterException(e);
             }
 
-            return new DecryptedState(obj);
+            return new DecryptedState(obj, creds.getKey());
         }
 
         public State decrypt(char[] password) throws DatabaseImporterException {
@@ -109,37 +114,44 @@ public class AegisImporter extends DatabaseImporter {
 
     public static class DecryptedState extends State {
         private JSONObject _obj;
+        private MasterKey _key;
 
-        private DecryptedState(JSONObject obj) {
+        private DecryptedState(JSONObject obj, MasterKey key) {
             super(false);
             _obj = obj;
+            _key = key;
         }
 
         @Override
         public Result convert() throws DatabaseImporterException {
+            if (VaultDelta.isDelta(_obj)) {
+                throw new DatabaseImporterException("This is an incremental backup, restore it from the backup settings instead");
+            }
+
             Result result = new Result();
 
             try {
+                EntryKeys keys = Vault.readEntryKeys(_obj, _key);
                 JSONArray array = _obj.getJSONArray("entries");
                 for (int i = 0; i < array.length(); i++) {
                     JSONObject entryObj = array.getJSONObject(i);
                     try {
-                        VaultEntry entry = convertEntry(entryObj);
+                        VaultEntry entry = convertEntry(entryObj, keys);
                         result.addEntry(entry);
                     } catch (DatabaseImporterEntryException e) {
                         result.addError(e);
                     }
                 }
-            } catch (JSONException e) {
+            } catch (VaultException | JSONException e) {
                 throw new DatabaseImporterException(e);
             }
 
             return result;
         }
 
-        private static VaultEntry convertEntry(JSONObject obj) throws DatabaseImporterEntryException {
+        private static VaultEntry convertEntry(JSONObject obj, EntryKeys keys) throws DatabaseImporterEntryException {
             try {
-                return VaultEntry.fromJson(obj);
+                return VaultEntry.fromJson(obj, keys);
             } catch (JSONException | OtpInfoException | EncodingException e) {
                 throw new DatabaseImporterEntryException(e, obj.toString());
             }
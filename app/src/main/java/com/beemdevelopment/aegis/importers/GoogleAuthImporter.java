@@ -35,7 +35,7 @@ public class GoogleAuthImporter extends DatabaseImporter {
     @Override
     public State read(InputStream stream, boolean isInternal) throws DatabaseImporterException {
         SqlImporterHelper helper = new SqlImporterHelper(getContext());
-        List<Entry> entries = helper.read(Entry.class, stream, "accounts");
+        List<Entry> entries = helper.read(Entry.MAPPER, stream, "accounts");
         return new State(entries);
     }
 
@@ -43,7 +43,7 @@ public class GoogleAuthImporter extends DatabaseImporter {
     public DatabaseImporter.State readFromApp() throws PackageManager.NameNotFoundException, DatabaseImporterException {
         SuFile path = getAppPath();
         SqlImporterHelper helper = new SqlImporterHelper(getContext());
-        List<Entry> entries = helper.read(Entry.class, path, "accounts");
+        List<Entry> entries = helper.read(Entry.MAPPER, path, "accounts");
         return new State(entries);
     }
 
@@ -100,20 +100,39 @@ public class GoogleAuthImporter extends DatabaseImporter {
         }
     }
 
-    private static class Entry extends SqlImporterHelper.Entry {
+    private static class Entry {
+        private static final int COLUMN_TYPE = 0;
+        private static final int COLUMN_SECRET = 1;
+        private static final int COLUMN_EMAIL = 2;
+        private static final int COLUMN_ISSUER = 3;
+        private static final int COLUMN_COUNTER = 4;
+
+        private static final SqlImporterHelper.RowMapper<Entry> MAPPER = new SqlImporterHelper.RowMapper<Entry>() {
+            private final String[] _projection = {"type", "secret", "email", "issuer", "counter"};
+
+            @Override
+            public String[] getProjection() {
+                return _projection;
+            }
+
+            @Override
+            public Entry map(Cursor cursor, int[] columns) {
+                return new Entry(cursor, columns);
+            }
+        };
+
         private int _type;
         private String _secret;
         private String _email;
         private String _issuer;
         private long _counter;
 
-        public Entry(Cursor cursor) {
-            super(cursor);
-            _type = SqlImporterHelper.getInt(cursor, "type");
-            _secret = SqlImporterHelper.getString(cursor, "secret");
-            _email = SqlImporterHelper.getString(cursor, "email", "");
-            _issuer = SqlImporterHelper.getString(cursor, "issuer", "");
-            _counter = SqlImporterHelper.getLong(cursor, "counter");
+        private Entry(Cursor cursor, int[] columns) {
+            _type = cursor.getInt(columns[COLUMN_TYPE]);
+            _secret = cursor.getString(columns[COLUMN_SECRET]);
+            _email = SqlImporterHelper.getString(cursor, columns[COLUMN_EMAIL], "");
+            _issuer = SqlImporterHelper.getString(cursor, columns[COLUMN_ISSUER], "");
+            _counter = cursor.getLong(columns[COLUMN_COUNTER]);
         }
 
         public int getType() {
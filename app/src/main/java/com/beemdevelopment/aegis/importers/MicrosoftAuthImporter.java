@@ -35,7 +35,7 @@ public class MicrosoftAuthImporter extends DatabaseImporter {
     @Override
     public State read(InputStream stream, boolean isInternal) throws DatabaseImporterException {
         SqlImporterHelper helper = new SqlImporterHelper(getContext());
-        List<Entry> entries = helper.read(Entry.class, stream, "accounts");
+        List<Entry> entries = helper.read(Entry.MAPPER, stream, "accounts");
         return new State(entries);
     }
 
@@ -43,7 +43,7 @@ public class MicrosoftAuthImporter extends DatabaseImporter {
     public DatabaseImporter.State readFromApp() throws PackageManager.NameNotFoundException, DatabaseImporterException {
         SuFile path = getAppPath();
         SqlImporterHelper helper = new SqlImporterHelper(getContext());
-        List<Entry> entries = helper.read(Entry.class, path, "accounts");
+        List<Entry> entries = helper.read(Entry.MAPPER, path, "accounts");
         return new State(entries);
     }
 
@@ -99,18 +99,36 @@ public class MicrosoftAuthImporter extends DatabaseImporter {
         }
     }
 
-    private static class Entry extends SqlImporterHelper.Entry {
+    private static class Entry {
+        private static final int COLUMN_TYPE = 0;
+        private static final int COLUMN_SECRET = 1;
+        private static final int COLUMN_ISSUER = 2;
+        private static final int COLUMN_USERNAME = 3;
+
+        private static final SqlImporterHelper.RowMapper<Entry> MAPPER = new SqlImporterHelper.RowMapper<Entry>() {
+            private final String[] _projection = {"account_type", "oath_secret_key", "name", "username"};
+
+            @Override
+            public String[] getProjection() {
+                return _projection;
+            }
+
+            @Override
+            public Entry map(Cursor cursor, int[] columns) {
+                return new Entry(cursor, columns);
+            }
+        };
+
         private int _type;
         private String _secret;
         private String _issuer;
         private String _userName;
 
-        public Entry(Cursor cursor) {
-            super(cursor);
-            _type = SqlImporterHelper.getInt(cursor, "account_type");
-            _secret = SqlImporterHelper.getString(cursor, "oath_secret_key");
-            _issuer = SqlImporterHelper.getString(cursor, "name");
-            _userName = SqlImporterHelper.getString(cursor, "username");
+        private Entry(Cursor cursor, int[] columns) {
+            _type = cursor.getInt(columns[COLUMN_TYPE]);
+            _secret = cursor.getString(columns[COLUMN_SECRET]);
+            _issuer = cursor.getString(columns[COLUMN_ISSUER]);
+            _userName = cursor.getString(columns[COLUMN_USERNAME]);
         }
 
         public int getType() {
@@ -1,10 +1,10 @@
 package com.beemdevelopment.aegis.importers;
 
-import android.annotation.SuppressLint;
 import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteException;
+import android.text.TextUtils;
 
 import com.beemdevelopment.aegis.util.IOUtils;
 import com.google.common.io.Files;
@@ -15,7 +15,6 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -28,16 +27,27 @@ public class SqlImporterHelper {
         _context = context;
     }
 
-    public <T extends Entry> List<T> read(Class<T> type, SuFile path, String table) throws DatabaseImporterException {
+    public <T> List<T> read(RowMapper<T> mapper, SuFile path, String table) throws DatabaseImporterException {
+        // if we can read the database without root, try to open it in place to avoid copying it
+        File file = new File(path.getAbsolutePath());
+        if (file.canRead()) {
+            try {
+                return read(mapper, file, table);
+            } catch (DatabaseImporterException e) {
+                // opening a database read-only fails if its WAL has to be recovered,
+                // so fall back to reading from a copy of the database files
+            }
+        }
+
         File dir = Files.createTempDir();
         File mainFile = new File(dir, path.getName());
 
         List<File> fileCopies = new ArrayList<>();
-        for (SuFile file : SqlImporterHelper.findDatabaseFiles(path)) {
+        for (SuFile dbFile : SqlImporterHelper.findDatabaseFiles(path)) {
             // create temporary copies of the database files so that SQLiteDatabase can open them
             File fileCopy = null;
-            try (SuFileInputStream inStream = new SuFileInputStream(file)) {
-                fileCopy = new File(dir, file.getName());
+            try (SuFileInputStream inStream = new SuFileInputStream(dbFile)) {
+                fileCopy = new File(dir, dbFile.getName());
                 try (FileOutputStream out = new FileOutputStream(fileCopy)) {
                     IOUtils.copy(inStream, out);
                 }
@@ -50,17 +60,19 @@ public class SqlImporterHelper {
                 for (File fileCopy2 : fileCopies) {
                     fileCopy2.delete();
                 }
+                dir.delete();
 
                 throw new DatabaseImporterException(e);
             }
         }
 
         try {
-            return read(type, mainFile, table);
+            return read(mapper, mainFile, table);
         } finally {
             for (File fileCopy : fileCopies) {
                 fileCopy.delete();
             }
+            dir.delete();
         }
     }
 
@@ -73,7 +85,7 @@ public class SqlImporterHelper {
         return files;
     }
 
-    public <T extends Entry> List<T> read(Class<T> type, InputStream inStream, String table) throws DatabaseImporterException {
+    public <T> List<T> read(RowMapper<T> mapper, InputStream inStream, String table) throws DatabaseImporterException {
         File file = null;
         try {
             // create a temporary copy of the database so that SQLiteDatabase can open it
@@ -89,62 +101,52 @@ public class SqlImporterHelper {
         }
 
         try {
-            return read(type, file, table);
+            return read(mapper, file, table);
         } finally {
             // always delete the temporary file
             file.delete();
         }
     }
 
-    private <T extends Entry> List<T> read(Class<T> type, File file, String table) throws DatabaseImporterException {
+    private static <T> List<T> read(RowMapper<T> mapper, File file, String table) throws DatabaseImporterException {
+        String[] projection = mapper.getProjection();
+        String query = String.format("SELECT %s FROM %s", TextUtils.join(", ", projection), table);
+
         try (SQLiteDatabase db = SQLiteDatabase.openDatabase(file.getAbsolutePath(), null, OPEN_READONLY)) {
-            try (Cursor cursor = db.rawQuery(String.format("SELECT * FROM %s", table), null)) {
-                List<T> entries = new ArrayList<>();
-
-                if (cursor.moveToFirst()) {
-                    do {
-                        T entry = type.getDeclaredConstructor(Cursor.class).newInstance(cursor);
-                        entries.add(entry);
-                    } while (cursor.moveToNext());
+            try (Cursor cursor = db.rawQuery(query, null)) {
+                // resolve the column indices once, instead of once per row
+                int[] columns = new int[projection.length];
+                for (int i = 0; i < projection.length; i++) {
+                    columns[i] = cursor.getColumnIndexOrThrow(projection[i]);
+                }
+
+                List<T> entries = new ArrayList<>(cursor.getCount());
+                while (cursor.moveToNext()) {
+                    entries.add(mapper.map(cursor, columns));
                 }
 
                 return entries;
-            } catch (InstantiationException | IllegalAccessException
-                    | NoSuchMethodException | InvocationTargetException e) {
-                throw new RuntimeException(e);
             }
-        } catch (SQLiteException e) {
+        } catch (SQLiteException | IllegalArgumentException e) {
             throw new DatabaseImporterException(e);
         }
     }
 
-    @SuppressLint("Range")
-    public static String getString(Cursor cursor, String columnName) {
-        return cursor.getString(cursor.getColumnIndex(columnName));
-    }
-
-    @SuppressLint("Range")
-    public static String getString(Cursor cursor, String columnName, String def) {
-        String res = cursor.getString(cursor.getColumnIndex(columnName));
+    public static String getString(Cursor cursor, int column, String def) {
+        String res = cursor.getString(column);
         if (res == null) {
             return def;
         }
         return res;
     }
 
-    @SuppressLint("Range")
-    public static int getInt(Cursor cursor, String columnName) {
-        return cursor.getInt(cursor.getColumnIndex(columnName));
-    }
-
-    @SuppressLint("Range")
-    public static long getLong(Cursor cursor, String columnName) {
-        return cursor.getLong(cursor.getColumnIndex(columnName));
-    }
-
-    public static abstract class Entry {
-        public Entry(Cursor cursor) {
+    /**
+     * Maps the rows of a table to objects of type T. The columns in the projection
+     * are resolved once per cursor and passed to map in the same order.
+     */
+    public interface RowMapper<T> {
+        String[] getProjection();
 
-        }
+        T map(Cursor cursor, int[] columns);
     }
 }
@@ -10,6 +10,7 @@ import com.google.protobuf.InvalidProtocolBufferException;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class GoogleAuthInfo implements Serializable {
@@ -50,7 +51,9 @@ public class GoogleAuthInfo implements Serializable {
 
         builder.appendQueryParameter("digits", Integer.toString(_info.getDigits()));
         builder.appendQueryParameter("algorithm", _info.getAlgorithm(false));
-        builder.appendQueryParameter("secret", Base32.encode(_info.getSecret()));
+        byte[] secret = _info.getSecret();
+        builder.appendQueryParameter("secret", Base32.encode(secret));
+        Arrays.fill(secret, (byte) 0);
 
         if (_issuer != null && !_issuer.equals("")) {
             builder.path(String.format("%s:%s", _issuer, _accountName));
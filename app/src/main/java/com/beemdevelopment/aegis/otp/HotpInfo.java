@@ -1,5 +1,6 @@
 package com.beemdevelopment.aegis.otp;
 
+import com.beemdevelopment.aegis.crypto.EntryKeys;
 import com.beemdevelopment.aegis.crypto.otp.HOTP;
 import com.beemdevelopment.aegis.crypto.otp.OTP;
 
@@ -8,6 +9,7 @@ import org.json.JSONObject;
 
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.util.UUID;
 
 public class HotpInfo extends OtpInfo {
     public static final String ID = "hotp";
@@ -29,10 +31,20 @@ public class HotpInfo extends OtpInfo {
         setCounter(counter);
     }
 
+    protected HotpInfo(HotpInfo info) {
+        super(info);
+        _counter = info._counter;
+    }
+
+    @Override
+    public HotpInfo copy() {
+        return new HotpInfo(this);
+    }
+
     @Override
     public String getOtp() {
         try {
-            OTP otp = HOTP.generateOTP(getSecret(), getAlgorithm(true), getDigits(), getCounter());
+            OTP otp = HOTP.generateOTP(getHmac(), getDigits(), getCounter());
             return otp.toString();
         } catch (NoSuchAlgorithmException | InvalidKeyException e) {
             throw new RuntimeException(e);
@@ -45,8 +57,8 @@ public class HotpInfo extends OtpInfo {
     }
 
     @Override
-    public JSONObject toJson() {
-        JSONObject obj = super.toJson();
+    public JSONObject toJson(EntryKeys keys, UUID uuid) {
+        JSONObject obj = super.toJson(keys, uuid);
         try {
             obj.put("counter", getCounter());
         } catch (JSONException e) {
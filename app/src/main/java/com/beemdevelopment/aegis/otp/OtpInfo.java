@@ -1,5 +1,8 @@
 package com.beemdevelopment.aegis.otp;
 
+import com.beemdevelopment.aegis.crypto.EntryKeys;
+import com.beemdevelopment.aegis.crypto.MasterKeyException;
+import com.beemdevelopment.aegis.crypto.otp.HMAC;
 import com.beemdevelopment.aegis.encoding.Base32;
 import com.beemdevelopment.aegis.encoding.EncodingException;
 
@@ -7,16 +10,24 @@ import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.Serializable;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.UUID;
 
 public abstract class OtpInfo implements Serializable {
     public static final int DEFAULT_DIGITS = 6;
     public static final String DEFAULT_ALGORITHM = "SHA1";
 
     private byte[] _secret;
+    // set instead of _secret if the secret is only kept in its encrypted form, see seal
+    private SealedSecret _sealedSecret;
     private String _algorithm;
     private int _digits;
 
+    // keyed with the secret on first use and reset whenever the secret or algorithm changes
+    private transient HMAC _hmac;
+
     public OtpInfo(byte[] secret) throws OtpInfoException {
         this(secret, DEFAULT_ALGORITHM, DEFAULT_DIGITS);
     }
@@ -27,6 +38,18 @@ public abstract class OtpInfo implements Serializable {
         setDigits(digits);
     }
 
+    protected OtpInfo(OtpInfo info) {
+        _secret = info._secret == null ? null : info._secret.clone();
+        _sealedSecret = info._sealedSecret;
+        _algorithm = info._algorithm;
+        _digits = info._digits;
+    }
+
+    /**
+     * Returns a deep copy of this OtpInfo.
+     */
+    public abstract OtpInfo copy();
+
     public abstract String getOtp();
 
     public abstract String getTypeId();
@@ -36,21 +59,83 @@ public abstract class OtpInfo implements Serializable {
     }
 
     public JSONObject toJson() {
+        return toJson(null, null);
+    }
+
+    /**
+     * Serializes this OtpInfo. If keys is not null, the secret is written in its encrypted
+     * form, using the key of the entry with the given UUID. A secret that was sealed with
+     * the same keys before is written as-is, without decrypting it.
+     */
+    public JSONObject toJson(EntryKeys keys, UUID uuid) {
         JSONObject obj = new JSONObject();
 
         try {
-            obj.put("secret", new String(Base32.encode(getSecret())));
+            if (keys == null) {
+                byte[] secret = getSecret();
+                obj.put("secret", new String(Base32.encode(secret)));
+                wipe(secret);
+            } else {
+                SealedSecret sealed = _sealedSecret;
+                if (sealed == null || !sealed.isSealedWith(keys, uuid)) {
+                    sealed = sealSecret(keys, uuid);
+                }
+                obj.put("secret_enc", sealed.toJson());
+            }
             obj.put("algo", getAlgorithm(false));
             obj.put("digits", getDigits());
-        } catch (JSONException e) {
+        } catch (JSONException | MasterKeyException e) {
             throw new RuntimeException(e);
         }
 
         return obj;
     }
 
+    /**
+     * Returns a copy of the secret. If the secret is sealed, it is decrypted on every call
+     * and the plaintext is not retained. The caller owns the returned array and should
+     * wipe it once it's done with it.
+     */
     public byte[] getSecret() {
-        return _secret;
+        SealedSecret sealed = _sealedSecret;
+        if (sealed != null) {
+            try {
+                return sealed.unseal();
+            } catch (MasterKeyException e) {
+                // the vault as a whole is authenticated when it's decrypted, so this can only
+                // happen if the secret was sealed with a different key than it's unsealed with
+                throw new RuntimeException(e);
+            }
+        }
+
+        return _secret == null ? null : _secret.clone();
+    }
+
+    /**
+     * Encrypts the secret with the key of the entry with the given UUID and drops the
+     * plaintext copy of it. From then on, the secret is only decrypted when it's needed.
+     * This does nothing if the secret is already sealed with the same keys.
+     */
+    public void seal(EntryKeys keys, UUID uuid) throws MasterKeyException {
+        SealedSecret sealed = _sealedSecret;
+        if (sealed == null || !sealed.isSealedWith(keys, uuid)) {
+            // the HMAC is keyed with the same secret, so it stays valid
+            _sealedSecret = sealSecret(keys, uuid);
+        }
+        _secret = null;
+    }
+
+    private SealedSecret sealSecret(EntryKeys keys, UUID uuid) throws MasterKeyException {
+        byte[] secret = getSecret();
+        try {
+            return SealedSecret.seal(keys, uuid, secret);
+        } finally {
+            wipe(secret);
+        }
+    }
+
+    public boolean isSealed() {
+        return _sealedSecret != null;
     }
 
     public String getAlgorithm(boolean java) {
@@ -64,8 +149,37 @@ public abstract class OtpInfo implements Serializable {
         return _digits;
     }
 
+    /**
+     * Returns an HMAC that is keyed with the secret of this OtpInfo. It's created on
+     * first use and reused for every OTP after that.
+     */
+    protected HMAC getHmac() throws NoSuchAlgorithmException, InvalidKeyException {
+        HMAC hmac = _hmac;
+        if (hmac == null) {
+            byte[] secret = getSecret();
+            try {
+                hmac = HMAC.create(secret, getAlgorithm(true));
+            } finally {
+                wipe(secret);
+            }
+            _hmac = hmac;
+        }
+
+        return hmac;
+    }
+
+    /**
+     * Drops the keyed HMAC, so that it doesn't take up memory while no codes are generated
+     * for this OtpInfo. It's created again on the next OTP.
+     */
+    public void releaseHmac() {
+        _hmac = null;
+    }
+
     public void setSecret(byte[] secret) {
         _secret = secret;
+        _sealedSecret = null;
+        _hmac = null;
     }
 
     public static boolean isAlgorithmValid(String algorithm) {
@@ -82,6 +196,7 @@ public abstract class OtpInfo implements Serializable {
             throw new OtpInfoException(String.format("unsupported algorithm: %s", algorithm));
         }
         _algorithm = algorithm;
+        _hmac = null;
     }
 
     public static boolean isDigitsValid(int digits) {
@@ -97,10 +212,28 @@ public abstract class OtpInfo implements Serializable {
     }
 
     public static OtpInfo fromJson(String type, JSONObject obj) throws OtpInfoException {
+        return fromJson(type, obj, null, null);
+    }
+
+    /**
+     * Deserializes an OtpInfo. If the secret is encrypted, it is only decrypted when it's
+     * first needed, using the key of the entry with the given UUID.
+     */
+    public static OtpInfo fromJson(String type, JSONObject obj, EntryKeys keys, UUID uuid) throws OtpInfoException {
         OtpInfo info;
 
         try {
-            byte[] secret = Base32.decode(obj.getString("secret"));
+            byte[] secret = null;
+            SealedSecret sealed = null;
+            if (obj.has("secret_enc")) {
+                if (keys == null) {
+                    throw new OtpInfoException("The secret is encrypted, but no key was given");
+                }
+                sealed = SealedSecret.fromJson(obj.getJSONObject("secret_enc"), keys, uuid);
+            } else {
+                secret = Base32.decode(obj.getString("secret"));
+            }
+
             String algo = obj.getString("algo");
             int digits = obj.getInt("digits");
 
@@ -117,6 +250,8 @@ public abstract class OtpInfo implements Serializable {
                 default:
                     throw new OtpInfoException("unsupported otp type: " + type);
             }
+
+            info._sealedSecret = sealed;
         } catch (EncodingException | JSONException e) {
             throw new OtpInfoException(e);
         }
@@ -135,8 +270,34 @@ public abstract class OtpInfo implements Serializable {
 
         OtpInfo info = (OtpInfo) o;
         return getTypeId().equals(info.getTypeId())
-                && Arrays.equals(getSecret(), info.getSecret())
                 && getAlgorithm(false).equals(info.getAlgorithm(false))
-                && getDigits() == info.getDigits();
+                && getDigits() == info.getDigits()
+                && hasSameSecret(info);
+    }
+
+    private boolean hasSameSecret(OtpInfo info) {
+        // secrets that were sealed for the same entry with the same keys, like those of
+        // copies of an entry, can be compared without decrypting them
+        SealedSecret sealed = _sealedSecret;
+        if (sealed != null && sealed.isSameAs(info._sealedSecret)) {
+            return true;
+        }
+
+        // sealing the same secret twice results in a different ciphertext, so compare the
+        // plaintexts if the ciphertexts don't match
+        byte[] secret = getSecret();
+        byte[] otherSecret = info.getSecret();
+        try {
+            return Arrays.equals(secret, otherSecret);
+        } finally {
+            wipe(secret);
+            wipe(otherSecret);
+        }
+    }
+
+    private static void wipe(byte[] bytes) {
+        if (bytes != null) {
+            Arrays.fill(bytes, (byte) 0);
+        }
     }
 }
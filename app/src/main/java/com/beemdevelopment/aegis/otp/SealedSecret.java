@@ -0,0 +1,86 @@
+package com.beemdevelopment.aegis.otp;
+
+import com.beemdevelopment.aegis.crypto.CryptParameters;
+import com.beemdevelopment.aegis.crypto.CryptResult;
+import com.beemdevelopment.aegis.crypto.EntryKeys;
+import com.beemdevelopment.aegis.crypto.MasterKeyException;
+import com.beemdevelopment.aegis.encoding.Base64;
+import com.beemdevelopment.aegis.encoding.EncodingException;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * The secret of an entry, encrypted with the key of that entry. Instances are immutable,
+ * so they can be shared between copies of an OtpInfo.
+ */
+public class SealedSecret implements Serializable {
+    private final EntryKeys _keys;
+    private final UUID _uuid;
+    private final byte[] _data;
+    private final CryptParameters _params;
+
+    private SealedSecret(EntryKeys keys, UUID uuid, byte[] data, CryptParameters params) {
+        _keys = keys;
+        _uuid = uuid;
+        _data = data;
+        _params = params;
+    }
+
+    public static SealedSecret seal(EntryKeys keys, UUID uuid, byte[] secret) throws MasterKeyException {
+        CryptResult result = keys.deriveKey(uuid).encrypt(secret);
+        return new SealedSecret(keys, uuid, result.getData(), result.getParams());
+    }
+
+    public byte[] unseal() throws MasterKeyException {
+        CryptResult result = _keys.deriveKey(_uuid).decrypt(_data, _params);
+        return result.getData();
+    }
+
+    /**
+     * Reports whether this secret was sealed for the entry with the given UUID, using
+     * the given keys or keys that are equal to them.
+     */
+    public boolean isSealedWith(EntryKeys keys, UUID uuid) {
+        return _uuid.equals(uuid) && _keys.equals(keys);
+    }
+
+    /**
+     * Reports whether the given secret has the same ciphertext as this one and was sealed
+     * for the same entry with the same keys, in which case both contain the same secret.
+     * Secrets are not decrypted for this.
+     */
+    public boolean isSameAs(SealedSecret sealed) {
+        if (sealed == this) {
+            return true;
+        }
+
+        return sealed != null
+                && Arrays.equals(_data, sealed._data)
+                && _params.equals(sealed._params)
+                && isSealedWith(sealed._keys, sealed._uuid);
+    }
+
+    public JSONObject toJson() {
+        JSONObject obj = new JSONObject();
+
+        try {
+            obj.put("data", Base64.encode(_data));
+            obj.put("params", _params.toJson());
+        } catch (JSONException e) {
+            throw new RuntimeException(e);
+        }
+
+        return obj;
+    }
+
+    public static SealedSecret fromJson(JSONObject obj, EntryKeys keys, UUID uuid) throws JSONException, EncodingException {
+        byte[] data = Base64.decode(obj.getString("data"));
+        CryptParameters params = CryptParameters.fromJson(obj.getJSONObject("params"));
+        return new SealedSecret(keys, uuid, data, params);
+    }
+}
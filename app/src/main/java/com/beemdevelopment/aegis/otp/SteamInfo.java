@@ -18,10 +18,19 @@ public class SteamInfo extends TotpInfo {
         super(secret, algorithm, digits, period);
     }
 
+    protected SteamInfo(SteamInfo info) {
+        super(info);
+    }
+
+    @Override
+    public SteamInfo copy() {
+        return new SteamInfo(this);
+    }
+
     @Override
     public String getOtp() {
         try {
-            OTP otp = TOTP.generateOTP(getSecret(), getAlgorithm(true), getDigits(), getPeriod());
+            OTP otp = TOTP.generateOTP(getHmac(), getDigits(), getPeriod());
             return otp.toSteamString();
         } catch (InvalidKeyException | NoSuchAlgorithmException e) {
             throw new RuntimeException(e);
@@ -1,5 +1,6 @@
 package com.beemdevelopment.aegis.otp;
 
+import com.beemdevelopment.aegis.crypto.EntryKeys;
 import com.beemdevelopment.aegis.crypto.otp.OTP;
 import com.beemdevelopment.aegis.crypto.otp.TOTP;
 
@@ -8,6 +9,7 @@ import org.json.JSONObject;
 
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.util.UUID;
 
 public class TotpInfo extends OtpInfo {
     public static final String ID = "totp";
@@ -25,10 +27,20 @@ public class TotpInfo extends OtpInfo {
         setPeriod(period);
     }
 
+    protected TotpInfo(TotpInfo info) {
+        super(info);
+        _period = info._period;
+    }
+
+    @Override
+    public TotpInfo copy() {
+        return new TotpInfo(this);
+    }
+
     @Override
     public String getOtp() {
         try {
-            OTP otp = TOTP.generateOTP(getSecret(), getAlgorithm(true), getDigits(), getPeriod());
+            OTP otp = TOTP.generateOTP(getHmac(), getDigits(), getPeriod());
             return otp.toString();
         } catch (InvalidKeyException | NoSuchAlgorithmException e) {
             throw new RuntimeException(e);
@@ -37,7 +49,7 @@ public class TotpInfo extends OtpInfo {
 
     public String getOtp(long time) {
         try {
-            OTP otp = TOTP.generateOTP(getSecret(), getAlgorithm(true), getDigits(), getPeriod(), time);
+            OTP otp = TOTP.generateOTP(getHmac(), getDigits(), getPeriod(), time);
             return otp.toString();
         } catch (InvalidKeyException | NoSuchAlgorithmException e) {
             throw new RuntimeException(e);
@@ -50,8 +62,8 @@ public class TotpInfo extends OtpInfo {
     }
 
     @Override
-    public JSONObject toJson() {
-        JSONObject obj = super.toJson();
+    public JSONObject toJson(EntryKeys keys, UUID uuid) {
+        JSONObject obj = super.toJson(keys, uuid);
         try {
             obj.put("period", getPeriod());
         } catch (JSONException e) {
@@ -15,6 +15,7 @@ import androidx.annotation.AttrRes;
 import androidx.annotation.StringRes;
 import androidx.core.view.LayoutInflaterCompat;
 
+import com.beemdevelopment.aegis.AegisApplication;
 import com.beemdevelopment.aegis.BuildConfig;
 import com.beemdevelopment.aegis.R;
 import com.beemdevelopment.aegis.Theme;
@@ -40,6 +41,7 @@ public class AboutActivity extends AegisActivity {
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        ((AegisApplication) getApplication()).initIconics();
         LayoutInflaterCompat.setFactory2(getLayoutInflater(), new IconicsLayoutInflater2(getDelegate()));
 
         super.onCreate(savedInstanceState);
@@ -68,6 +70,13 @@ public class AboutActivity extends AegisActivity {
         btnAppVersion.setOnClickListener(v -> {
             copyToClipboard(getCurrentAppVersion(), R.string.version_copied);
         });
+        btnAppVersion.setOnLongClickListener(v -> {
+            // hidden toggle for the developer screen in the settings
+            boolean enabled = !getPreferences().isDeveloperModeEnabled();
+            getPreferences().setIsDeveloperModeEnabled(enabled);
+            Toast.makeText(this, enabled ? R.string.developer_mode_enabled : R.string.developer_mode_disabled, Toast.LENGTH_SHORT).show();
+            return true;
+        });
 
         View btnGithub = findViewById(R.id.btn_github);
         btnGithub.setOnClickListener(v -> openUrl(GITHUB));
@@ -4,7 +4,10 @@ import android.content.Context;
 import android.content.Intent;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.SystemClock;
+import android.os.Trace;
 import android.text.InputType;
+import android.util.Log;
 import android.view.KeyEvent;
 import android.view.View;
 import android.view.ViewGroup;
@@ -21,6 +24,7 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AlertDialog;
 import androidx.biometric.BiometricPrompt;
+import androidx.lifecycle.Lifecycle;
 
 import com.beemdevelopment.aegis.AegisApplication;
 import com.beemdevelopment.aegis.Preferences;
@@ -35,7 +39,6 @@ import com.beemdevelopment.aegis.helpers.MetricsHelper;
 import com.beemdevelopment.aegis.helpers.UiThreadExecutor;
 import com.beemdevelopment.aegis.ui.dialogs.Dialogs;
 import com.beemdevelopment.aegis.ui.tasks.PasswordSlotDecryptTask;
-import com.beemdevelopment.aegis.vault.VaultFile;
 import com.beemdevelopment.aegis.vault.VaultFileCredentials;
 import com.beemdevelopment.aegis.vault.VaultManagerException;
 import com.beemdevelopment.aegis.vault.slots.BiometricSlot;
@@ -46,18 +49,30 @@ import com.beemdevelopment.aegis.vault.slots.SlotIntegrityException;
 import com.beemdevelopment.aegis.vault.slots.SlotList;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.crypto.Cipher;
 import javax.crypto.SecretKey;
 
 public class AuthActivity extends AegisActivity {
+    private static final String TAG = AuthActivity.class.getSimpleName();
+
     private EditText _textPassword;
+    private Button _decryptButton;
+    private TextView _biometricsButton;
+    private LinearLayout _boxBiometricInfo;
 
     private SlotList _slots;
     private SecretKey _bioKey;
     private BiometricSlot _bioSlot;
+    private Cipher _bioCipher;
     private BiometricPrompt _bioPrompt;
 
+    // the vault file is parsed and the keystore is prepared on a background thread
+    private ExecutorService _executor;
+    private boolean _prepared;
+
     private int _failedUnlockAttempts;
 
     // the first time this activity is resumed after creation, it's possible to inhibit showing the
@@ -72,13 +87,13 @@ public class AuthActivity extends AegisActivity {
         _prefs = new Preferences(this);
         setContentView(R.layout.activity_auth);
         _textPassword = findViewById(R.id.text_password);
-        LinearLayout boxBiometricInfo = findViewById(R.id.box_biometric_info);
-        Button decryptButton = findViewById(R.id.button_decrypt);
-        TextView biometricsButton = findViewById(R.id.button_biometrics);
+        _boxBiometricInfo = findViewById(R.id.box_biometric_info);
+        _decryptButton = findViewById(R.id.button_decrypt);
+        _biometricsButton = findViewById(R.id.button_biometrics);
 
         _textPassword.setOnEditorActionListener((v, actionId, event) -> {
             if ((event != null && (event.getKeyCode() == KeyEvent.KEYCODE_ENTER)) || (actionId == EditorInfo.IME_ACTION_DONE)) {
-                decryptButton.performClick();
+                _decryptButton.performClick();
             }
             return false;
         });
@@ -94,65 +109,157 @@ public class AuthActivity extends AegisActivity {
             _inhibitBioPrompt = savedInstanceState.getBoolean("inhibitBioPrompt", false);
         }
 
+        // the decrypt button is enabled once the list of slots is available
+        _decryptButton.setEnabled(false);
+
+        boolean checkBiometrics = BiometricsHelper.isAvailable(this);
+        AegisApplication app = getApp();
+        _executor = Executors.newSingleThreadExecutor();
+        _executor.execute(() -> {
+            Trace.beginSection("AuthActivity.prepare");
+            Preparation prep;
+            try {
+                prep = prepare(app, checkBiometrics);
+            } finally {
+                Trace.endSection();
+            }
+            runOnUiThread(() -> onPrepared(prep));
+        });
+
+        _decryptButton.setOnClickListener(v -> {
+            InputMethodManager imm = (InputMethodManager)getSystemService(Context.INPUT_METHOD_SERVICE);
+            imm.hideSoftInputFromWindow(v.getWindowToken(), 0);
+
+            char[] password = EditTextHelper.getEditTextChars(_textPassword);
+            List<PasswordSlot> slots = _slots.findAll(PasswordSlot.class);
+            PasswordSlotDecryptTask.Params params = new PasswordSlotDecryptTask.Params(slots, password);
+            PasswordSlotDecryptTask task = new PasswordSlotDecryptTask(AuthActivity.this, new PasswordDerivationListener());
+            task.execute(getLifecycle(), params);
+        });
+
+        _biometricsButton.setOnClickListener(v -> {
+            showBiometricPrompt();
+        });
+    }
+
+    @Override
+    protected void onDestroy() {
+        _executor.shutdownNow();
+        super.onDestroy();
+    }
+
+    /**
+     * Reads and parses the vault file, opens the keystore, locates a usable biometric slot and
+     * initializes a decrypt cipher for it. This is called on a background thread, so that it
+     * runs in parallel with the activity being drawn and no work remains to be done before the
+     * biometric prompt can be shown.
+     */
+    private static Preparation prepare(AegisApplication app, boolean checkBiometrics) {
+        Preparation prep = new Preparation();
+        long start = SystemClock.elapsedRealtime();
+
         try {
-            VaultFile vaultFile = getApp().loadVaultFile();
-            _slots = vaultFile.getHeader().getSlots();
+            prep._slots = app.loadVaultFile().getHeader().getSlots();
         } catch (VaultManagerException e) {
-            e.printStackTrace();
-            Dialogs.showErrorDialog(this, R.string.vault_load_error, e, (dialog, which) -> onBackPressed());
-            return;
+            prep._vaultError = e;
+            return prep;
         }
 
-        // only show the biometric prompt if the api version is new enough, permission is granted, a scanner is found and a biometric slot is found
-        if (_slots.has(BiometricSlot.class) && BiometricsHelper.isAvailable(this)) {
-            boolean invalidated = false;
+        long vaultTime = SystemClock.elapsedRealtime();
+        long keyStoreTime = vaultTime;
+        long keyTime = vaultTime;
+        long cipherTime = vaultTime;
 
+        // only look for a biometric key if the api version is new enough, permission is granted, a scanner is found and a biometric slot is found
+        if (checkBiometrics && prep._slots.has(BiometricSlot.class)) {
             try {
+                KeyStoreHandle handle = new KeyStoreHandle();
+                keyStoreTime = SystemClock.elapsedRealtime();
+
                 // find a biometric slot with an id that matches an alias in the keystore
-                for (BiometricSlot slot : _slots.findAll(BiometricSlot.class)) {
+                for (BiometricSlot slot : prep._slots.findAll(BiometricSlot.class)) {
                     String id = slot.getUUID().toString();
-                    KeyStoreHandle handle = new KeyStoreHandle();
                     if (handle.containsKey(id)) {
                         SecretKey key = handle.getKey(id);
                         // if 'key' is null, it was permanently invalidated
                         if (key == null) {
-                            invalidated = true;
+                            prep._bioInvalidated = true;
                             continue;
                         }
 
-                        _bioSlot = slot;
-                        _bioKey = key;
-                        biometricsButton.setVisibility(View.VISIBLE);
-                        invalidated = false;
+                        prep._bioSlot = slot;
+                        prep._bioKey = key;
+                        prep._bioInvalidated = false;
                         break;
                     }
                 }
             } catch (KeyStoreHandleException e) {
-                e.printStackTrace();
-                Dialogs.showErrorDialog(this, R.string.biometric_init_error, e);
+                prep._bioError = e;
             }
 
-            // display a help message if a matching invalidated keystore entry was found
-            if (invalidated) {
-                boxBiometricInfo.setVisibility(View.VISIBLE);
-                biometricsButton.setVisibility(View.GONE);
+            keyTime = SystemClock.elapsedRealtime();
+            cipherTime = keyTime;
+
+            if (prep._bioSlot != null) {
+                try {
+                    prep._bioCipher = prep._bioSlot.createDecryptCipher(prep._bioKey);
+                } catch (SlotException e) {
+                    // showBiometricPrompt will try again and report the error to the user
+                    e.printStackTrace();
+                }
+                cipherTime = SystemClock.elapsedRealtime();
             }
         }
 
-        decryptButton.setOnClickListener(v -> {
-            InputMethodManager imm = (InputMethodManager)getSystemService(Context.INPUT_METHOD_SERVICE);
-            imm.hideSoftInputFromWindow(v.getWindowToken(), 0);
+        Log.i(TAG, String.format("Prepared unlock: vault=%dms, keystore=%dms, key=%dms, cipher=%dms",
+                vaultTime - start, keyStoreTime - vaultTime, keyTime - keyStoreTime, cipherTime - keyTime));
+        return prep;
+    }
 
-            char[] password = EditTextHelper.getEditTextChars(_textPassword);
-            List<PasswordSlot> slots = _slots.findAll(PasswordSlot.class);
-            PasswordSlotDecryptTask.Params params = new PasswordSlotDecryptTask.Params(slots, password);
-            PasswordSlotDecryptTask task = new PasswordSlotDecryptTask(AuthActivity.this, new PasswordDerivationListener());
-            task.execute(getLifecycle(), params);
-        });
+    private void onPrepared(Preparation prep) {
+        if (isFinishing() || isDestroyed()) {
+            return;
+        }
 
-        biometricsButton.setOnClickListener(v -> {
-            showBiometricPrompt();
-        });
+        if (prep._vaultError != null) {
+            prep._vaultError.printStackTrace();
+            Dialogs.showErrorDialog(this, R.string.vault_load_error, prep._vaultError, (dialog, which) -> onBackPressed());
+            return;
+        }
+
+        _slots = prep._slots;
+        _bioSlot = prep._bioSlot;
+        _bioKey = prep._bioKey;
+        _bioCipher = prep._bioCipher;
+        _prepared = true;
+        _decryptButton.setEnabled(true);
+
+        // the user can start unlocking the vault from this point on, which marks the end of a cold start
+        reportFullyDrawn();
+
+        if (prep._bioError != null) {
+            prep._bioError.printStackTrace();
+            Dialogs.showErrorDialog(this, R.string.biometric_init_error, prep._bioError);
+        }
+
+        if (_bioKey != null) {
+            _biometricsButton.setVisibility(View.VISIBLE);
+        }
+
+        // display a help message if a matching invalidated keystore entry was found
+        if (prep._bioInvalidated) {
+            _boxBiometricInfo.setVisibility(View.VISIBLE);
+            _biometricsButton.setVisibility(View.GONE);
+        }
+
+        // if the activity was resumed before preparation finished, finish what onResume started
+        if (getLifecycle().getCurrentState().isAtLeast(Lifecycle.State.RESUMED)) {
+            onPreparedAndResumed();
+        }
+
+        if (_bioKey != null && _prefs.isPasswordReminderNeeded() && getWindow().getDecorView().isAttachedToWindow()) {
+            showPasswordReminder();
+        }
     }
 
     @Override
@@ -182,6 +289,13 @@ public class AuthActivity extends AegisActivity {
     public void onResume() {
         super.onResume();
 
+        // if preparation hasn't finished yet, this is picked up again in onPrepared
+        if (_prepared) {
+            onPreparedAndResumed();
+        }
+    }
+
+    private void onPreparedAndResumed() {
         boolean remindPassword = _prefs.isPasswordReminderNeeded();
         if (_bioKey == null || remindPassword) {
             focusPasswordField();
@@ -206,7 +320,7 @@ public class AuthActivity extends AegisActivity {
 
     @Override
     public void onAttachedToWindow() {
-        if (_bioKey != null && _prefs.isPasswordReminderNeeded()) {
+        if (_prepared && _bioKey != null && _prefs.isPasswordReminderNeeded()) {
             showPasswordReminder();
         }
     }
@@ -241,13 +355,17 @@ public class AuthActivity extends AegisActivity {
         InputMethodManager imm = (InputMethodManager)getSystemService(Context.INPUT_METHOD_SERVICE);
         imm.hideSoftInputFromWindow(_textPassword.getWindowToken(), 0);
 
-        Cipher cipher;
-        try {
-            cipher = _bioSlot.createDecryptCipher(_bioKey);
-        } catch (SlotException e) {
-            e.printStackTrace();
-            Dialogs.showErrorDialog(this, R.string.biometric_init_error, e);
-            return null;
+        // use the cipher that was initialized in the background if it hasn't been used yet
+        Cipher cipher = _bioCipher;
+        _bioCipher = null;
+        if (cipher == null) {
+            try {
+                cipher = _bioSlot.createDecryptCipher(_bioKey);
+            } catch (SlotException e) {
+                e.printStackTrace();
+                Dialogs.showErrorDialog(this, R.string.biometric_init_error, e);
+                return null;
+            }
         }
 
         BiometricPrompt.CryptoObject cryptoObj = new BiometricPrompt.CryptoObject(cipher);
@@ -266,8 +384,10 @@ public class AuthActivity extends AegisActivity {
         VaultFileCredentials creds = new VaultFileCredentials(key, _slots);
 
         try {
+            long start = SystemClock.elapsedRealtime();
             AegisApplication app = getApp();
             app.initVaultManager(app.loadVaultFile(), creds);
+            Log.i(TAG, String.format("Decrypted vault: %dms", SystemClock.elapsedRealtime() - start));
             if (isSlotRepaired) {
                 saveVault(true);
             }
@@ -316,6 +436,16 @@ public class AuthActivity extends AegisActivity {
         }
     }
 
+    private static class Preparation {
+        private VaultManagerException _vaultError;
+        private SlotList _slots;
+        private BiometricSlot _bioSlot;
+        private SecretKey _bioKey;
+        private Cipher _bioCipher;
+        private boolean _bioInvalidated;
+        private KeyStoreHandleException _bioError;
+    }
+
     private class BiometricPromptListener extends BiometricPrompt.AuthenticationCallback {
         @Override
         public void onAuthenticationError(int errorCode, @NonNull CharSequence errString) {
@@ -333,10 +463,11 @@ public class AuthActivity extends AegisActivity {
             _bioPrompt = null;
 
             MasterKey key;
-            BiometricSlot slot = _slots.find(BiometricSlot.class);
+            long start = SystemClock.elapsedRealtime();
 
             try {
-                key = slot.getKey(result.getCryptoObject().getCipher());
+                key = _bioSlot.getKey(result.getCryptoObject().getCipher());
+                Log.i(TAG, String.format("Decrypted master key: %dms", SystemClock.elapsedRealtime() - start));
             } catch (SlotException | SlotIntegrityException e) {
                 e.printStackTrace();
                 Dialogs.showErrorDialog(AuthActivity.this, R.string.biometric_decrypt_error, e);
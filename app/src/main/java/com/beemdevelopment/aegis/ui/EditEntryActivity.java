@@ -27,11 +27,11 @@ import androidx.annotation.Nullable;
 import androidx.appcompat.app.ActionBar;
 import androidx.appcompat.app.AlertDialog;
 
-import com.amulyakhare.textdrawable.TextDrawable;
 import com.avito.android.krop.KropView;
 import com.beemdevelopment.aegis.R;
 import com.beemdevelopment.aegis.encoding.Base32;
 import com.beemdevelopment.aegis.encoding.EncodingException;
+import com.beemdevelopment.aegis.helpers.BitmapHelper;
 import com.beemdevelopment.aegis.helpers.DropdownHelper;
 import com.beemdevelopment.aegis.helpers.EditTextHelper;
 import com.beemdevelopment.aegis.helpers.TextDrawableHelper;
@@ -42,7 +42,6 @@ import com.beemdevelopment.aegis.otp.OtpInfoException;
 import com.beemdevelopment.aegis.otp.SteamInfo;
 import com.beemdevelopment.aegis.otp.TotpInfo;
 import com.beemdevelopment.aegis.ui.dialogs.Dialogs;
-import com.beemdevelopment.aegis.util.Cloner;
 import com.beemdevelopment.aegis.vault.VaultEntry;
 import com.beemdevelopment.aegis.vault.VaultManager;
 import com.bumptech.glide.Glide;
@@ -52,8 +51,8 @@ import com.bumptech.glide.request.transition.Transition;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textfield.TextInputLayout;
 
-import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.TreeSet;
@@ -116,7 +115,12 @@ public class EditEntryActivity extends AegisActivity {
         if (entryUUID != null) {
             _origEntry = _vault.getEntryByUUID(entryUUID);
         } else {
-            _origEntry = (VaultEntry) intent.getSerializableExtra("newEntry");
+            // the new entry stays parked until this activity finishes, so that it survives recreation
+            _origEntry = getApp().getHandoffRegistry().get(intent.getStringExtra("newEntryToken"));
+            if (_origEntry == null) {
+                finish();
+                return;
+            }
             _isManual = intent.getBooleanExtra("isManual", false);
             _isNew = true;
             setTitle(R.string.add_new_entry);
@@ -173,7 +177,7 @@ public class EditEntryActivity extends AegisActivity {
                 .into(_iconView);
             _hasCustomIcon = true;
         } else {
-            TextDrawable drawable = TextDrawableHelper.generate(_origEntry.getIssuer(), _origEntry.getName(), _iconView);
+            Drawable drawable = TextDrawableHelper.generate(_origEntry.getIssuer(), _origEntry.getName(), _iconView);
             _iconView.setImageDrawable(drawable);
         }
 
@@ -196,6 +200,7 @@ public class EditEntryActivity extends AegisActivity {
         if (secretBytes != null) {
             String secretString = Base32.encode(secretBytes);
             _textSecret.setText(secretString);
+            Arrays.fill(secretBytes, (byte) 0);
         }
 
         _dropdownType.setText(_origEntry.getInfo().getType(), false);
@@ -332,6 +337,14 @@ public class EditEntryActivity extends AegisActivity {
         _dropdownGroupList.add(res.getString(R.string.new_group));
     }
 
+    @Override
+    protected void onDestroy() {
+        if (isFinishing() && _isNew) {
+            getApp().getHandoffRegistry().take(getIntent().getStringExtra("newEntryToken"));
+        }
+        super.onDestroy();
+    }
+
     @Override
     public void onBackPressed() {
         if (_isEditingIcon) {
@@ -387,7 +400,7 @@ public class EditEntryActivity extends AegisActivity {
                 startIconSelectionActivity();
                 break;
             case R.id.action_default_icon:
-                TextDrawable drawable = TextDrawableHelper.generate(_origEntry.getIssuer(), _origEntry.getName(), _iconView);
+                Drawable drawable = TextDrawableHelper.generate(_origEntry.getIssuer(), _origEntry.getName(), _iconView);
                 _iconView.setImageDrawable(drawable);
                 _hasCustomIcon = false;
                 _hasChangedIcon = true;
@@ -562,7 +575,7 @@ public class EditEntryActivity extends AegisActivity {
             throw new ParseException("The entered info is incorrect: " + e.getMessage());
         }
 
-        VaultEntry entry = Cloner.clone(_origEntry);
+        VaultEntry entry = new VaultEntry(_origEntry);
         entry.setInfo(info);
         entry.setIssuer(_textIssuer.getText().toString());
         entry.setName(_textName.getText().toString());
@@ -578,10 +591,7 @@ public class EditEntryActivity extends AegisActivity {
         if (_hasChangedIcon) {
             if (_hasCustomIcon) {
                 Bitmap bitmap = ((BitmapDrawable) _iconView.getDrawable()).getBitmap();
-                ByteArrayOutputStream stream = new ByteArrayOutputStream();
-                bitmap.compress(Bitmap.CompressFormat.JPEG, 90, stream);
-                byte[] data = stream.toByteArray();
-                entry.setIcon(data);
+                entry.setIcon(BitmapHelper.toIconBytes(bitmap));
             } else {
                 entry.setIcon(null);
             }
@@ -638,7 +648,7 @@ public class EditEntryActivity extends AegisActivity {
         @Override
         public void afterTextChanged(Editable s) {
             if (!_hasCustomIcon) {
-                TextDrawable drawable = TextDrawableHelper.generate(_textIssuer.getText().toString(), _textName.getText().toString(), _iconView);
+                Drawable drawable = TextDrawableHelper.generate(_textIssuer.getText().toString(), _textName.getText().toString(), _iconView);
                 _iconView.setImageDrawable(drawable);
             }
         }
@@ -10,10 +10,10 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.beemdevelopment.aegis.R;
+import com.beemdevelopment.aegis.helpers.comparators.SortCollator;
 import com.beemdevelopment.aegis.ui.dialogs.Dialogs;
 import com.beemdevelopment.aegis.ui.views.GroupAdapter;
 
-import java.text.Collator;
 import java.util.ArrayList;
 import java.util.TreeSet;
 
@@ -30,7 +30,7 @@ public class GroupManagerActivity extends AegisActivity implements GroupAdapter.
         setSupportActionBar(findViewById(R.id.toolbar));
 
         Intent intent = getIntent();
-        _groups = new TreeSet<>(Collator.getInstance());
+        _groups = new TreeSet<>(SortCollator.getInstance());
         _groups.addAll(intent.getStringArrayListExtra("groups"));
 
         if (getSupportActionBar() != null) {
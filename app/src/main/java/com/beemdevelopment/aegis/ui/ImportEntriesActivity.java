@@ -24,6 +24,7 @@ import com.beemdevelopment.aegis.importers.DatabaseImporterEntryException;
 import com.beemdevelopment.aegis.importers.DatabaseImporterException;
 import com.beemdevelopment.aegis.ui.dialogs.Dialogs;
 import com.beemdevelopment.aegis.ui.models.ImportEntry;
+import com.beemdevelopment.aegis.ui.tasks.IconMigrationTask;
 import com.beemdevelopment.aegis.ui.views.ImportEntriesAdapter;
 import com.beemdevelopment.aegis.util.UUIDMap;
 import com.beemdevelopment.aegis.vault.VaultEntry;
@@ -218,29 +219,49 @@ public class ImportEntriesActivity extends AegisActivity {
 
     private void saveAndFinish(boolean wipeEntries) {
         VaultManager vault = getApp().getVaultManager();
-        if (wipeEntries) {
-            vault.wipeEntries();
-        }
 
         List<ImportEntry> selectedEntries = _adapter.getCheckedEntries();
+        List<VaultEntry> entries = new ArrayList<>(selectedEntries.size());
         for (ImportEntry selectedEntry : selectedEntries) {
             VaultEntry entry = selectedEntry.getEntry();
 
             // temporary: randomize the UUID of duplicate entries and add them anyway
-            if (vault.isEntryDuplicate(entry)) {
+            if (!wipeEntries && vault.isEntryDuplicate(entry)) {
                 entry.resetUUID();
             }
 
-            vault.addEntry(entry);
+            entries.add(entry);
         }
 
-        if (saveVault(true)) {
-            String toastMessage = getResources().getQuantityString(R.plurals.imported_entries_count, selectedEntries.size(), selectedEntries.size());
-            Toast.makeText(this, toastMessage, Toast.LENGTH_SHORT).show();
+        // the icons are normalized on a background thread, the entries aren't part of the
+        // vault yet, so the ones with a smaller icon can be updated once that's done
+        IconMigrationTask task = new IconMigrationTask(this, icons -> {
+            if (getApp().isVaultLocked()) {
+                return;
+            }
 
-            setResult(RESULT_OK, null);
-            finish();
-        }
+            for (VaultEntry entry : entries) {
+                byte[] icon = icons.get(entry.getUUID());
+                if (icon != null) {
+                    entry.setIcon(icon);
+                }
+            }
+
+            VaultManager manager = getApp().getVaultManager();
+            if (wipeEntries) {
+                manager.wipeEntries();
+            }
+            manager.addEntries(entries);
+
+            if (saveVault(true)) {
+                String toastMessage = getResources().getQuantityString(R.plurals.imported_entries_count, selectedEntries.size(), selectedEntries.size());
+                Toast.makeText(this, toastMessage, Toast.LENGTH_SHORT).show();
+
+                setResult(RESULT_OK, null);
+                finish();
+            }
+        });
+        task.execute(getLifecycle(), entries);
     }
 
     @Override
@@ -10,6 +10,8 @@ import android.graphics.BitmapFactory;
 import android.net.Uri;
 import android.os.Bundle;
 import android.provider.Settings;
+import android.text.format.Formatter;
+import android.util.Log;
 import android.view.Menu;
 import android.view.MenuInflater;
 import android.view.MenuItem;
@@ -30,11 +32,13 @@ import com.beemdevelopment.aegis.helpers.BitmapHelper;
 import com.beemdevelopment.aegis.helpers.FabScrollHelper;
 import com.beemdevelopment.aegis.helpers.PermissionHelper;
 import com.beemdevelopment.aegis.helpers.QrCodeAnalyzer;
+import com.beemdevelopment.aegis.helpers.UnlockTracer;
 import com.beemdevelopment.aegis.otp.GoogleAuthInfo;
 import com.beemdevelopment.aegis.otp.GoogleAuthInfoException;
 import com.beemdevelopment.aegis.ui.dialogs.Dialogs;
 import com.beemdevelopment.aegis.ui.fragments.BackupsPreferencesFragment;
 import com.beemdevelopment.aegis.ui.fragments.PreferencesFragment;
+import com.beemdevelopment.aegis.ui.tasks.IconMigrationTask;
 import com.beemdevelopment.aegis.ui.views.EntryListView;
 import com.beemdevelopment.aegis.vault.VaultEntry;
 import com.beemdevelopment.aegis.vault.VaultFile;
@@ -61,6 +65,8 @@ import java.util.UUID;
 import java.util.stream.Collectors;
 
 public class MainActivity extends AegisActivity implements EntryListView.Listener {
+    private static final String TAG = MainActivity.class.getSimpleName();
+
     // activity request codes
     private static final int CODE_SCAN = 0;
     private static final int CODE_ADD_ENTRY = 1;
@@ -244,14 +250,14 @@ public class MainActivity extends AegisActivity implements EntryListView.Listene
 
     private void startEditEntryActivityForNew(int requestCode, VaultEntry entry) {
         Intent intent = new Intent(this, EditEntryActivity.class);
-        intent.putExtra("newEntry", entry);
+        intent.putExtra("newEntryToken", getApp().getHandoffRegistry().park(entry));
         intent.putExtra("isManual", false);
         startActivityForResult(intent, requestCode);
     }
 
     private void startEditEntryActivityForManual(int requestCode) {
         Intent intent = new Intent(this, EditEntryActivity.class);
-        intent.putExtra("newEntry", VaultEntry.getDefault());
+        intent.putExtra("newEntryToken", getApp().getHandoffRegistry().park(VaultEntry.getDefault()));
         intent.putExtra("isManual", true);
         startActivityForResult(intent, requestCode);
     }
@@ -263,15 +269,17 @@ public class MainActivity extends AegisActivity implements EntryListView.Listene
     }
 
     private void onScanResult(Intent data) {
-        List<VaultEntry> entries = (ArrayList<VaultEntry>) data.getSerializableExtra("entries");
+        List<VaultEntry> entries = getApp().getHandoffRegistry().take(data.getStringExtra("entriesToken"));
+        if (entries == null) {
+            return;
+        }
+
         if (entries.size() == 1) {
             startEditEntryActivityForNew(CODE_ADD_ENTRY, entries.get(0));
         } else {
-            for (VaultEntry entry : entries) {
-                _vault.addEntry(entry);
-                if (_loaded) {
-                    _entryListView.addEntry(entry);
-                }
+            _vault.addEntries(entries);
+            if (_loaded) {
+                _entryListView.addEntries(entries);
             }
 
             saveVault(true);
@@ -521,10 +529,8 @@ public class MainActivity extends AegisActivity implements EntryListView.Listene
     }
 
     private void deleteEntries(List<VaultEntry> entries) {
-        for (VaultEntry entry: entries) {
-            VaultEntry oldEntry = _vault.removeEntry(entry);
-            _entryListView.removeEntry(oldEntry);
-        }
+        List<VaultEntry> oldEntries = _vault.removeEntries(entries);
+        _entryListView.removeEntries(oldEntries);
 
         saveVault(true);
     }
@@ -625,12 +631,41 @@ public class MainActivity extends AegisActivity implements EntryListView.Listene
 
     private void loadEntries() {
         if (!_loaded) {
-            _entryListView.addEntries(_vault.getEntries());
+            try (UnlockTracer.Section ignored = UnlockTracer.begin(UnlockTracer.STAGE_ADD_ENTRIES)) {
+                _entryListView.addEntries(_vault.getEntries());
+            }
+            UnlockTracer.beginFirstBind();
             _entryListView.runEntriesAnimation();
             _loaded = true;
+
+            if (!getPreferences().isIconMigrationDone()) {
+                migrateIcons();
+            }
         }
     }
 
+    private void migrateIcons() {
+        // the task gets its own list, so that the list of entries isn't touched from the background thread
+        List<VaultEntry> entries = new ArrayList<>(_vault.getEntries());
+        IconMigrationTask task = new IconMigrationTask(this, icons -> {
+            if (_app.isVaultLocked()) {
+                return;
+            }
+
+            long saved = _vault.setIcons(icons);
+            if (saved > 0) {
+                Log.i(TAG, String.format("Normalized oversized icons, saved %d bytes", saved));
+                if (!saveVault(true)) {
+                    return;
+                }
+                Toast.makeText(this, getString(R.string.optimized_icons, Formatter.formatShortFileSize(this, saved)), Toast.LENGTH_SHORT).show();
+            }
+
+            getPreferences().setIsIconMigrationDone(true);
+        });
+        task.execute(getLifecycle(), entries);
+    }
+
     private void startAuthActivity(boolean inhibitBioPrompt) {
         if (!_isAuthenticating) {
             Intent intent = new Intent(this, AuthActivity.class);
@@ -780,7 +815,7 @@ public class MainActivity extends AegisActivity implements EntryListView.Listene
                             authInfos.add(authInfo);
                         }
 
-                        intent.putExtra("authInfos", authInfos);
+                        intent.putExtra("authInfosToken", getApp().getHandoffRegistry().park(authInfos));
                         startActivity(intent);
 
                         mode.finish();
@@ -222,7 +222,7 @@ public class ScannerActivity extends AegisActivity implements QrCodeAnalyzer.Lis
 
     private void finish(List<VaultEntry> entries) {
         Intent intent = new Intent();
-        intent.putExtra("entries", (ArrayList<VaultEntry>) entries);
+        intent.putExtra("entriesToken", getApp().getHandoffRegistry().park(entries));
         setResult(RESULT_OK, intent);
         finish();
     }
@@ -19,7 +19,6 @@ import com.google.zxing.WriterException;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.QRCodeWriter;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class TransferEntriesActivity extends AegisActivity {
@@ -54,7 +53,11 @@ public class TransferEntriesActivity extends AegisActivity {
         }
 
         Intent intent = getIntent();
-        _authInfos = (ArrayList<GoogleAuthInfo>) intent.getSerializableExtra("authInfos");
+        _authInfos = getApp().getHandoffRegistry().get(intent.getStringExtra("authInfosToken"));
+        if (_authInfos == null) {
+            finish();
+            return;
+        }
 
         int controlVisibility = _authInfos.size() != 1 ? View.VISIBLE : View.INVISIBLE;
         _nextButton.setVisibility(controlVisibility);
@@ -88,6 +91,14 @@ public class TransferEntriesActivity extends AegisActivity {
         generateQR();
     }
 
+    @Override
+    protected void onDestroy() {
+        if (isFinishing()) {
+            getApp().getHandoffRegistry().take(getIntent().getStringExtra("authInfosToken"));
+        }
+        super.onDestroy();
+    }
+
     @Override
     public boolean onOptionsItemSelected(MenuItem item) {
         switch (item.getItemId()) {
@@ -33,6 +33,7 @@ import androidx.appcompat.app.AlertDialog;
 import com.beemdevelopment.aegis.Preferences;
 import com.beemdevelopment.aegis.R;
 import com.beemdevelopment.aegis.helpers.EditTextHelper;
+import com.beemdevelopment.aegis.helpers.PasswordStrengthEstimator;
 import com.beemdevelopment.aegis.helpers.PasswordStrengthHelper;
 import com.beemdevelopment.aegis.importers.DatabaseImporter;
 import com.beemdevelopment.aegis.ui.tasks.KeyDerivationTask;
@@ -41,8 +42,6 @@ import com.beemdevelopment.aegis.vault.slots.Slot;
 import com.beemdevelopment.aegis.vault.slots.SlotException;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textfield.TextInputLayout;
-import com.nulabinc.zxcvbn.Strength;
-import com.nulabinc.zxcvbn.Zxcvbn;
 
 import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
@@ -99,7 +98,6 @@ public class Dialogs {
     }
 
     public static void showSetPasswordDialog(ComponentActivity activity, Dialogs.SlotListener listener) {
-        Zxcvbn zxcvbn = new Zxcvbn();
         View view = activity.getLayoutInflater().inflate(R.layout.dialog_password, null);
         EditText textPassword = view.findViewById(R.id.text_password);
         EditText textPasswordConfirm = view.findViewById(R.id.text_password_confirm);
@@ -159,18 +157,20 @@ public class Dialogs {
             });
         });
 
+        PasswordStrengthEstimator estimator = new PasswordStrengthEstimator(strength -> {
+            barPasswordStrength.setProgress(strength.getScore());
+            barPasswordStrength.setProgressTintList(ColorStateList.valueOf(Color.parseColor(PasswordStrengthHelper.getColor(strength.getScore()))));
+            textPasswordStrength.setText((textPassword.getText().length() != 0) ? PasswordStrengthHelper.getString(strength.getScore(), activity) : "");
+            textPasswordWrapper.setError(strength.getFeedback().getWarning());
+        });
+        dialog.setOnDismissListener(d -> estimator.destroy());
+
         TextWatcher watcher = new TextWatcher() {
             @Override
             public void onTextChanged(CharSequence c, int start, int before, int count) {
                 boolean equal = EditTextHelper.areEditTextsEqual(textPassword, textPasswordConfirm);
                 buttonOK.get().setEnabled(equal);
-
-                Strength strength = zxcvbn.measure(textPassword.getText());
-                barPasswordStrength.setProgress(strength.getScore());
-                barPasswordStrength.setProgressTintList(ColorStateList.valueOf(Color.parseColor(PasswordStrengthHelper.getColor(strength.getScore()))));
-                textPasswordStrength.setText((textPassword.getText().length() != 0) ? PasswordStrengthHelper.getString(strength.getScore(), activity) : "");
-                textPasswordWrapper.setError(strength.getFeedback().getWarning());
-                strength.wipe();
+                estimator.estimate(textPassword.getText());
             }
 
             @Override
@@ -6,20 +6,33 @@ import android.net.Uri;
 import android.os.Bundle;
 import android.widget.Toast;
 
+import androidx.appcompat.app.AlertDialog;
 import androidx.preference.Preference;
 import androidx.preference.SwitchPreferenceCompat;
 
 import com.beemdevelopment.aegis.Preferences;
 import com.beemdevelopment.aegis.R;
+import com.beemdevelopment.aegis.importers.AegisImporter;
+import com.beemdevelopment.aegis.ui.ImportEntriesActivity;
 import com.beemdevelopment.aegis.ui.dialogs.Dialogs;
+import com.beemdevelopment.aegis.ui.tasks.ListBackupsTask;
+import com.beemdevelopment.aegis.ui.tasks.RestoreBackupTask;
+import com.beemdevelopment.aegis.vault.VaultBackupManager;
 import com.beemdevelopment.aegis.vault.VaultManagerException;
 
+import java.text.DateFormat;
+import java.util.Collections;
+import java.util.List;
+
 public class BackupsPreferencesFragment extends PreferencesFragment {
     private SwitchPreferenceCompat _androidBackupsPreference;
     private SwitchPreferenceCompat _backupsPreference;
     private Preference _backupsLocationPreference;
     private Preference _backupsTriggerPreference;
     private Preference _backupsVersionsPreference;
+    private SwitchPreferenceCompat _backupsCompressionPreference;
+    private SwitchPreferenceCompat _backupsIncrementalPreference;
+    private Preference _backupsRestorePreference;
 
     @Override
     public void onResume() {
@@ -77,6 +90,17 @@ public class BackupsPreferencesFragment extends PreferencesFragment {
             return true;
         });
 
+        _backupsCompressionPreference = findPreference("pref_backups_compression");
+        _backupsIncrementalPreference = findPreference("pref_backups_incremental");
+
+        _backupsRestorePreference = findPreference("pref_backups_restore");
+        _backupsRestorePreference.setOnPreferenceClickListener(preference -> {
+            if (prefs.isBackupsEnabled()) {
+                startRestoreBackup();
+            }
+            return true;
+        });
+
         _backupsVersionsPreference = findPreference("pref_backups_versions");
         _backupsVersionsPreference.setSummary(getResources().getQuantityString(R.plurals.pref_backups_versions_summary, prefs.getBackupsVersionCount(), prefs.getBackupsVersionCount()));
         _backupsVersionsPreference.setOnPreferenceClickListener(preference -> {
@@ -91,7 +115,9 @@ public class BackupsPreferencesFragment extends PreferencesFragment {
 
     @Override
     public void onActivityResult(int requestCode, int resultCode, Intent data) {
-        if (data != null && requestCode == CODE_BACKUPS) {
+        if (requestCode == CODE_IMPORT) {
+            getResult().putExtra("needsRecreate", true);
+        } else if (data != null && requestCode == CODE_BACKUPS) {
             onSelectBackupsLocationResult(resultCode, data);
         }
     }
@@ -124,6 +150,9 @@ public class BackupsPreferencesFragment extends PreferencesFragment {
         _backupsLocationPreference.setVisible(backupEnabled);
         _backupsTriggerPreference.setVisible(backupEnabled);
         _backupsVersionsPreference.setVisible(backupEnabled);
+        _backupsCompressionPreference.setVisible(backupEnabled);
+        _backupsIncrementalPreference.setVisible(backupEnabled);
+        _backupsRestorePreference.setVisible(backupEnabled);
     }
 
     private void selectBackupsLocation() {
@@ -136,4 +165,54 @@ public class BackupsPreferencesFragment extends PreferencesFragment {
         getApp().setBlockAutoLock(true);
         startActivityForResult(intent, CODE_BACKUPS);
     }
+
+    private void startRestoreBackup() {
+        Uri dirUri = getPreferences().getBackupsLocation();
+        VaultBackupManager backups = getVault().getBackupManager();
+
+        ListBackupsTask task = new ListBackupsTask(getContext(), backups, result -> {
+            if (result.getException() != null) {
+                Dialogs.showErrorDialog(getContext(), R.string.restore_backup_error, result.getException());
+                return;
+            }
+
+            List<VaultBackupManager.BackupFile> files = result.getFiles();
+            if (files.isEmpty()) {
+                Toast.makeText(getContext(), R.string.no_backups_found, Toast.LENGTH_SHORT).show();
+                return;
+            }
+
+            // show the most recent backups first
+            Collections.reverse(files);
+            DateFormat dateFormat = DateFormat.getDateTimeInstance();
+            String[] items = new String[files.size()];
+            for (int i = 0; i < items.length; i++) {
+                VaultBackupManager.BackupFile file = files.get(i);
+                String date = dateFormat.format(file.getInfo().getDate());
+                items[i] = file.isDelta() ? getString(R.string.backup_incremental, date) : date;
+            }
+
+            Dialogs.showSecureDialog(new AlertDialog.Builder(getContext())
+                    .setTitle(R.string.pref_backups_restore_title)
+                    .setItems(items, (dialog, which) -> restoreBackup(dirUri, files.get(which)))
+                    .setNegativeButton(android.R.string.cancel, null)
+                    .create());
+        });
+        task.execute(getLifecycle(), dirUri);
+    }
+
+    private void restoreBackup(Uri dirUri, VaultBackupManager.BackupFile file) {
+        RestoreBackupTask task = new RestoreBackupTask(getContext(), getVault().getBackupManager(), result -> {
+            if (result.getException() != null) {
+                Dialogs.showErrorDialog(getContext(), R.string.restore_backup_error, result.getException());
+                return;
+            }
+
+            Intent intent = new Intent(getActivity(), ImportEntriesActivity.class);
+            intent.putExtra("importerType", AegisImporter.class);
+            intent.putExtra("file", result.getFile());
+            startActivityForResult(intent, CODE_IMPORT);
+        });
+        task.execute(getLifecycle(), new RestoreBackupTask.Params(dirUri, file, getVault().getCredentials()));
+    }
 }
@@ -0,0 +1,135 @@
+package com.beemdevelopment.aegis.ui.fragments;
+
+import android.content.Intent;
+import android.os.Build;
+import android.os.Bundle;
+import android.text.format.Formatter;
+
+import androidx.preference.Preference;
+import androidx.preference.PreferenceCategory;
+
+import com.beemdevelopment.aegis.BuildConfig;
+import com.beemdevelopment.aegis.R;
+import com.beemdevelopment.aegis.helpers.UnlockTracer;
+import com.beemdevelopment.aegis.vault.VaultEntry;
+import com.beemdevelopment.aegis.vault.VaultManager;
+
+import java.util.List;
+import java.util.Locale;
+
+public class DeveloperPreferencesFragment extends PreferencesFragment {
+    private PreferenceCategory _timingsCategory;
+    private Preference _entriesPreference;
+    private Preference _iconsPreference;
+    private Preference _fileSizePreference;
+
+    @Override
+    public void onCreatePreferences(Bundle savedInstanceState, String rootKey) {
+        super.onCreatePreferences(savedInstanceState, rootKey);
+        addPreferencesFromResource(R.xml.preferences_developer);
+
+        _timingsCategory = findPreference("pref_developer_timings");
+        _entriesPreference = findPreference("pref_developer_entries");
+        _iconsPreference = findPreference("pref_developer_icons");
+        _fileSizePreference = findPreference("pref_developer_file_size");
+
+        Preference exportPreference = findPreference("pref_developer_export");
+        exportPreference.setOnPreferenceClickListener(preference -> {
+            Intent intent = new Intent(Intent.ACTION_SEND)
+                    .setType("text/plain")
+                    .putExtra(Intent.EXTRA_SUBJECT, "Aegis performance report")
+                    .putExtra(Intent.EXTRA_TEXT, buildReport());
+            startActivity(Intent.createChooser(intent, getString(R.string.pref_developer_export_title)));
+            return true;
+        });
+
+        Preference clearPreference = findPreference("pref_developer_clear");
+        clearPreference.setOnPreferenceClickListener(preference -> {
+            UnlockTracer.clear();
+            updateTimings();
+            return true;
+        });
+    }
+
+    @Override
+    public void onResume() {
+        super.onResume();
+        updateTimings();
+        updateVaultStats();
+    }
+
+    private void updateTimings() {
+        _timingsCategory.removeAll();
+        for (UnlockTracer.Stats stats : UnlockTracer.getStats()) {
+            Preference pref = new Preference(requireContext());
+            pref.setTitle(stats.getStage());
+            pref.setSelectable(false);
+            pref.setIconSpaceReserved(false);
+            if (stats.getCount() == 0) {
+                pref.setSummary(R.string.pref_developer_timing_summary_empty);
+            } else {
+                pref.setSummary(getString(R.string.pref_developer_timing_summary,
+                        formatMillis(stats.getP50()), formatMillis(stats.getP95()), formatMillis(stats.getLast()), stats.getCount()));
+            }
+            _timingsCategory.addPreference(pref);
+        }
+    }
+
+    private void updateVaultStats() {
+        VaultStats stats = getVaultStats();
+        _entriesPreference.setSummary(String.valueOf(stats._entries));
+        _iconsPreference.setSummary(getString(R.string.pref_developer_icons_summary, stats._icons, Formatter.formatShortFileSize(getContext(), stats._iconBytes)));
+        _fileSizePreference.setSummary(Formatter.formatShortFileSize(getContext(), stats._fileSize));
+    }
+
+    private VaultStats getVaultStats() {
+        VaultStats stats = new VaultStats();
+        for (VaultEntry entry : getVault().getEntries()) {
+            stats._entries++;
+            if (entry.hasIcon()) {
+                stats._icons++;
+                stats._iconBytes += entry.getIconSize();
+            }
+        }
+
+        stats._fileSize = VaultManager.getAtomicFile(requireContext()).getBaseFile().length();
+        return stats;
+    }
+
+    private String buildReport() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "Aegis %s (%d)\n", BuildConfig.VERSION_NAME, BuildConfig.VERSION_CODE));
+        report.append(String.format(Locale.ROOT, "Device: %s %s, Android %s (API %d)\n\n",
+                Build.MANUFACTURER, Build.MODEL, Build.VERSION.RELEASE, Build.VERSION.SDK_INT));
+
+        report.append("Unlock timings (ms)\n");
+        report.append(String.format(Locale.ROOT, "%-16s %8s %8s %8s %8s\n", "stage", "samples", "p50", "p95", "last"));
+        List<UnlockTracer.Stats> timings = UnlockTracer.getStats();
+        for (UnlockTracer.Stats stats : timings) {
+            report.append(String.format(Locale.ROOT, "%-16s %8d %8s %8s %8s\n", stats.getStage(), stats.getCount(),
+                    formatMillis(stats.getP50()), formatMillis(stats.getP95()), formatMillis(stats.getLast())));
+        }
+
+        VaultStats stats = getVaultStats();
+        report.append("\nVault\n");
+        report.append(String.format(Locale.ROOT, "entries: %d\n", stats._entries));
+        report.append(String.format(Locale.ROOT, "icons: %d (%d bytes)\n", stats._icons, stats._iconBytes));
+        report.append(String.format(Locale.ROOT, "file size: %d bytes\n", stats._fileSize));
+        return report.toString();
+    }
+
+    private static String formatMillis(long nanos) {
+        if (nanos < 0) {
+            return "-";
+        }
+
+        return String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+    }
+
+    private static class VaultStats {
+        private int _entries;
+        private int _icons;
+        private long _iconBytes;
+        private long _fileSize;
+    }
+}
@@ -29,14 +29,11 @@ import com.beemdevelopment.aegis.ui.tasks.ImportFileTask;
 import com.beemdevelopment.aegis.vault.VaultBackupManager;
 import com.beemdevelopment.aegis.vault.VaultFileCredentials;
 import com.beemdevelopment.aegis.vault.VaultManager;
-import com.beemdevelopment.aegis.vault.VaultManagerException;
 import com.beemdevelopment.aegis.vault.slots.Slot;
 import com.beemdevelopment.aegis.vault.slots.SlotException;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
 
 import javax.crypto.Cipher;
 
@@ -44,6 +41,9 @@ public class ImportExportPreferencesFragment extends PreferencesFragment {
     // keep a reference to the type of database converter that was selected
     private Class<? extends DatabaseImporter> _importerType;
 
+    // keep track of whether the vault should be compressed while the user picks an export location
+    private boolean _exportCompress;
+
     @Override
     public void onCreatePreferences(Bundle savedInstanceState, String rootKey) {
         super.onCreatePreferences(savedInstanceState, rootKey);
@@ -51,6 +51,7 @@ public class ImportExportPreferencesFragment extends PreferencesFragment {
 
         if (savedInstanceState != null) {
             _importerType = (Class<? extends DatabaseImporter>) savedInstanceState.getSerializable("importerType");
+            _exportCompress = savedInstanceState.getBoolean("exportCompress");
         }
 
         Preference importPreference = findPreference("pref_import");
@@ -84,6 +85,7 @@ public class ImportExportPreferencesFragment extends PreferencesFragment {
     public void onSaveInstanceState(@NonNull Bundle outState) {
         super.onSaveInstanceState(outState);
         outState.putSerializable("importerType", _importerType);
+        outState.putBoolean("exportCompress", _exportCompress);
     }
 
     @Override
@@ -133,6 +135,7 @@ public class ImportExportPreferencesFragment extends PreferencesFragment {
         View view = LayoutInflater.from(getContext()).inflate(R.layout.dialog_export, null);
         TextView warningText = view.findViewById(R.id.text_export_warning);
         CheckBox checkBoxEncrypt = view.findViewById(R.id.checkbox_export_encrypt);
+        CheckBox checkBoxCompress = view.findViewById(R.id.checkbox_export_compress);
         CheckBox checkBoxAccept = view.findViewById(R.id.checkbox_accept);
         AutoCompleteTextView dropdown = view.findViewById(R.id.dropdown_export_format);
         DropdownHelper.fillDropdown(getContext(), dropdown, R.array.export_formats);
@@ -140,6 +143,8 @@ public class ImportExportPreferencesFragment extends PreferencesFragment {
         dropdown.setOnItemClickListener((parent, view1, position, id) -> {
             checkBoxEncrypt.setChecked(position == 0);
             checkBoxEncrypt.setEnabled(position == 0);
+            checkBoxCompress.setChecked(false);
+            checkBoxCompress.setEnabled(position == 0);
             warningText.setVisibility(checkBoxEncrypt.isChecked() ? View.GONE : View.VISIBLE);
         });
 
@@ -178,6 +183,7 @@ public class ImportExportPreferencesFragment extends PreferencesFragment {
                 int pos = getStringResourceIndex(R.array.export_formats, dropdown.getText().toString());
                 int requestCode = getExportRequestCode(pos, checkBoxEncrypt.isChecked());
                 VaultBackupManager.FileInfo fileInfo = getExportFileInfo(pos, checkBoxEncrypt.isChecked());
+                _exportCompress = checkBoxCompress.isChecked();
                 Intent intent = new Intent(Intent.ACTION_CREATE_DOCUMENT)
                         .addCategory(Intent.CATEGORY_OPENABLE)
                         .setType(getExportMimeType(requestCode))
@@ -204,22 +210,23 @@ public class ImportExportPreferencesFragment extends PreferencesFragment {
                 }
 
                 int requestCode = getExportRequestCode(pos, checkBoxEncrypt.isChecked());
-                startExportVault(requestCode, cb -> {
-                    try (OutputStream stream = new FileOutputStream(file)) {
-                        cb.exportVault(stream);
-                    } catch (IOException | VaultManagerException e) {
-                        e.printStackTrace();
-                        Dialogs.showErrorDialog(getContext(), R.string.exporting_vault_error, e);
-                        return;
-                    }
-
-                    Uri uri = FileProvider.getUriForFile(getContext(), BuildConfig.FILE_PROVIDER_AUTHORITY, file);
-                    Intent intent = new Intent(Intent.ACTION_SEND)
-                            .setFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION)
-                            .setType(getExportMimeType(requestCode))
-                            .putExtra(Intent.EXTRA_STREAM, uri);
-                    Intent chooser = Intent.createChooser(intent, getString(R.string.pref_export_summary));
-                    startActivity(chooser);
+                startExportVault(requestCode, checkBoxCompress.isChecked(), exporter -> {
+                    ExportTask task = new ExportTask(getContext(), e -> {
+                        if (e != null) {
+                            e.printStackTrace();
+                            Dialogs.showErrorDialog(getContext(), R.string.exporting_vault_error, e);
+                            return;
+                        }
+
+                        Uri uri = FileProvider.getUriForFile(getContext(), BuildConfig.FILE_PROVIDER_AUTHORITY, file);
+                        Intent intent = new Intent(Intent.ACTION_SEND)
+                                .setFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION)
+                                .setType(getExportMimeType(requestCode))
+                                .putExtra(Intent.EXTRA_STREAM, uri);
+                        Intent chooser = Intent.createChooser(intent, getString(R.string.pref_export_summary));
+                        startActivity(chooser);
+                    });
+                    task.execute(getLifecycle(), new ExportTask.Params(exporter, Uri.fromFile(file)));
                 });
             });
         });
@@ -257,11 +264,11 @@ public class ImportExportPreferencesFragment extends PreferencesFragment {
         return dir;
     }
 
-    private void startExportVault(int requestCode, StartExportCallback cb) {
+    private void startExportVault(int requestCode, boolean compress, StartExportCallback cb) {
         switch (requestCode) {
             case CODE_EXPORT:
                 if (getVault().isEncryptionEnabled()) {
-                    cb.exportVault(stream -> getVault().export(stream));
+                    cb.exportVault(stream -> getVault().export(stream, compress));
                 } else {
                     Dialogs.showSetPasswordDialog(getActivity(), new Dialogs.SlotListener() {
                         @Override
@@ -276,7 +283,7 @@ public class ImportExportPreferencesFragment extends PreferencesFragment {
                                 return;
                             }
 
-                            cb.exportVault(stream -> getVault().export(stream, creds));
+                            cb.exportVault(stream -> getVault().export(stream, creds, compress));
                         }
 
                         @Override
@@ -287,7 +294,7 @@ public class ImportExportPreferencesFragment extends PreferencesFragment {
                 }
                 break;
             case CODE_EXPORT_PLAIN:
-                cb.exportVault((stream) -> getVault().export(stream, null));
+                cb.exportVault((stream) -> getVault().export(stream, null, compress));
                 break;
             case CODE_EXPORT_GOOGLE_URI:
                 cb.exportVault((stream) -> getVault().exportGoogleUris(stream));
@@ -301,27 +308,9 @@ public class ImportExportPreferencesFragment extends PreferencesFragment {
             return;
         }
 
-        startExportVault(requestCode, cb -> {
-            File file;
-            OutputStream outStream = null;
-            try {
-                file = File.createTempFile(VaultManager.FILENAME_PREFIX_EXPORT + "-", ".json", getExportCacheDir());
-                outStream = new FileOutputStream(file);
-                cb.exportVault(outStream);
-
-                new ExportTask(getContext(), new ExportResultListener()).execute(getLifecycle(), new ExportTask.Params(file, uri));
-            } catch (VaultManagerException | IOException e) {
-                e.printStackTrace();
-                Dialogs.showErrorDialog(getContext(), R.string.exporting_vault_error, e);
-            } finally {
-                try {
-                    if (outStream != null) {
-                        outStream.close();
-                    }
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            }
+        startExportVault(requestCode, _exportCompress, exporter -> {
+            ExportTask task = new ExportTask(getContext(), new ExportResultListener());
+            task.execute(getLifecycle(), new ExportTask.Params(exporter, uri));
         });
     }
 
@@ -347,11 +336,7 @@ public class ImportExportPreferencesFragment extends PreferencesFragment {
         }
     }
 
-    private interface FinishExportCallback {
-        void exportVault(OutputStream stream) throws IOException, VaultManagerException;
-    }
-
     private interface StartExportCallback {
-        void exportVault(FinishExportCallback exportCb);
+        void exportVault(ExportTask.Exporter exporter);
     }
 }
@@ -2,6 +2,8 @@ package com.beemdevelopment.aegis.ui.fragments;
 
 import android.os.Bundle;
 
+import androidx.preference.Preference;
+
 import com.beemdevelopment.aegis.R;
 
 public class MainPreferencesFragment extends PreferencesFragment {
@@ -9,5 +11,8 @@ public class MainPreferencesFragment extends PreferencesFragment {
     public void onCreatePreferences(Bundle savedInstanceState, String rootKey) {
         super.onCreatePreferences(savedInstanceState, rootKey);
         addPreferencesFromResource(R.xml.preferences);
+
+        Preference developerPreference = findPreference("pref_developer");
+        developerPreference.setVisible(getPreferences().isDeveloperModeEnabled());
     }
 }
@@ -45,6 +45,7 @@ public class SecurityPreferencesFragment extends PreferencesFragment {
     private Preference _autoLockPreference;
     private Preference _setPasswordPreference;
     private Preference _slotsPreference;
+    private SwitchPreference _entryEncryptionPreference;
     private Preference _passwordReminderPreference;
     private SwitchPreferenceCompat _pinKeyboardPreference;
 
@@ -171,6 +172,19 @@ public class SecurityPreferencesFragment extends PreferencesFragment {
             return true;
         });
 
+        _entryEncryptionPreference = findPreference("pref_entry_encryption");
+        _entryEncryptionPreference.setOnPreferenceChangeListener((preference, newValue) -> {
+            try {
+                getVault().setEntryEncryptionEnabled((boolean) newValue);
+            } catch (VaultManagerException e) {
+                e.printStackTrace();
+                Dialogs.showErrorDialog(getContext(), R.string.pref_entry_encryption_error, e);
+            }
+
+            updateEncryptionPreferences();
+            return false;
+        });
+
         _pinKeyboardPreference = findPreference("pref_pin_keyboard");
         _pinKeyboardPreference.setOnPreferenceChangeListener((preference, newValue) -> {
             if (!(boolean) newValue) {
@@ -255,6 +269,8 @@ public class SecurityPreferencesFragment extends PreferencesFragment {
         _setPasswordPreference.setVisible(encrypted);
         _biometricsPreference.setVisible(encrypted);
         _slotsPreference.setEnabled(encrypted);
+        _entryEncryptionPreference.setVisible(encrypted);
+        _entryEncryptionPreference.setChecked(encrypted && getVault().isEntryEncryptionEnabled(), true);
         _autoLockPreference.setVisible(encrypted);
         _pinKeyboardPreference.setVisible(encrypted);
 
@@ -22,6 +22,7 @@ import com.beemdevelopment.aegis.R;
 import com.beemdevelopment.aegis.helpers.BiometricSlotInitializer;
 import com.beemdevelopment.aegis.helpers.BiometricsHelper;
 import com.beemdevelopment.aegis.helpers.EditTextHelper;
+import com.beemdevelopment.aegis.helpers.PasswordStrengthEstimator;
 import com.beemdevelopment.aegis.helpers.PasswordStrengthHelper;
 import com.beemdevelopment.aegis.ui.dialogs.Dialogs;
 import com.beemdevelopment.aegis.ui.intro.SlideFragment;
@@ -32,8 +33,6 @@ import com.beemdevelopment.aegis.vault.slots.PasswordSlot;
 import com.beemdevelopment.aegis.vault.slots.Slot;
 import com.beemdevelopment.aegis.vault.slots.SlotException;
 import com.google.android.material.textfield.TextInputLayout;
-import com.nulabinc.zxcvbn.Strength;
-import com.nulabinc.zxcvbn.Zxcvbn;
 
 import javax.crypto.Cipher;
 import javax.crypto.SecretKey;
@@ -50,6 +49,7 @@ public class SecuritySetupSlide extends SlideFragment {
     private ProgressBar _barPasswordStrength;
     private TextView _textPasswordStrength;
     private TextInputLayout _textPasswordWrapper;
+    private PasswordStrengthEstimator _strengthEstimator;
 
     private int _cryptType;
     private VaultFileCredentials _creds;
@@ -76,17 +76,17 @@ public class SecuritySetupSlide extends SlideFragment {
             }
         });
 
-        _textPassword.addTextChangedListener(new TextWatcher() {
-            private Zxcvbn _zxcvbn = new Zxcvbn();
+        _strengthEstimator = new PasswordStrengthEstimator(strength -> {
+            _barPasswordStrength.setProgress(strength.getScore());
+            _barPasswordStrength.setProgressTintList(ColorStateList.valueOf(Color.parseColor(PasswordStrengthHelper.getColor(strength.getScore()))));
+            _textPasswordStrength.setText((_textPassword.getText().length() != 0) ? PasswordStrengthHelper.getString(strength.getScore(), getContext()) : "");
+            _textPasswordWrapper.setError(strength.getFeedback().getWarning());
+        });
 
+        _textPassword.addTextChangedListener(new TextWatcher() {
             @Override
             public void onTextChanged(CharSequence s, int start, int before, int count) {
-                Strength strength = _zxcvbn.measure(_textPassword.getText());
-                _barPasswordStrength.setProgress(strength.getScore());
-                _barPasswordStrength.setProgressTintList(ColorStateList.valueOf(Color.parseColor(PasswordStrengthHelper.getColor(strength.getScore()))));
-                _textPasswordStrength.setText((_textPassword.getText().length() != 0) ? PasswordStrengthHelper.getString(strength.getScore(), getContext()) : "");
-                _textPasswordWrapper.setError(strength.getFeedback().getWarning());
-                strength.wipe();
+                _strengthEstimator.estimate(_textPassword.getText());
             }
 
             @Override
@@ -101,6 +101,12 @@ public class SecuritySetupSlide extends SlideFragment {
         return view;
     }
 
+    @Override
+    public void onDestroyView() {
+        _strengthEstimator.destroy();
+        super.onDestroyView();
+    }
+
     @Override
     public void onResume() {
         super.onResume();
@@ -1,23 +1,38 @@
 package com.beemdevelopment.aegis.ui.tasks;
 
+import android.content.ContentResolver;
 import android.content.Context;
+import android.content.DialogInterface;
 import android.net.Uri;
+import android.provider.DocumentsContract;
+import android.text.format.Formatter;
 
 import com.beemdevelopment.aegis.R;
-import com.beemdevelopment.aegis.util.IOUtils;
+import com.beemdevelopment.aegis.vault.VaultManagerException;
 
 import java.io.File;
-import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FilterOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 
+/**
+ * ExportTask serializes the vault from a background thread and writes it directly to
+ * the destination Uri in a single pass, without creating an intermediate file.
+ */
 public class ExportTask extends ProgressDialogTask<ExportTask.Params, Exception> {
+    // the interval (in bytes) at which progress is reported
+    private static final int PROGRESS_INTERVAL = 256 * 1024;
+    private static final int CHUNK_SIZE = 64 * 1024;
+
     private final Callback _cb;
 
     public ExportTask(Context context, Callback cb) {
         super(context, context.getString(R.string.exporting_vault));
         _cb = cb;
+
+        getDialog().setButton(DialogInterface.BUTTON_NEGATIVE, context.getString(android.R.string.cancel), (dialog, which) -> cancel(false));
     }
 
     @Override
@@ -25,12 +40,34 @@ public class ExportTask extends ProgressDialogTask<ExportTask.Params, Exception>
         setPriority();
 
         ExportTask.Params params = args[0];
-        try (InputStream inStream = new FileInputStream(params.getFile());
-             OutputStream outStream = getDialog().getContext().getContentResolver().openOutputStream(params.getDestUri(), "w")) {
-            IOUtils.copy(inStream, outStream);
-            return null;
-        } catch (IOException e) {
-            return e;
+        Context context = getDialog().getContext();
+        ContentResolver resolver = context.getContentResolver();
+
+        Exception res = null;
+        try (OutputStream outStream = new ProgressOutputStream(context, resolver.openOutputStream(params.getDestUri(), "w"))) {
+            params.getExporter().exportVault(outStream);
+        } catch (IOException | VaultManagerException e) {
+            res = e;
+        }
+
+        // don't leave a partially written file behind
+        if (res != null || isCancelled()) {
+            deleteDestination(resolver, params.getDestUri());
+        }
+
+        return res;
+    }
+
+    private static void deleteDestination(ContentResolver resolver, Uri uri) {
+        if (ContentResolver.SCHEME_FILE.equals(uri.getScheme())) {
+            new File(uri.getPath()).delete();
+            return;
+        }
+
+        try {
+            DocumentsContract.deleteDocument(resolver, uri);
+        } catch (FileNotFoundException | RuntimeException e) {
+            e.printStackTrace();
         }
     }
 
@@ -41,16 +78,16 @@ public class ExportTask extends ProgressDialogTask<ExportTask.Params, Exception>
     }
 
     public static class Params {
-        private final File _file;
+        private final Exporter _exporter;
         private final Uri _destUri;
 
-        public Params(File file, Uri destUri) {
-            _file = file;
+        public Params(Exporter exporter, Uri destUri) {
+            _exporter = exporter;
             _destUri = destUri;
         }
 
-        public File getFile() {
-            return _file;
+        public Exporter getExporter() {
+            return _exporter;
         }
 
         public Uri getDestUri() {
@@ -58,7 +95,66 @@ public class ExportTask extends ProgressDialogTask<ExportTask.Params, Exception>
         }
     }
 
+    public interface Exporter {
+        void exportVault(OutputStream stream) throws IOException, VaultManagerException;
+    }
+
     public interface Callback {
         void onTaskFinished(Exception e);
     }
+
+    /**
+     * Reports the number of bytes written as progress and aborts the export
+     * if the task has been canceled.
+     */
+    private class ProgressOutputStream extends FilterOutputStream {
+        private final Context _context;
+        private long _written;
+        private long _lastReported;
+
+        public ProgressOutputStream(Context context, OutputStream outStream) throws FileNotFoundException {
+            super(outStream);
+            if (outStream == null) {
+                throw new FileNotFoundException("Unable to open the destination file");
+            }
+            _context = context;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            checkCanceled();
+            out.write(b);
+            onWritten(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            // write in chunks, so that progress is reported and cancellation is honored for large writes as well
+            while (len > 0) {
+                checkCanceled();
+
+                int n = Math.min(len, CHUNK_SIZE);
+                out.write(b, off, n);
+                onWritten(n);
+
+                off += n;
+                len -= n;
+            }
+        }
+
+        private void checkCanceled() throws InterruptedIOException {
+            if (isCancelled()) {
+                throw new InterruptedIOException("The export was canceled");
+            }
+        }
+
+        private void onWritten(int n) {
+            _written += n;
+            if (_written - _lastReported >= PROGRESS_INTERVAL) {
+                _lastReported = _written;
+                String size = Formatter.formatShortFileSize(_context, _written);
+                publishProgress(_context.getString(R.string.exporting_vault_progress, size));
+            }
+        }
+    }
 }
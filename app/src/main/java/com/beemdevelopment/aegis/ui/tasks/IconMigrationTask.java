@@ -0,0 +1,56 @@
+package com.beemdevelopment.aegis.ui.tasks;
+
+import android.content.Context;
+
+import com.beemdevelopment.aegis.R;
+import com.beemdevelopment.aegis.vault.VaultEntry;
+import com.beemdevelopment.aegis.vault.VaultManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * IconMigrationTask re-encodes oversized entry icons on a background thread. It's run
+ * once on the vault, on the first unlock after icons started being normalized before
+ * they're stored, and on every import. The entries aren't changed by the task, the new
+ * icons are handed to the callback on the main thread instead. The progress dialog only
+ * shows up if there are any oversized icons.
+ */
+public class IconMigrationTask extends ProgressDialogTask<Collection<VaultEntry>, Map<UUID, byte[]>> {
+    private final Callback _cb;
+
+    public IconMigrationTask(Context context, Callback cb) {
+        super(context, context.getString(R.string.optimizing_icons));
+        setShowOnProgress();
+        _cb = cb;
+    }
+
+    @SafeVarargs
+    @Override
+    protected final Map<UUID, byte[]> doInBackground(Collection<VaultEntry>... args) {
+        setPriority();
+
+        // only the dimensions of the icons are read to find the oversized ones, which is
+        // usually all that's needed
+        List<VaultEntry> entries = VaultManager.findOversizedIcons(args[0]);
+        if (entries.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        publishProgress();
+        return VaultManager.normalizeIcons(entries);
+    }
+
+    @Override
+    protected void onPostExecute(Map<UUID, byte[]> icons) {
+        super.onPostExecute(icons);
+        _cb.onTaskFinished(icons);
+    }
+
+    public interface Callback {
+        void onTaskFinished(Map<UUID, byte[]> icons);
+    }
+}
@@ -0,0 +1,62 @@
+package com.beemdevelopment.aegis.ui.tasks;
+
+import android.content.Context;
+import android.net.Uri;
+
+import com.beemdevelopment.aegis.R;
+import com.beemdevelopment.aegis.vault.VaultBackupManager;
+import com.beemdevelopment.aegis.vault.VaultManagerException;
+
+import java.util.List;
+
+/**
+ * ListBackupsTask looks for the backups that the vault can be restored from
+ * in the given SAF directory on a background thread.
+ */
+public class ListBackupsTask extends ProgressDialogTask<Uri, ListBackupsTask.Result> {
+    private final VaultBackupManager _backups;
+    private final Callback _cb;
+
+    public ListBackupsTask(Context context, VaultBackupManager backups, Callback cb) {
+        super(context, context.getString(R.string.reading_backups));
+        _backups = backups;
+        _cb = cb;
+    }
+
+    @Override
+    protected Result doInBackground(Uri... uris) {
+        try {
+            return new Result(_backups.getRestorePoints(uris[0]), null);
+        } catch (VaultManagerException e) {
+            return new Result(null, e);
+        }
+    }
+
+    @Override
+    protected void onPostExecute(Result result) {
+        super.onPostExecute(result);
+        _cb.onTaskFinished(result);
+    }
+
+    public interface Callback {
+        void onTaskFinished(Result result);
+    }
+
+    public static class Result {
+        private final List<VaultBackupManager.BackupFile> _files;
+        private final Exception _e;
+
+        public Result(List<VaultBackupManager.BackupFile> files, Exception e) {
+            _files = files;
+            _e = e;
+        }
+
+        public List<VaultBackupManager.BackupFile> getFiles() {
+            return _files;
+        }
+
+        public Exception getException() {
+            return _e;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import android.content.Context;
 import com.beemdevelopment.aegis.R;
 import com.beemdevelopment.aegis.crypto.CryptoUtils;
 import com.beemdevelopment.aegis.crypto.MasterKey;
+import com.beemdevelopment.aegis.helpers.UnlockTracer;
 import com.beemdevelopment.aegis.vault.slots.PasswordSlot;
 import com.beemdevelopment.aegis.vault.slots.Slot;
 import com.beemdevelopment.aegis.vault.slots.SlotException;
@@ -48,7 +49,10 @@ public class PasswordSlotDecryptTask extends ProgressDialogTask<PasswordSlotDecr
     public static Result decryptPasswordSlot(PasswordSlot slot, char[] password)
             throws SlotIntegrityException, SlotException {
         MasterKey masterKey;
-        SecretKey key = slot.deriveKey(password);
+        SecretKey key;
+        try (UnlockTracer.Section ignored = UnlockTracer.begin(UnlockTracer.STAGE_DERIVE_KEY)) {
+            key = slot.deriveKey(password);
+        }
         byte[] oldPasswordBytes = CryptoUtils.toBytesOld(password);
 
         try {
@@ -16,6 +16,8 @@ import com.beemdevelopment.aegis.ui.dialogs.Dialogs;
 
 public abstract class ProgressDialogTask<Params, Result> extends AsyncTask<Params, String, Result> {
     private ProgressDialog _dialog;
+    private Lifecycle _lifecycle;
+    private boolean _showOnProgress;
 
     public ProgressDialogTask(Context context, String message) {
         _dialog = new ProgressDialog(context);
@@ -27,7 +29,9 @@ public abstract class ProgressDialogTask<Params, Result> extends AsyncTask<Param
     @CallSuper
     @Override
     protected void onPreExecute() {
-        _dialog.show();
+        if (!_showOnProgress) {
+            _dialog.show();
+        }
     }
 
     @CallSuper
@@ -43,6 +47,21 @@ public abstract class ProgressDialogTask<Params, Result> extends AsyncTask<Param
         if (values.length == 1) {
             _dialog.setMessage(values[0]);
         }
+
+        if (_showOnProgress) {
+            _showOnProgress = false;
+            if (_lifecycle == null || _lifecycle.getCurrentState().isAtLeast(Lifecycle.State.RESUMED)) {
+                _dialog.show();
+            }
+        }
+    }
+
+    /**
+     * Defers showing the dialog until the task first reports progress, for tasks that
+     * often turn out to have nothing to do. Must be called before the task is executed.
+     */
+    protected final void setShowOnProgress() {
+        _showOnProgress = true;
     }
 
     protected void setPriority() {
@@ -55,6 +74,7 @@ public abstract class ProgressDialogTask<Params, Result> extends AsyncTask<Param
 
     @SafeVarargs
     public final void execute(@Nullable Lifecycle lifecycle, Params... params) {
+        _lifecycle = lifecycle;
         if (lifecycle != null) {
             LifecycleObserver observer = new Observer(getDialog());
             lifecycle.addObserver(observer);
@@ -0,0 +1,99 @@
+package com.beemdevelopment.aegis.ui.tasks;
+
+import android.content.Context;
+import android.net.Uri;
+
+import com.beemdevelopment.aegis.R;
+import com.beemdevelopment.aegis.vault.VaultBackupManager;
+import com.beemdevelopment.aegis.vault.VaultFile;
+import com.beemdevelopment.aegis.vault.VaultFileCredentials;
+import com.beemdevelopment.aegis.vault.VaultFileException;
+import com.beemdevelopment.aegis.vault.VaultManagerException;
+
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * RestoreBackupTask restores the vault from a backup on a background thread, replaying
+ * the chain of incremental backups if needed. The result is written to a temporary file
+ * in the cache directory, encrypted with the given credentials.
+ */
+public class RestoreBackupTask extends ProgressDialogTask<RestoreBackupTask.Params, ImportFileTask.Result> {
+    private final VaultBackupManager _backups;
+    private final Callback _cb;
+
+    public RestoreBackupTask(Context context, VaultBackupManager backups, Callback cb) {
+        super(context, context.getString(R.string.restoring_backup));
+        _backups = backups;
+        _cb = cb;
+    }
+
+    @Override
+    protected ImportFileTask.Result doInBackground(Params... args) {
+        setPriority();
+
+        Params params = args[0];
+        Context context = getDialog().getContext();
+
+        File tempFile = null;
+        try {
+            JSONObject obj = _backups.restore(params.getDirUri(), params.getFile(), params.getCredentials());
+
+            VaultFile vaultFile = new VaultFile();
+            if (params.getCredentials() != null) {
+                vaultFile.setContent(obj, params.getCredentials());
+            } else {
+                vaultFile.setContent(obj);
+            }
+
+            tempFile = File.createTempFile("restore-", "", context.getCacheDir());
+            try (FileOutputStream outStream = new FileOutputStream(tempFile)) {
+                outStream.write(vaultFile.toBytes());
+            }
+
+            return new ImportFileTask.Result(tempFile, null);
+        } catch (VaultManagerException | VaultFileException | IOException e) {
+            if (tempFile != null) {
+                tempFile.delete();
+            }
+            return new ImportFileTask.Result(null, e);
+        }
+    }
+
+    @Override
+    protected void onPostExecute(ImportFileTask.Result result) {
+        super.onPostExecute(result);
+        _cb.onTaskFinished(result);
+    }
+
+    public interface Callback {
+        void onTaskFinished(ImportFileTask.Result result);
+    }
+
+    public static class Params {
+        private final Uri _dirUri;
+        private final VaultBackupManager.BackupFile _file;
+        private final VaultFileCredentials _creds;
+
+        public Params(Uri dirUri, VaultBackupManager.BackupFile file, VaultFileCredentials creds) {
+            _dirUri = dirUri;
+            _file = file;
+            _creds = creds;
+        }
+
+        public Uri getDirUri() {
+            return _dirUri;
+        }
+
+        public VaultBackupManager.BackupFile getFile() {
+            return _file;
+        }
+
+        public VaultFileCredentials getCredentials() {
+            return _creds;
+        }
+    }
+}
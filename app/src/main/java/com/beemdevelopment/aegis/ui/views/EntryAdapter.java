@@ -1,6 +1,7 @@
 package com.beemdevelopment.aegis.ui.views;
 
 import android.os.Handler;
+import android.util.SparseIntArray;
 import android.view.LayoutInflater;
 import android.view.MotionEvent;
 import android.view.View;
@@ -12,6 +13,7 @@ import com.beemdevelopment.aegis.R;
 import com.beemdevelopment.aegis.SortCategory;
 import com.beemdevelopment.aegis.ViewMode;
 import com.beemdevelopment.aegis.helpers.ItemTouchHelperAdapter;
+import com.beemdevelopment.aegis.helpers.UnlockTracer;
 import com.beemdevelopment.aegis.otp.HotpInfo;
 import com.beemdevelopment.aegis.otp.OtpInfo;
 import com.beemdevelopment.aegis.otp.OtpInfoException;
@@ -22,9 +24,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 import java.util.TreeSet;
 import java.util.UUID;
 
@@ -49,10 +52,18 @@ public class EntryAdapter extends RecyclerView.Adapter<EntryHolder> implements I
     private int _uniformPeriod = -1;
     private Handler _dimHandler;
 
+    // keeps track of the number of shown TOTP entries for each period
+    private SparseIntArray _periodCounts;
+    private int _mostFrequentPeriod = -1;
+    private boolean _periodCountsChanged;
+
     // keeps track of the viewholders that are currently bound
     private List<EntryHolder> _holders;
     private EntryHolder _dragHandleHolder; // holder with enabled drag handle
 
+    // keeps track of the entries near the viewport, see updateWindow
+    private EntryWindow _window;
+
     public EntryAdapter(EntryListView view) {
         _entries = new ArrayList<>();
         _shownEntries = new ArrayList<>();
@@ -60,16 +71,60 @@ public class EntryAdapter extends RecyclerView.Adapter<EntryHolder> implements I
         _groupFilter = new ArrayList<>();
         _holders = new ArrayList<>();
         _dimHandler = new Handler();
+        _periodCounts = new SparseIntArray();
+        _window = new EntryWindow(EntryListView.WINDOW_MARGIN, this::onEntryReleased);
         _view = view;
+
+        // any change to the list of shown entries shifts the positions in the window
+        registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+            @Override
+            public void onChanged() {
+                _window.invalidate();
+            }
+
+            @Override
+            public void onItemRangeChanged(int positionStart, int itemCount) {
+                _window.invalidate();
+            }
+
+            @Override
+            public void onItemRangeInserted(int positionStart, int itemCount) {
+                _window.invalidate();
+            }
+
+            @Override
+            public void onItemRangeRemoved(int positionStart, int itemCount) {
+                _window.invalidate();
+            }
+
+            @Override
+            public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+                _window.invalidate();
+            }
+        });
     }
 
     public void destroy() {
         for (EntryHolder holder : _holders) {
             holder.destroy();
         }
+        _window.clear();
         _view = null;
     }
 
+    /**
+     * Moves the window of entries that keep their code generation state to the given
+     * range of visible positions. The entries that leave the window release that state,
+     * so that it doesn't accumulate for every entry that is scrolled past in large vaults.
+     */
+    public void updateWindow(int firstVisible, int lastVisible) {
+        _window.update(_shownEntries, firstVisible, lastVisible);
+    }
+
+    private void onEntryReleased(VaultEntry entry) {
+        entry.getInfo().releaseHmac();
+    }
+
     public void setCodeGroupSize(int codeGroupeSize) {
         _codeGroupSize = codeGroupeSize;
     }
@@ -116,6 +171,7 @@ public class EntryAdapter extends RecyclerView.Adapter<EntryHolder> implements I
             for (int i = 0; i < _shownEntries.size(); i++) {
                 if (comparator.compare(_shownEntries.get(i), entry) > 0) {
                     _shownEntries.add(i, entry);
+                    countPeriod(entry, 1);
                     notifyItemInserted(i);
                     position = i;
                     break;
@@ -125,6 +181,7 @@ public class EntryAdapter extends RecyclerView.Adapter<EntryHolder> implements I
 
         if (position < 0){
             _shownEntries.add(entry);
+            countPeriod(entry, 1);
 
             position = getItemCount() - 1;
             if (position == 0) {
@@ -139,18 +196,89 @@ public class EntryAdapter extends RecyclerView.Adapter<EntryHolder> implements I
         return position;
     }
 
+    /**
+     * Adds all of the given entries to the list in one pass. The entries that pass the
+     * current filters are merged into the (already sorted) list of shown entries, after
+     * which the changes are dispatched to the RecyclerView as a single batch of updates.
+     */
     public void addEntries(Collection<VaultEntry> entries) {
         _entries.addAll(entries);
-        updateShownEntries();
+
+        List<VaultEntry> newEntries = new ArrayList<>();
+        for (VaultEntry entry : entries) {
+            if (!isEntryFiltered(entry)) {
+                newEntries.add(entry);
+                countPeriod(entry, 1);
+            }
+        }
+
+        boolean wasEmpty = _shownEntries.isEmpty();
+        List<int[]> ranges = new ArrayList<>();
+
+        Comparator<VaultEntry> comparator = _sortCategory.getComparator();
+        if (comparator == null) {
+            ranges.add(new int[]{_shownEntries.size(), newEntries.size()});
+            _shownEntries.addAll(newEntries);
+        } else {
+            Collections.sort(newEntries, comparator);
+            _shownEntries = mergeEntries(_shownEntries, newEntries, comparator, ranges);
+        }
+
+        if (wasEmpty) {
+            notifyDataSetChanged();
+        } else {
+            // the ranges are in ascending order of their final position, so they
+            // can be dispatched in that order without having to adjust the offsets
+            for (int[] range : ranges) {
+                if (range[1] > 0) {
+                    notifyItemRangeInserted(range[0], range[1]);
+                }
+            }
+        }
+
+        _view.onListChange();
         checkPeriodUniformity(true);
     }
 
+    /**
+     * Merges the sorted list of new entries into the sorted list of shown entries. The
+     * positions of the runs of inserted entries in the resulting list are added to ranges.
+     */
+    private static List<VaultEntry> mergeEntries(List<VaultEntry> shownEntries, List<VaultEntry> newEntries, Comparator<VaultEntry> comparator, List<int[]> ranges) {
+        List<VaultEntry> res = new ArrayList<>(shownEntries.size() + newEntries.size());
+
+        int i = 0;
+        int j = 0;
+        int runStart = -1;
+        while (i < shownEntries.size() || j < newEntries.size()) {
+            // an entry is inserted after any existing entries that compare equal to it
+            if (j < newEntries.size() && (i == shownEntries.size() || comparator.compare(shownEntries.get(i), newEntries.get(j)) > 0)) {
+                if (runStart < 0) {
+                    runStart = res.size();
+                }
+                res.add(newEntries.get(j++));
+            } else {
+                if (runStart >= 0) {
+                    ranges.add(new int[]{runStart, res.size() - runStart});
+                    runStart = -1;
+                }
+                res.add(shownEntries.get(i++));
+            }
+        }
+
+        if (runStart >= 0) {
+            ranges.add(new int[]{runStart, res.size() - runStart});
+        }
+
+        return res;
+    }
+
     public void removeEntry(VaultEntry entry) {
         _entries.remove(entry);
 
         if (_shownEntries.contains(entry)) {
             int position = _shownEntries.indexOf(entry);
-            _shownEntries.remove(position);
+            countPeriod(_shownEntries.remove(position), -1);
             notifyItemRemoved(position);
         }
 
@@ -163,9 +291,63 @@ public class EntryAdapter extends RecyclerView.Adapter<EntryHolder> implements I
         removeEntry(entry);
     }
 
+    /**
+     * Removes all of the given entries from the list in one pass and dispatches the
+     * changes to the RecyclerView as a single batch of updates.
+     */
+    public void removeEntries(Collection<VaultEntry> entries) {
+        Set<UUID> uuids = new HashSet<>();
+        for (VaultEntry entry : entries) {
+            uuids.add(entry.getUUID());
+        }
+
+        Iterator<VaultEntry> iter = _entries.iterator();
+        while (iter.hasNext()) {
+            if (uuids.contains(iter.next().getUUID())) {
+                iter.remove();
+            }
+        }
+
+        List<VaultEntry> shownEntries = new ArrayList<>(_shownEntries.size());
+        List<int[]> ranges = new ArrayList<>();
+        int runStart = -1;
+        for (int i = 0; i < _shownEntries.size(); i++) {
+            VaultEntry entry = _shownEntries.get(i);
+            if (uuids.contains(entry.getUUID())) {
+                if (runStart < 0) {
+                    runStart = i;
+                }
+                countPeriod(entry, -1);
+            } else {
+                if (runStart >= 0) {
+                    ranges.add(new int[]{runStart, i - runStart});
+                    runStart = -1;
+                }
+                shownEntries.add(entry);
+            }
+        }
+
+        if (runStart >= 0) {
+            ranges.add(new int[]{runStart, _shownEntries.size() - runStart});
+        }
+
+        _shownEntries = shownEntries;
+
+        // dispatch the ranges in descending order, so that the offsets of the
+        // ranges that haven't been dispatched yet remain valid
+        for (int i = ranges.size() - 1; i >= 0; i--) {
+            int[] range = ranges.get(i);
+            notifyItemRangeRemoved(range[0], range[1]);
+        }
+
+        _view.onListChange();
+        checkPeriodUniformity();
+    }
+
     public void clearEntries() {
         _entries.clear();
         _shownEntries.clear();
+        clearPeriodCounts();
         notifyDataSetChanged();
         checkPeriodUniformity();
     }
@@ -176,16 +358,19 @@ public class EntryAdapter extends RecyclerView.Adapter<EntryHolder> implements I
 
         if (_shownEntries.contains(oldEntry)) {
             int position = _shownEntries.indexOf(oldEntry);
+            countPeriod(_shownEntries.get(position), -1);
             if (isEntryFiltered(newEntry)) {
                 _shownEntries.remove(position);
                 notifyItemRemoved(position);
             } else {
                 _shownEntries.set(position, newEntry);
+                countPeriod(newEntry, 1);
                 notifyItemChanged(position);
             }
         } else if (!isEntryFiltered(newEntry)) {
             // TODO: preserve order
             _shownEntries.add(newEntry);
+            countPeriod(newEntry, 1);
 
             int position = getItemCount() - 1;
             notifyItemInserted(position);
@@ -205,21 +390,29 @@ public class EntryAdapter extends RecyclerView.Adapter<EntryHolder> implements I
     }
 
     private boolean isEntryFiltered(VaultEntry entry) {
+        return isEntryFiltered(entry, _groupFilter, _searchFilter);
+    }
+
+    /**
+     * Reports whether the given entry is hidden by the given group filter and search
+     * filter. The search filter is expected to be in lower case already.
+     */
+    public static boolean isEntryFiltered(VaultEntry entry, List<String> groupFilter, String searchFilter) {
         String group = entry.getGroup();
         String issuer = entry.getIssuer().toLowerCase();
         String name = entry.getName().toLowerCase();
 
-        if (!_groupFilter.isEmpty()) {
-            if (group == null || !_groupFilter.contains(group)) {
+        if (!groupFilter.isEmpty()) {
+            if (group == null || !groupFilter.contains(group)) {
                 return true;
             }
         }
 
-        if (_searchFilter == null) {
+        if (searchFilter == null) {
             return false;
         }
 
-        return !issuer.contains(_searchFilter) && !name.contains(_searchFilter);
+        return !issuer.contains(searchFilter) && !name.contains(searchFilter);
     }
 
     public void refresh(boolean hard) {
@@ -267,11 +460,13 @@ public class EntryAdapter extends RecyclerView.Adapter<EntryHolder> implements I
     private void updateShownEntries() {
         // clear the list of shown entries first
         _shownEntries.clear();
+        clearPeriodCounts();
 
         // add entries back that are not filtered out
         for (VaultEntry entry : _entries) {
             if (!isEntryFiltered(entry)) {
                 _shownEntries.add(entry);
+                countPeriod(entry, 1);
             }
         }
 
@@ -354,6 +549,7 @@ public class EntryAdapter extends RecyclerView.Adapter<EntryHolder> implements I
         holder.setData(entry, _codeGroupSize, _showAccountName, showProgress, hidden, dimmed);
         holder.setFocused(_selectedEntries.contains(entry));
         holder.loadIcon(_view);
+        UnlockTracer.onBind();
 
         holder.itemView.setOnClickListener(new View.OnClickListener() {
             @Override
@@ -471,38 +667,48 @@ public class EntryAdapter extends RecyclerView.Adapter<EntryHolder> implements I
     }
 
     public int getMostFrequentPeriod() {
-        List<TotpInfo> infos = new ArrayList<>();
-        for (VaultEntry entry : _shownEntries) {
-            OtpInfo info = entry.getInfo();
-            if (info instanceof TotpInfo) {
-                infos.add((TotpInfo) info);
+        if (_periodCountsChanged) {
+            int maxCount = 0;
+            int maxPeriod = 0;
+            for (int i = 0; i < _periodCounts.size(); i++) {
+                int count = _periodCounts.valueAt(i);
+                if (count > maxCount) {
+                    maxCount = count;
+                    maxPeriod = _periodCounts.keyAt(i);
+                }
             }
-        }
 
-        if (infos.isEmpty()) {
-            return -1;
+            _mostFrequentPeriod = maxCount > 1 ? maxPeriod : -1;
+            _periodCountsChanged = false;
         }
 
-        Map<Integer, Integer> occurrences = new HashMap<>();
-        for (TotpInfo info : infos) {
-            int period = info.getPeriod();
-            if(occurrences.containsKey(period)) {
-                occurrences.put(period, occurrences.get(period) + 1);
-            } else {
-                occurrences.put(period, 1);
-            }
+        return _mostFrequentPeriod;
+    }
+
+    /**
+     * Adjusts the number of shown entries with the period of the given entry by delta.
+     * This has no effect if the entry is not a TOTP entry.
+     */
+    private void countPeriod(VaultEntry entry, int delta) {
+        OtpInfo info = entry.getInfo();
+        if (!(info instanceof TotpInfo)) {
+            return;
         }
 
-        Integer maxValue = 0;
-        Integer maxKey = 0;
-        for (Map.Entry<Integer, Integer> entry : occurrences.entrySet()){
-            if(entry.getValue() > maxValue){
-                maxValue = entry.getValue();
-                maxKey = entry.getKey();
-            }
+        int period = ((TotpInfo) info).getPeriod();
+        int count = _periodCounts.get(period) + delta;
+        if (count > 0) {
+            _periodCounts.put(period, count);
+        } else {
+            _periodCounts.delete(period);
         }
 
-        return maxValue > 1 ? maxKey : -1;
+        _periodCountsChanged = true;
+    }
+
+    private void clearPeriodCounts() {
+        _periodCounts.clear();
+        _periodCountsChanged = true;
     }
 
     public void focusEntry(VaultEntry entry, int secondsToFocus) {
@@ -1,6 +1,6 @@
 package com.beemdevelopment.aegis.ui.views;
 
-import android.graphics.PorterDuff;
+import android.graphics.drawable.Drawable;
 import android.os.Handler;
 import android.view.View;
 import android.view.animation.Animation;
@@ -12,7 +12,6 @@ import android.widget.TextView;
 import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.amulyakhare.textdrawable.TextDrawable;
 import com.beemdevelopment.aegis.R;
 import com.beemdevelopment.aegis.helpers.TextDrawableHelper;
 import com.beemdevelopment.aegis.helpers.ThemeHelper;
@@ -76,8 +75,6 @@ public class EntryHolder extends RecyclerView.ViewHolder {
         _animationHandler = new Handler();
 
         _progressBar = view.findViewById(R.id.progressBar);
-        int primaryColorId = view.getContext().getResources().getColor(R.color.colorPrimary);
-        _progressBar.getProgressDrawable().setColorFilter(primaryColorId, PorterDuff.Mode.SRC_IN);
         _view.setBackground(_view.getContext().getResources().getDrawable(R.color.card_background));
 
         _scaleIn = AnimationUtils.loadAnimation(view.getContext(), R.anim.item_scale_in);
@@ -148,7 +145,7 @@ public class EntryHolder extends RecyclerView.ViewHolder {
                 .skipMemoryCache(false)
                 .into(_profileDrawable);
         } else {
-            TextDrawable drawable = TextDrawableHelper.generate(_entry.getIssuer(), _entry.getName(), _profileDrawable);
+            Drawable drawable = TextDrawableHelper.generate(_entry.getIssuer(), _entry.getName(), _profileDrawable);
             _profileDrawable.setImageDrawable(drawable);
         }
     }
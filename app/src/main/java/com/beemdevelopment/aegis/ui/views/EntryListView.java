@@ -50,6 +50,9 @@ import java.util.UUID;
 import java.util.stream.Collectors;
 
 public class EntryListView extends Fragment implements EntryAdapter.Listener {
+    // the number of entries beyond the visible ones to preload icons for and keep state of
+    static final int WINDOW_MARGIN = 10;
+
     private EntryAdapter _adapter;
     private Listener _listener;
     private SimpleItemTouchHelperCallback _touchCallback;
@@ -94,14 +97,32 @@ public class EntryListView extends Fragment implements EntryAdapter.Listener {
             @Override
             public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
                 super.onScrolled(recyclerView, dx, dy);
+
+                // this is also called after a layout that changed the visible range
+                LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+                _adapter.updateWindow(layoutManager.findFirstVisibleItemPosition(), layoutManager.findLastVisibleItemPosition());
+
                 _listener.onScroll(dx, dy);
             }
+
+            @Override
+            public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
+                super.onScrollStateChanged(recyclerView, newState);
+
+                // don't decode icons for entries that fly by during a fling, only for the
+                // ones that are on screen once it settles
+                if (newState == RecyclerView.SCROLL_STATE_SETTLING) {
+                    Glide.with(EntryListView.this).pauseRequests();
+                } else {
+                    Glide.with(EntryListView.this).resumeRequests();
+                }
+            }
         });
 
         // set up icon preloading
         _preloadSizeProvider = new ViewPreloadSizeProvider<>();
         IconPreloadProvider modelProvider = new IconPreloadProvider();
-        RecyclerViewPreloader<VaultEntry> preloader = new RecyclerViewPreloader<>(Glide.with(this), modelProvider, _preloadSizeProvider, 10);
+        RecyclerViewPreloader<VaultEntry> preloader = new RecyclerViewPreloader<>(Glide.with(this), modelProvider, _preloadSizeProvider, WINDOW_MARGIN);
         _recyclerView.addOnScrollListener(preloader);
 
         LinearLayoutManager layoutManager = new LinearLayoutManager(view.getContext());
@@ -342,6 +363,11 @@ public class EntryListView extends Fragment implements EntryAdapter.Listener {
         updateEmptyState();
     }
 
+    public void removeEntries(Collection<VaultEntry> entries) {
+        _adapter.removeEntries(entries);
+        updateEmptyState();
+    }
+
     public void removeEntry(UUID uuid) {
         _adapter.removeEntry(uuid);
         updateEmptyState();
@@ -0,0 +1,116 @@
+package com.beemdevelopment.aegis.ui.views;
+
+import com.beemdevelopment.aegis.vault.VaultEntry;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps track of the entries that are on screen or within a margin of it. Only these
+ * entries are bound to views and generate codes, so they're the only ones that need to
+ * keep the state that's derived for that. Whenever an entry leaves the window, the
+ * listener is asked to release that state. This keeps the memory use of the entry list
+ * bounded by the size of the window, instead of growing with every entry that is
+ * scrolled past.
+ */
+public class EntryWindow {
+    private final int _margin;
+    private final Listener _listener;
+
+    private Set<VaultEntry> _entries;
+    private Set<VaultEntry> _nextEntries;
+    private int _start;
+    private int _end;
+    private boolean _invalidated;
+
+    /**
+     * @param margin The number of entries before and after the visible ones that are kept
+     *               in the window, so that they're ready by the time they scroll into view.
+     */
+    public EntryWindow(int margin, Listener listener) {
+        _margin = margin;
+        _listener = listener;
+        _entries = newEntrySet();
+        _nextEntries = newEntrySet();
+    }
+
+    /**
+     * Moves the window to the given range of visible positions in the given list of
+     * entries. The entries that were in the window before, but no longer are, are released.
+     * Nothing happens if the range is unchanged and the list wasn't changed since the last
+     * update, so this is cheap enough to call for every scroll event.
+     */
+    public void update(List<VaultEntry> entries, int firstVisible, int lastVisible) {
+        int start = 0;
+        int end = 0;
+        if (firstVisible >= 0 && lastVisible >= firstVisible) {
+            start = Math.max(0, firstVisible - _margin);
+            end = (int) Math.min(entries.size(), (long) lastVisible + _margin + 1);
+        }
+
+        if (!_invalidated && start == _start && end == _end) {
+            return;
+        }
+
+        for (int i = start; i < end; i++) {
+            _nextEntries.add(entries.get(i));
+        }
+        for (VaultEntry entry : _entries) {
+            if (!_nextEntries.contains(entry)) {
+                _listener.onEntryReleased(entry);
+            }
+        }
+
+        // swap the sets so that moving the window doesn't allocate a new one every time
+        Set<VaultEntry> entrySet = _entries;
+        _entries = _nextEntries;
+        _nextEntries = entrySet;
+        _nextEntries.clear();
+
+        _start = start;
+        _end = end;
+        _invalidated = false;
+    }
+
+    /**
+     * Marks the window as out of date, because entries were added to, removed from or
+     * moved within the list. The next update recomputes the window, even if the range
+     * of visible positions is the same.
+     */
+    public void invalidate() {
+        _invalidated = true;
+    }
+
+    /**
+     * Releases all of the entries in the window and empties it.
+     */
+    public void clear() {
+        for (VaultEntry entry : _entries) {
+            _listener.onEntryReleased(entry);
+        }
+
+        _entries.clear();
+        _start = 0;
+        _end = 0;
+        _invalidated = false;
+    }
+
+    public boolean contains(VaultEntry entry) {
+        return _entries.contains(entry);
+    }
+
+    public int size() {
+        return _entries.size();
+    }
+
+    private static Set<VaultEntry> newEntrySet() {
+        // VaultEntry overrides equals to compare the contents of entries
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    public interface Listener {
+        void onEntryReleased(VaultEntry entry);
+    }
+}
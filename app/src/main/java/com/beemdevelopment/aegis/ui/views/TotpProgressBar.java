@@ -1,56 +1,96 @@
 package com.beemdevelopment.aegis.ui.views;
 
-import android.animation.ObjectAnimator;
 import android.content.Context;
-import android.os.Build;
-import android.os.Handler;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
 import android.provider.Settings;
 import android.util.AttributeSet;
-import android.view.animation.LinearInterpolator;
-import android.widget.ProgressBar;
+import android.view.Choreographer;
+import android.view.View;
 
-import androidx.annotation.RequiresApi;
+import androidx.annotation.Nullable;
 
+import com.beemdevelopment.aegis.R;
 import com.beemdevelopment.aegis.otp.TotpInfo;
 
-public class TotpProgressBar extends ProgressBar {
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A countdown bar for the period of a TOTP code. The progress is derived from the wall
+ * clock on every frame and drawn directly on the canvas. All running bars share a single
+ * frame callback, so having many of them on screen doesn't create any animators or
+ * handler messages, and a bar is only redrawn when its filled width actually changes.
+ */
+public class TotpProgressBar extends View {
+    private static final Ticker _ticker = new Ticker();
+
+    private final Paint _progressPaint;
+    private final Paint _trackPaint;
+
     private int _period = TotpInfo.DEFAULT_PERIOD;
-    private Handler _handler;
-    private float _animDurationScale;
+    private boolean _running;
+    private boolean _animated = true;
+    private int _fillWidth = -1;
 
     public TotpProgressBar(Context context) {
-        super(context);
+        this(context, null);
     }
 
-    public TotpProgressBar(Context context, AttributeSet attrs) {
+    public TotpProgressBar(Context context, @Nullable AttributeSet attrs) {
         super(context, attrs);
+        _progressPaint = new Paint();
+        _progressPaint.setStyle(Paint.Style.FILL);
+        _trackPaint = new Paint();
+        _trackPaint.setStyle(Paint.Style.FILL);
+
+        TypedArray array = null;
+        try {
+            array = context.obtainStyledAttributes(attrs, R.styleable.TotpProgressBar);
+            _progressPaint.setColor(array.getColor(R.styleable.TotpProgressBar_progress_color, Color.BLACK));
+            _trackPaint.setColor(array.getColor(R.styleable.TotpProgressBar_track_color, Color.TRANSPARENT));
+        } finally {
+            if (array != null) {
+                array.recycle();
+            }
+        }
     }
 
-    public TotpProgressBar(Context context, AttributeSet attrs, int defStyleAttr) {
-        super(context, attrs, defStyleAttr);
+    public void setPeriod(int period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException(String.format("Bad period: %d", period));
+        }
+
+        _period = period;
+        invalidate();
     }
 
-    @RequiresApi(api = Build.VERSION_CODES.LOLLIPOP)
-    public TotpProgressBar(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
-        super(context, attrs, defStyleAttr, defStyleRes);
+    public void setProgressColor(int color) {
+        _progressPaint.setColor(color);
+        invalidate();
     }
 
-    public void setPeriod(int period) {
-        _period = period;
+    public void setTrackColor(int color) {
+        _trackPaint.setColor(color);
+        invalidate();
     }
 
     public void start() {
-        stop();
-        _handler = new Handler();
-        _animDurationScale = Settings.Global.getFloat(getContext().getContentResolver(), Settings.Global.ANIMATOR_DURATION_SCALE, 1.0f);
-        refresh();
+        // if animations are disabled, only move the bar once per second, like an animator would
+        float durationScale = Settings.Global.getFloat(getContext().getContentResolver(), Settings.Global.ANIMATOR_DURATION_SCALE, 1.0f);
+        _animated = durationScale > 0;
+        _running = true;
+        if (isAttachedToWindow()) {
+            _ticker.add(this);
+        }
+        invalidate();
     }
 
     public void stop() {
-        if (_handler != null) {
-            _handler.removeCallbacksAndMessages(null);
-            _handler = null;
-        }
+        _running = false;
+        _ticker.remove(this);
     }
 
     public void restart() {
@@ -58,26 +98,106 @@ public class TotpProgressBar extends ProgressBar {
         start();
     }
 
-    private void refresh() {
-        // calculate the current progress the bar should start at
-        int maxProgress = getMax();
-        long millisTillRotation = TotpInfo.getMillisTillNextRotation(_period);
-        int currentProgress = (int) (maxProgress * ((float) millisTillRotation / (_period * 1000)));
-
-        // start progress animation, compensating for any changes to the animator duration scale settings
-        float animPart = (float) maxProgress / _period;
-        int animEnd = (int) (Math.floor(currentProgress / animPart) * animPart);
-        int animPartDuration = _animDurationScale > 0 ? (int) (1000 / _animDurationScale) : 0;
-        float animDurationFraction = (float) (currentProgress - animEnd) / animPart;
-        int realAnimDuration = (int) (1000 * animDurationFraction);
-        int animDuration =  (int) (animPartDuration * animDurationFraction);
-
-        ObjectAnimator animation = ObjectAnimator.ofInt(this, "progress", currentProgress, animEnd);
-        animation.setDuration(animDuration);
-        animation.setInterpolator(new LinearInterpolator());
-        animation.start();
-
-        // the animation only lasts for (less than) one second, so restart it after that
-        _handler.postDelayed(this::refresh, realAnimDuration);
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if (_running) {
+            _ticker.add(this);
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        _ticker.remove(this);
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        _fillWidth = -1;
+    }
+
+    private void onFrame(long millis) {
+        if (getVisibility() == VISIBLE && calculateFillWidth(millis) != _fillWidth) {
+            invalidate();
+        }
+    }
+
+    private int calculateFillWidth(long millis) {
+        long periodMillis = _period * 1000L;
+        long millisTillRotation = periodMillis - (millis % periodMillis);
+        if (!_animated) {
+            // round up to the next second, so that the bar is full right after a rotation
+            millisTillRotation = (millisTillRotation + 999) / 1000 * 1000;
+        }
+
+        int width = getWidth() - getPaddingLeft() - getPaddingRight();
+        return (int) (width * millisTillRotation / periodMillis);
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+
+        _fillWidth = calculateFillWidth(System.currentTimeMillis());
+
+        int left = getPaddingLeft();
+        int right = getWidth() - getPaddingRight();
+        int top = getPaddingTop();
+        int bottom = getHeight() - getPaddingBottom();
+        if (_trackPaint.getColor() != Color.TRANSPARENT) {
+            canvas.drawRect(left, top, right, bottom, _trackPaint);
+        }
+
+        if (getLayoutDirection() == LAYOUT_DIRECTION_RTL) {
+            canvas.drawRect(right - _fillWidth, top, right, bottom, _progressPaint);
+        } else {
+            canvas.drawRect(left, top, left + _fillWidth, bottom, _progressPaint);
+        }
+    }
+
+    /**
+     * Drives all running progress bars from a single Choreographer frame callback. Only
+     * touched from the main thread. The callback is only posted while there's at least
+     * one bar to update.
+     */
+    private static class Ticker implements Choreographer.FrameCallback {
+        private final List<TotpProgressBar> _bars = new ArrayList<>();
+        private boolean _posted;
+
+        public void add(TotpProgressBar bar) {
+            if (!_bars.contains(bar)) {
+                _bars.add(bar);
+            }
+            if (!_posted) {
+                Choreographer.getInstance().postFrameCallback(this);
+                _posted = true;
+            }
+        }
+
+        public void remove(TotpProgressBar bar) {
+            _bars.remove(bar);
+            if (_bars.isEmpty() && _posted) {
+                Choreographer.getInstance().removeFrameCallback(this);
+                _posted = false;
+            }
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            _posted = false;
+
+            // use an indexed loop to avoid allocating an iterator on every frame
+            long millis = System.currentTimeMillis();
+            for (int i = 0; i < _bars.size(); i++) {
+                _bars.get(i).onFrame(millis);
+            }
+
+            if (!_bars.isEmpty()) {
+                Choreographer.getInstance().postFrameCallback(this);
+                _posted = true;
+            }
+        }
     }
 }
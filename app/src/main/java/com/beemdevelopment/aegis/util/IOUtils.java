@@ -1,41 +1,151 @@
 package com.beemdevelopment.aegis.util;
 
+import android.os.ParcelFileDescriptor;
+
 import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 public class IOUtils {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     private IOUtils() {
 
     }
 
     public static byte[] readFile(FileInputStream inStream) throws IOException {
-        try (DataInputStream outStream = new DataInputStream(inStream)) {
-            byte[] fileBytes = new byte[(int) inStream.getChannel().size()];
-            outStream.readFully(fileBytes);
-            return fileBytes;
+        try (InputStream stream = inStream) {
+            return readAll(stream);
         }
     }
 
+    /**
+     * Reads the remainder of the given stream. If the stream is backed by a regular file
+     * (this includes the streams that SAF hands out for files on disk), the buffer is
+     * allocated with the exact size of the file upfront instead of being grown while reading.
+     */
     public static byte[] readAll(InputStream inStream) throws IOException {
+        if (isFileStream(inStream)) {
+            long remaining = getRemaining(((FileInputStream) inStream).getChannel());
+            if (remaining > 0 && remaining <= Integer.MAX_VALUE - 8) {
+                byte[] bytes = readFully(inStream, (int) remaining);
+
+                // the file may have grown in the meantime, so check that we've reached the end of it
+                int b = inStream.read();
+                if (b == -1) {
+                    return bytes;
+                }
+
+                try (ByteArrayOutputStream outStream = new ByteArrayOutputStream(bytes.length + BUFFER_SIZE)) {
+                    outStream.write(bytes);
+                    outStream.write(b);
+                    copy(inStream, outStream);
+                    return outStream.toByteArray();
+                }
+            }
+        }
+
         try (ByteArrayOutputStream outStream = new ByteArrayOutputStream()) {
             copy(inStream, outStream);
             return outStream.toByteArray();
         }
     }
 
+    /**
+     * Reads exactly the given number of bytes from the given stream.
+     * @throws EOFException if the stream ends before that many bytes were read.
+     */
+    public static byte[] readFully(InputStream inStream, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        new DataInputStream(inStream).readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * Copies the remainder of the given input stream to the given output stream. If both
+     * streams are backed by file descriptors (this includes ParcelFileDescriptor streams
+     * from SAF), the data is transferred by the kernel without passing through the Java heap.
+     */
     public static void copy(InputStream inStream, OutputStream outStream) throws IOException {
+        if (isFileStream(inStream) && isFileStream(outStream)) {
+            transfer(((FileInputStream) inStream).getChannel(), ((FileOutputStream) outStream).getChannel());
+            return;
+        }
+
         int read;
-        byte[] buf = new byte[4096];
+        byte[] buf = new byte[BUFFER_SIZE];
         while ((read = inStream.read(buf, 0, buf.length)) != -1) {
             outStream.write(buf, 0, read);
         }
     }
 
+    /**
+     * Transfers the remainder of the source channel to the destination channel. FileChannel.transferTo
+     * is used for as many bytes as the size of the source is known, the rest (or all of it, if the
+     * source is a pipe or a socket) is copied through a direct buffer.
+     */
+    public static void transfer(FileChannel src, FileChannel dst) throws IOException {
+        long remaining = getRemaining(src);
+        if (remaining > 0) {
+            long pos = src.position();
+            long end = pos + remaining;
+            while (pos < end) {
+                long count = src.transferTo(pos, end - pos, dst);
+                if (count <= 0) {
+                    break;
+                }
+                pos += count;
+            }
+
+            // transferTo doesn't update the position of the source channel
+            src.position(pos);
+        }
+
+        ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        while (src.read(buf) != -1) {
+            buf.flip();
+            while (buf.hasRemaining()) {
+                dst.write(buf);
+            }
+            buf.clear();
+        }
+    }
+
+    /**
+     * Reports whether the channel of the given stream covers exactly the data of the stream. That's
+     * not the case for subclasses like AssetFileDescriptor.AutoCloseInputStream, which only exposes
+     * a part of the underlying file.
+     */
+    private static boolean isFileStream(InputStream stream) {
+        Class<?> type = stream.getClass();
+        return type == FileInputStream.class || type == ParcelFileDescriptor.AutoCloseInputStream.class;
+    }
+
+    private static boolean isFileStream(OutputStream stream) {
+        Class<?> type = stream.getClass();
+        return type == FileOutputStream.class || type == ParcelFileDescriptor.AutoCloseOutputStream.class;
+    }
+
+    /**
+     * Returns the number of bytes between the position of the given channel and the end of
+     * the file it refers to, or -1 if that can't be determined, which is the case for pipes.
+     */
+    private static long getRemaining(FileChannel channel) {
+        try {
+            return Math.max(0, channel.size() - channel.position());
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
     public static void clearDirectory(File dir, boolean deleteRoot) {
         File[] files = dir.listFiles();
         if (files != null) {
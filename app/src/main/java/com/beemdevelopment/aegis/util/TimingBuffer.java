@@ -0,0 +1,71 @@
+package com.beemdevelopment.aegis.util;
+
+import java.util.Arrays;
+
+/**
+ * A fixed size ring buffer of durations. Once the buffer is full, every new duration
+ * replaces the oldest one, so the statistics always describe the most recent samples.
+ */
+public class TimingBuffer {
+    private final long[] _samples;
+    private int _next;
+    private int _size;
+
+    public TimingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        _samples = new long[capacity];
+    }
+
+    public void add(long duration) {
+        _samples[_next] = duration;
+        _next = (_next + 1) % _samples.length;
+        if (_size < _samples.length) {
+            _size++;
+        }
+    }
+
+    public int size() {
+        return _size;
+    }
+
+    public int getCapacity() {
+        return _samples.length;
+    }
+
+    /**
+     * Returns the most recently added duration, or -1 if the buffer is empty.
+     */
+    public long getLast() {
+        if (_size == 0) {
+            return -1;
+        }
+
+        return _samples[(_next - 1 + _samples.length) % _samples.length];
+    }
+
+    /**
+     * Returns the given percentile (0-100) of the durations in the buffer using the
+     * nearest-rank method, or -1 if the buffer is empty.
+     */
+    public long getPercentile(int percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException(String.format("Bad percentile: %d", percentile));
+        }
+        if (_size == 0) {
+            return -1;
+        }
+
+        long[] sorted = Arrays.copyOf(_samples, _size);
+        Arrays.sort(sorted);
+
+        int rank = (int) Math.ceil(percentile / 100.0 * _size);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    public void clear() {
+        _next = 0;
+        _size = 0;
+    }
+}
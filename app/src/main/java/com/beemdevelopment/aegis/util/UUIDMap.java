@@ -6,9 +6,11 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -33,6 +35,26 @@ public class UUIDMap <T extends UUIDMap.Value> implements Iterable<T>, Serializa
         _map.put(uuid, value);
     }
 
+    /**
+     * Adds all of the given values to the internal map. The values are checked for
+     * duplicate UUIDs before any of them are added, so the map is left untouched on failure.
+     * @throws AssertionError if a map value with the UUID of one of the given values already exists,
+     *                        or if two of the given values have the same UUID.
+     */
+    public void addAll(Collection<T> values) {
+        Set<UUID> uuids = new HashSet<>();
+        for (T value : values) {
+            UUID uuid = value.getUUID();
+            if (_map.containsKey(uuid) || !uuids.add(uuid)) {
+                throw new AssertionError(String.format("Existing value found with UUID: %s", uuid));
+            }
+        }
+
+        for (T value : values) {
+            _map.put(value.getUUID(), value);
+        }
+    }
+
     /**
      * Removes a value from the internal map.
      * @throws AssertionError if no map value exists with the UUID of the given value.
@@ -44,6 +66,25 @@ public class UUIDMap <T extends UUIDMap.Value> implements Iterable<T>, Serializa
         return oldValue;
     }
 
+    /**
+     * Removes all of the given values from the internal map. The map is checked for the
+     * presence of all values before any of them are removed, so it is left untouched on failure.
+     * @throws AssertionError if no map value exists with the UUID of one of the given values.
+     * @return The old values that are now no longer present in the internal map.
+     */
+    public List<T> removeAll(Collection<T> values) {
+        List<T> oldValues = new ArrayList<>(values.size());
+        for (T value : values) {
+            oldValues.add(getByUUID(value.getUUID()));
+        }
+
+        for (T oldValue : oldValues) {
+            _map.remove(oldValue.getUUID());
+        }
+
+        return oldValues;
+    }
+
     /**
      * Clears the internal map.
      */
@@ -1,6 +1,10 @@
 package com.beemdevelopment.aegis.vault;
 
+import com.beemdevelopment.aegis.crypto.EntryKeys;
+import com.beemdevelopment.aegis.crypto.MasterKey;
+import com.beemdevelopment.aegis.crypto.MasterKeyException;
 import com.beemdevelopment.aegis.encoding.EncodingException;
+import com.beemdevelopment.aegis.encoding.Hex;
 import com.beemdevelopment.aegis.otp.OtpInfoException;
 import com.beemdevelopment.aegis.util.UUIDMap;
 
@@ -10,17 +14,46 @@ import org.json.JSONObject;
 
 public class Vault {
     private static final int VERSION = 1;
+
+    // vaults that encrypt the secrets of their entries separately are written as version 2,
+    // so that older versions don't try to read them
+    private static final int VERSION_ENTRY_KEYS = 2;
+
     private UUIDMap<VaultEntry> _entries = new UUIDMap<>();
+    private EntryKeys _entryKeys;
 
+    /**
+     * Serializes the vault. If the vault has entry keys, the secrets of the entries are
+     * written in their encrypted form.
+     */
     public JSONObject toJson() {
+        return toJson(_entryKeys);
+    }
+
+    /**
+     * Serializes the vault with the secrets of all entries in plain text, regardless of
+     * whether the vault has entry keys.
+     */
+    public JSONObject toPlainJson() {
+        return toJson(null);
+    }
+
+    private JSONObject toJson(EntryKeys keys) {
         try {
             JSONArray array = new JSONArray();
             for (VaultEntry e : _entries) {
-                array.put(e.toJson());
+                array.put(e.toJson(keys));
             }
 
             JSONObject obj = new JSONObject();
-            obj.put("version", VERSION);
+            if (keys != null) {
+                JSONObject keysObj = new JSONObject();
+                keysObj.put("salt", Hex.encode(keys.getSalt()));
+                obj.put("version", VERSION_ENTRY_KEYS);
+                obj.put("entry_keys", keysObj);
+            } else {
+                obj.put("version", VERSION);
+            }
             obj.put("entries", array);
             return obj;
         } catch (JSONException e) {
@@ -29,18 +62,23 @@ public class Vault {
     }
 
     public static Vault fromJson(JSONObject obj) throws VaultException {
+        return fromJson(obj, null);
+    }
+
+    /**
+     * Deserializes the vault. If the secrets of the entries are encrypted separately, the
+     * given master key is used to derive their keys. The secrets are not decrypted here.
+     */
+    public static Vault fromJson(JSONObject obj, MasterKey key) throws VaultException {
         Vault vault = new Vault();
         UUIDMap<VaultEntry> entries = vault.getEntries();
 
         try {
-            int ver = obj.getInt("version");
-            if (ver != VERSION) {
-                throw new VaultException("Unsupported version");
-            }
+            vault._entryKeys = readEntryKeys(obj, key);
 
             JSONArray array = obj.getJSONArray("entries");
             for (int i = 0; i < array.length(); i++) {
-                VaultEntry entry = VaultEntry.fromJson(array.getJSONObject(i));
+                VaultEntry entry = VaultEntry.fromJson(array.getJSONObject(i), vault._entryKeys);
                 entries.add(entry);
             }
         } catch (EncodingException | OtpInfoException | JSONException e) {
@@ -50,7 +88,63 @@ public class Vault {
         return vault;
     }
 
+    /**
+     * Returns the entry keys of the given serialized vault, derived from the given master
+     * key, or null if the vault doesn't encrypt the secrets of its entries separately.
+     */
+    public static EntryKeys readEntryKeys(JSONObject obj, MasterKey key) throws VaultException {
+        try {
+            int ver = obj.getInt("version");
+            if (ver == VERSION) {
+                return null;
+            }
+            if (ver != VERSION_ENTRY_KEYS) {
+                throw new VaultException("Unsupported version");
+            }
+
+            if (key == null) {
+                throw new VaultException("The entries of the vault are encrypted, but no key was given");
+            }
+
+            byte[] salt = Hex.decode(obj.getJSONObject("entry_keys").getString("salt"));
+            return new EntryKeys(key, salt);
+        } catch (EncodingException | JSONException e) {
+            throw new VaultException(e);
+        }
+    }
+
+    /**
+     * Encrypts the secrets of all entries with their own keys, so that the plaintext
+     * secrets no longer have to be kept in memory. Secrets that were already sealed with
+     * the entry keys of this vault are left alone.
+     */
+    public void sealSecrets() throws VaultException {
+        if (_entryKeys == null) {
+            return;
+        }
+
+        try {
+            for (VaultEntry entry : _entries) {
+                entry.sealSecret(_entryKeys);
+            }
+        } catch (MasterKeyException e) {
+            throw new VaultException(e);
+        }
+    }
+
     public UUIDMap<VaultEntry> getEntries() {
         return _entries;
     }
+
+    public EntryKeys getEntryKeys() {
+        return _entryKeys;
+    }
+
+    /**
+     * Sets the keys that the secrets of the entries are encrypted with. If keys is null,
+     * the secrets are stored in plain text as part of the vault.
+     */
+    public void setEntryKeys(EntryKeys keys) {
+        _entryKeys = keys;
+    }
 }
@@ -1,20 +1,24 @@
 package com.beemdevelopment.aegis.vault;
 
+import android.content.ContentResolver;
 import android.content.Context;
 import android.content.UriPermission;
+import android.database.Cursor;
 import android.net.Uri;
+import android.provider.DocumentsContract;
 import android.text.TextUtils;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
-import androidx.documentfile.provider.DocumentFile;
 
 import com.beemdevelopment.aegis.Preferences;
 import com.beemdevelopment.aegis.util.IOUtils;
 
-import java.io.File;
-import java.io.FileInputStream;
+import org.json.JSONObject;
+
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.text.ParseException;
 import java.text.ParsePosition;
@@ -22,86 +26,322 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
-import java.util.concurrent.ExecutorService;
+import java.util.Set;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 public class VaultBackupManager {
     private static final String TAG = VaultBackupManager.class.getSimpleName();
 
-    private static final StrictDateFormat _dateFormat =
-            new StrictDateFormat("yyyyMMdd-HHmmss", Locale.ENGLISH);
+    // SimpleDateFormat isn't thread-safe, and filenames are parsed both on the thread of the
+    // executor and on the threads that list and restore backups
+    private static final ThreadLocal<StrictDateFormat> _dateFormat = new ThreadLocal<StrictDateFormat>() {
+        @Override
+        protected StrictDateFormat initialValue() {
+            return new StrictDateFormat("yyyyMMdd-HHmmss", Locale.ENGLISH);
+        }
+    };
 
     public static final String FILENAME_PREFIX = "aegis-backup";
+    public static final String FILENAME_PREFIX_DELTA = "aegis-backup-delta";
+
+    // the amount of time that has to pass without the vault being saved before a backup is created
+    private static final long QUIET_PERIOD = 10;
+
+    // the maximum number of incremental backups that follow a full backup
+    public static final int MAX_CHAIN_LENGTH = 30;
 
     private final Context _context;
     private final Preferences _prefs;
-    private final ExecutorService _executor;
+    private final ScheduledExecutorService _executor;
+
+    private PendingBackup _pending;
+
+    // only accessed from the thread of the executor
+    private BackupIndex _index;
+    // only hashes of the entries in the latest backup, so that no secrets linger in memory
+    private VaultDelta.Snapshot _latestState;
+    private String _latestStateFilename;
 
     public VaultBackupManager(Context context) {
         _context = context;
         _prefs = new Preferences(context);
-        _executor = Executors.newSingleThreadExecutor();
+        _executor = Executors.newSingleThreadScheduledExecutor();
     }
 
-    public void destroy() {
+    public synchronized void destroy() {
+        // don't let a backup that is still waiting for the quiet period to pass get lost
+        flushPendingBackup();
+
+        // don't keep the contents of the vault around after it has been locked
+        _executor.execute(() -> {
+            _latestState = null;
+            _latestStateFilename = null;
+        });
+
         Log.i(TAG, "Shutting down backup manager thread");
         _executor.shutdown();
     }
 
-    public void scheduleBackup(File tempFile, Uri dirUri, int versionsToKeep) {
-        _executor.execute(() -> {
-            try {
-                createBackup(tempFile, dirUri, versionsToKeep);
-                _prefs.setBackupsError(null);
-            } catch (VaultManagerException e) {
-                e.printStackTrace();
-                _prefs.setBackupsError(e);
-            }
-        });
+    /**
+     * Schedules a backup of the given vault, which is encrypted with the given credentials
+     * if they're not null. Unless force is true, the backup is postponed until the vault
+     * hasn't been saved for a while, so that a burst of changes results in only one backup,
+     * and it is skipped altogether if the content hash is equal to the one of the latest
+     * backup.
+     */
+    public synchronized void scheduleBackup(JSONObject obj, VaultFileCredentials creds, String hash, Uri dirUri, int versionsToKeep, boolean force) {
+        if (_pending != null && _pending.getFuture().cancel(false)) {
+            Log.i(TAG, "Superseding pending backup");
+        }
+
+        PendingBackup backup = new PendingBackup(obj, creds, hash, dirUri, versionsToKeep, force);
+        backup.setFuture(_executor.schedule(backup::run, force ? 0 : QUIET_PERIOD, TimeUnit.SECONDS));
+        _pending = backup;
+    }
+
+    /**
+     * Starts the backup that is waiting for the quiet period to pass right away, if there
+     * is one. This is called when the app moves to the background, because the process may
+     * be killed before the quiet period has passed, which would lose the backup.
+     */
+    public synchronized void flushPendingBackup() {
+        if (_pending != null && _pending.getFuture().cancel(false)) {
+            Log.i(TAG, "Running pending backup without waiting for the quiet period");
+            _executor.execute(_pending::run);
+        }
+    }
+
+    private synchronized void onBackupStarted(PendingBackup backup) {
+        if (_pending == backup) {
+            _pending = null;
+        }
     }
 
-    private void createBackup(File tempFile, Uri dirUri, int versionsToKeep) throws VaultManagerException {
+    private void createBackup(JSONObject obj, VaultFileCredentials creds, String hash, Uri dirUri, int versionsToKeep, boolean force) throws VaultManagerException {
+        if (!force && hash != null && hash.equals(_prefs.getLatestBackupHash())) {
+            Log.i(TAG, String.format("Skipping backup, the vault hasn't changed since the backup of %s", _prefs.getLatestBackupTimestamp()));
+            return;
+        }
+
+        boolean incremental = _prefs.isBackupsIncrementalEnabled();
         FileInfo fileInfo = new FileInfo(FILENAME_PREFIX);
-        DocumentFile dir = DocumentFile.fromTreeUri(_context, dirUri);
+        BackupIndex index;
 
         try {
-            Log.i(TAG, String.format("Creating backup at %s: %s", Uri.decode(dir.getUri().toString()), fileInfo.toString()));
-
             if (!hasPermissionsAt(dirUri)) {
                 throw new VaultManagerException("No persisted URI permissions");
             }
 
+            index = getIndex(dirUri);
+
+            JSONObject content = obj;
+            if (incremental) {
+                VaultDelta delta = createDelta(index, obj, creds);
+                if (delta != null) {
+                    content = delta.toJson();
+                    fileInfo = new FileInfo(FILENAME_PREFIX_DELTA, fileInfo.getDate());
+                }
+            }
+
+            Log.i(TAG, String.format("Creating backup at %s: %s", Uri.decode(dirUri.toString()), fileInfo.toString()));
+
             // If we create a file with a name that already exists, SAF will append a number
             // to the filename and write to that instead. We can't overwrite existing files, so
             // just avoid that altogether by checking beforehand.
-            if (dir.findFile(fileInfo.toString()) != null) {
+            if (index.contains(fileInfo)) {
                 throw new VaultManagerException("Backup file already exists");
             }
 
-            DocumentFile file = dir.createFile("application/json", fileInfo.toString());
-            if (file == null) {
-                throw new VaultManagerException("createFile returned null");
+            byte[] bytes = VaultManager.toVaultFile(content, creds, _prefs.isBackupsCompressionEnabled()).toBytes();
+
+            ContentResolver resolver = _context.getContentResolver();
+            Uri fileUri;
+            try {
+                Uri parentUri = DocumentsContract.buildDocumentUriUsingTree(dirUri, DocumentsContract.getTreeDocumentId(dirUri));
+                fileUri = DocumentsContract.createDocument(resolver, parentUri, "application/json", fileInfo.toString());
+            } catch (FileNotFoundException | IllegalArgumentException | SecurityException e) {
+                throw new VaultManagerException(e);
+            }
+            if (fileUri == null) {
+                throw new VaultManagerException("createDocument returned null");
             }
 
-            try (FileInputStream inStream = new FileInputStream(tempFile);
-                 OutputStream outStream = _context.getContentResolver().openOutputStream(file.getUri())) {
-                IOUtils.copy(inStream, outStream);
+            try (OutputStream outStream = resolver.openOutputStream(fileUri)) {
+                outStream.write(bytes);
             } catch (IOException e) {
                 throw new VaultManagerException(e);
             }
+
+            index.add(new BackupFile(fileUri, fileInfo));
+            setLatestState(incremental ? obj : null, fileInfo.toString());
+            _prefs.setLatestBackup(hash, fileInfo.getDate());
         } catch (VaultManagerException e) {
             Log.e(TAG, String.format("Unable to create backup: %s", e.toString()));
+            // the directory may have been changed by someone else, so scan it again next time
+            _index = null;
+            _latestState = null;
+            _latestStateFilename = null;
             throw e;
-        } finally {
-            tempFile.delete();
         }
 
-        enforceVersioning(dir, versionsToKeep);
+        enforceVersioning(index, versionsToKeep, incremental);
+    }
+
+    /**
+     * Remembers the state of the vault in the latest backup for the next delta. If it
+     * can't be captured, the next delta replays the chain of backups instead.
+     */
+    private void setLatestState(JSONObject obj, String filename) {
+        _latestState = null;
+        _latestStateFilename = null;
+
+        if (obj != null) {
+            try {
+                _latestState = VaultDelta.Snapshot.of(obj);
+                _latestStateFilename = filename;
+            } catch (VaultException e) {
+                Log.e(TAG, String.format("Unable to capture the state of the latest backup: %s", e.toString()));
+            }
+        }
+    }
+
+    /**
+     * Returns the changes since the latest backup in the directory, or null if a full backup
+     * should be made instead. That's the case if there is no chain of backups to continue, if
+     * the chain has reached its maximum length or if the latest backup can't be read.
+     */
+    private VaultDelta createDelta(BackupIndex index, JSONObject obj, VaultFileCredentials creds) {
+        List<BackupFile> files = index.getFiles();
+        if (files.isEmpty()) {
+            return null;
+        }
+
+        BackupFile latestFile = files.get(files.size() - 1);
+        List<BackupFile> chain = index.getChain(latestFile);
+        if (chain.isEmpty() || chain.size() - 1 >= MAX_CHAIN_LENGTH) {
+            return null;
+        }
+
+        String latestFilename = latestFile.getInfo().toString();
+        try {
+            // the state of the latest backup is only known if this manager made that backup
+            if (_latestState == null || !latestFilename.equals(_latestStateFilename)) {
+                Log.i(TAG, String.format("Replaying %d backup files to continue the chain", chain.size()));
+                _latestState = VaultDelta.Snapshot.of(replay(chain, creds));
+                _latestStateFilename = latestFilename;
+            }
+
+            return VaultDelta.diff(latestFilename, _latestState, obj);
+        } catch (VaultManagerException | VaultException e) {
+            Log.e(TAG, String.format("Unable to continue the chain of backups, making a full backup instead: %s", e.toString()));
+            _latestState = null;
+            _latestStateFilename = null;
+            return null;
+        }
+    }
+
+    /**
+     * Reads the given chain of backup files, which starts with a full backup, and returns
+     * the state of the vault after applying all of the incremental backups in the chain.
+     */
+    private JSONObject replay(List<BackupFile> chain, VaultFileCredentials creds) throws VaultManagerException {
+        JSONObject state = null;
+        String parent = null;
+
+        try {
+            for (BackupFile file : chain) {
+                JSONObject content = readBackup(file, creds);
+                if (file.isDelta()) {
+                    VaultDelta delta = VaultDelta.fromJson(content);
+                    if (state == null || !delta.getParent().equals(parent)) {
+                        throw new VaultManagerException(String.format("The chain of backups is broken at %s", file.getInfo().toString()));
+                    }
+                    state = delta.apply(state);
+                } else {
+                    state = content;
+                }
+
+                parent = file.getInfo().toString();
+            }
+        } catch (VaultException e) {
+            throw new VaultManagerException(e);
+        }
+
+        if (state == null) {
+            throw new VaultManagerException("The chain of backups is empty");
+        }
+
+        return state;
+    }
+
+    private JSONObject readBackup(BackupFile file, VaultFileCredentials creds) throws VaultManagerException {
+        try (InputStream inStream = _context.getContentResolver().openInputStream(file.getUri())) {
+            if (inStream == null) {
+                throw new IOException(String.format("Unable to open %s", file.getInfo().toString()));
+            }
+
+            VaultFile vaultFile = VaultFile.fromBytes(IOUtils.readAll(inStream));
+            if (!vaultFile.isEncrypted()) {
+                return vaultFile.getContent();
+            }
+            if (creds == null) {
+                throw new VaultManagerException(String.format("%s is encrypted, but the vault is not", file.getInfo().toString()));
+            }
+
+            return vaultFile.getContent(creds);
+        } catch (IOException | VaultFileException | SecurityException e) {
+            throw new VaultManagerException(e);
+        }
+    }
+
+    /**
+     * Returns the backup files in the given directory that the vault can be restored from,
+     * sorted from oldest to newest. This does not use the cached index, so it's safe to call
+     * from any thread.
+     */
+    public List<BackupFile> getRestorePoints(Uri dirUri) throws VaultManagerException {
+        BackupIndex index = scanDirectory(dirUri);
+
+        List<BackupFile> files = new ArrayList<>();
+        for (BackupFile file : index.getFiles()) {
+            if (!index.getChain(file).isEmpty()) {
+                files.add(file);
+            }
+        }
+
+        return files;
+    }
+
+    /**
+     * Restores the state of the vault at the time the given backup was made. If the backup
+     * is incremental, the chain of backups that it is a part of is replayed up to and
+     * including the given backup. This does not use the cached index, so it's safe to call
+     * from any thread.
+     */
+    public JSONObject restore(Uri dirUri, BackupFile file, VaultFileCredentials creds) throws VaultManagerException {
+        BackupIndex index = scanDirectory(dirUri);
+        BackupFile indexedFile = index.find(file.getInfo());
+        if (indexedFile == null) {
+            throw new VaultManagerException(String.format("Backup file not found: %s", file.getInfo().toString()));
+        }
+
+        List<BackupFile> chain = index.getChain(indexedFile);
+        if (chain.isEmpty()) {
+            throw new VaultManagerException(String.format("No full backup found for %s", file.getInfo().toString()));
+        }
+
+        Log.i(TAG, String.format("Restoring %s from %d backup files", file.getInfo().toString(), chain.size()));
+        return replay(chain, creds);
     }
 
     public boolean hasPermissionsAt(Uri uri) {
@@ -114,28 +354,156 @@ public class VaultBackupManager {
         return false;
     }
 
-    private void enforceVersioning(DocumentFile dir, int versionsToKeep) {
-        Log.i(TAG, String.format("Scanning directory %s for backup files", Uri.decode(dir.getUri().toString())));
+    /**
+     * Returns the index of the backup files in the given directory. The index is kept
+     * around between backups, so that the directory only has to be scanned again if the
+     * location changes or if something goes wrong.
+     */
+    private BackupIndex getIndex(Uri dirUri) throws VaultManagerException {
+        if (_index == null || !_index.getDirUri().equals(dirUri)) {
+            _index = scanDirectory(dirUri);
+        }
+
+        return _index;
+    }
+
+    private BackupIndex scanDirectory(Uri dirUri) throws VaultManagerException {
+        Log.i(TAG, String.format("Scanning directory %s for backup files", Uri.decode(dirUri.toString())));
+
+        // retrieve everything we need to know about the files in the directory with a single query,
+        // instead of letting DocumentFile query the provider for every file and every property
+        Uri childrenUri = DocumentsContract.buildChildDocumentsUriUsingTree(dirUri, DocumentsContract.getTreeDocumentId(dirUri));
+        String[] projection = {
+                DocumentsContract.Document.COLUMN_DOCUMENT_ID,
+                DocumentsContract.Document.COLUMN_DISPLAY_NAME,
+                DocumentsContract.Document.COLUMN_MIME_TYPE,
+                DocumentsContract.Document.COLUMN_FLAGS
+        };
 
         List<BackupFile> files = new ArrayList<>();
-        for (DocumentFile docFile : dir.listFiles()) {
-            if (docFile.isFile() && !docFile.isVirtual()) {
+        try (Cursor cursor = _context.getContentResolver().query(childrenUri, projection, null, null, null)) {
+            if (cursor == null) {
+                throw new VaultManagerException("Unable to query the backup directory");
+            }
+
+            while (cursor.moveToNext()) {
+                String mimeType = cursor.getString(2);
+                int flags = cursor.getInt(3);
+                if (TextUtils.isEmpty(mimeType)
+                        || mimeType.equals(DocumentsContract.Document.MIME_TYPE_DIR)
+                        || (flags & DocumentsContract.Document.FLAG_VIRTUAL_DOCUMENT) != 0) {
+                    continue;
+                }
+
                 try {
-                    files.add(new BackupFile(docFile));
+                    FileInfo info = FileInfo.parseFilename(cursor.getString(1));
+                    Uri fileUri = DocumentsContract.buildDocumentUriUsingTree(dirUri, cursor.getString(0));
+                    files.add(new BackupFile(fileUri, info));
                 } catch (ParseException ignored) { }
             }
+        } catch (IllegalArgumentException | SecurityException e) {
+            throw new VaultManagerException(e);
         }
 
-        Log.i(TAG, String.format("Found %d backup files, keeping the %d most recent", files.size(), versionsToKeep));
+        return new BackupIndex(dirUri, files);
+    }
 
-        Collections.sort(files, new FileComparator());
-        if (files.size() > versionsToKeep) {
-            for (BackupFile file : files.subList(0, files.size() - versionsToKeep)) {
-                Log.i(TAG, String.format("Deleting %s", file.getFile().getName()));
-                if (!file.getFile().delete()) {
-                    Log.e(TAG, String.format("Unable to delete %s", file.getFile().getName()));
+    /**
+     * Deletes the oldest backups in the directory. If incremental is true, versionsToKeep is
+     * the number of full backups to keep, along with the incremental backups that follow them.
+     * Otherwise, it's the number of backup files to keep. Incremental backups are never
+     * separated from the full backup they're based on.
+     */
+    private void enforceVersioning(BackupIndex index, int versionsToKeep, boolean incremental) {
+        List<BackupFile> files = index.getFiles();
+        Log.i(TAG, String.format("Found %d backup files, keeping the %d most recent %s", files.size(), versionsToKeep, incremental ? "chains" : "versions"));
+
+        int cutoff = 0;
+        if (incremental) {
+            int fullBackups = 0;
+            for (int i = files.size() - 1; i >= 0 && fullBackups < versionsToKeep; i--) {
+                if (!files.get(i).isDelta()) {
+                    fullBackups++;
+                    cutoff = i;
                 }
             }
+        } else {
+            cutoff = Math.max(0, files.size() - versionsToKeep);
+        }
+
+        while (cutoff > 0 && files.get(cutoff).isDelta()) {
+            cutoff--;
+        }
+
+        List<BackupFile> oldFiles = new ArrayList<>(files.subList(0, cutoff));
+        // incremental backups that don't follow a full backup can't be restored
+        for (int i = cutoff; i < files.size() && files.get(i).isDelta(); i++) {
+            oldFiles.add(files.get(i));
+        }
+
+        if (oldFiles.isEmpty()) {
+            return;
+        }
+
+        List<BackupFile> deletedFiles = new ArrayList<>(oldFiles.size());
+        ContentResolver resolver = _context.getContentResolver();
+        for (BackupFile file : oldFiles) {
+            String filename = file.getInfo().toString();
+            Log.i(TAG, String.format("Deleting %s", filename));
+
+            try {
+                if (DocumentsContract.deleteDocument(resolver, file.getUri())) {
+                    deletedFiles.add(file);
+                    continue;
+                }
+            } catch (FileNotFoundException | IllegalArgumentException | SecurityException ignored) { }
+
+            Log.e(TAG, String.format("Unable to delete %s", filename));
+        }
+
+        index.removeAll(deletedFiles);
+        if (deletedFiles.size() != oldFiles.size()) {
+            // the index no longer reflects the directory accurately, so scan it again next time
+            _index = null;
+        }
+    }
+
+    private class PendingBackup {
+        private final JSONObject _obj;
+        private final VaultFileCredentials _creds;
+        private final String _hash;
+        private final Uri _dirUri;
+        private final int _versionsToKeep;
+        private final boolean _force;
+        private ScheduledFuture<?> _future;
+
+        public PendingBackup(JSONObject obj, VaultFileCredentials creds, String hash, Uri dirUri, int versionsToKeep, boolean force) {
+            _obj = obj;
+            _creds = creds;
+            _hash = hash;
+            _dirUri = dirUri;
+            _versionsToKeep = versionsToKeep;
+            _force = force;
+        }
+
+        public void run() {
+            onBackupStarted(this);
+
+            try {
+                createBackup(_obj, _creds, _hash, _dirUri, _versionsToKeep, _force);
+                _prefs.setBackupsError(null);
+            } catch (VaultManagerException e) {
+                e.printStackTrace();
+                _prefs.setBackupsError(e);
+            }
+        }
+
+        public ScheduledFuture<?> getFuture() {
+            return _future;
+        }
+
+        public void setFuture(ScheduledFuture<?> future) {
+            _future = future;
         }
     }
 
@@ -180,11 +548,11 @@ public class VaultBackupManager {
             }
 
             filename = TextUtils.join(delim, Arrays.copyOf(parts, parts.length - 2));
-            if (!filename.equals(FILENAME_PREFIX)) {
+            if (!filename.equals(FILENAME_PREFIX) && !filename.equals(FILENAME_PREFIX_DELTA)) {
                 throwBadFormat(filename);
             }
 
-            Date date = _dateFormat.parse(parts[parts.length - 2] + delim + parts[parts.length - 1]);
+            Date date = _dateFormat.get().parse(parts[parts.length - 2] + delim + parts[parts.length - 1]);
             if (date == null) {
                 throwBadFormat(filename);
             }
@@ -211,26 +579,99 @@ public class VaultBackupManager {
         @NonNull
         @Override
         public String toString() {
-            return String.format("%s-%s.%s", _filename, _dateFormat.format(_date), _ext);
+            return String.format("%s-%s.%s", _filename, _dateFormat.get().format(_date), _ext);
+        }
+    }
+
+    private static class BackupIndex {
+        private final Uri _dirUri;
+        private final List<BackupFile> _files;
+        private final Set<String> _filenames = new HashSet<>();
+
+        public BackupIndex(Uri dirUri, List<BackupFile> files) {
+            _dirUri = dirUri;
+            _files = files;
+            Collections.sort(_files, new FileComparator());
+            for (BackupFile file : files) {
+                _filenames.add(file.getInfo().toString());
+            }
+        }
+
+        public Uri getDirUri() {
+            return _dirUri;
+        }
+
+        /**
+         * Returns the backup files in the directory, sorted from oldest to newest.
+         */
+        public List<BackupFile> getFiles() {
+            return Collections.unmodifiableList(_files);
+        }
+
+        public boolean contains(FileInfo info) {
+            return _filenames.contains(info.toString());
+        }
+
+        public BackupFile find(FileInfo info) {
+            for (BackupFile file : _files) {
+                if (file.getInfo().toString().equals(info.toString())) {
+                    return file;
+                }
+            }
+
+            return null;
+        }
+
+        /**
+         * Returns the chain of backup files needed to restore the given file: the most recent
+         * full backup that precedes it, followed by all incremental backups up to and including
+         * the given file. Returns an empty list if there is no such full backup.
+         */
+        public List<BackupFile> getChain(BackupFile file) {
+            int end = _files.indexOf(file);
+            for (int i = end; i >= 0; i--) {
+                if (!_files.get(i).isDelta()) {
+                    return new ArrayList<>(_files.subList(i, end + 1));
+                }
+            }
+
+            return Collections.emptyList();
+        }
+
+        public void add(BackupFile file) {
+            _files.add(file);
+            _filenames.add(file.getInfo().toString());
+            Collections.sort(_files, new FileComparator());
+        }
+
+        public void removeAll(Collection<BackupFile> files) {
+            _files.removeAll(files);
+            for (BackupFile file : files) {
+                _filenames.remove(file.getInfo().toString());
+            }
         }
     }
 
-    private static class BackupFile {
-        private DocumentFile _file;
-        private FileInfo _info;
+    public static class BackupFile {
+        private final Uri _uri;
+        private final FileInfo _info;
 
-        public BackupFile(DocumentFile file) throws ParseException {
-            _file = file;
-            _info = FileInfo.parseFilename(file.getName());
+        public BackupFile(Uri uri, FileInfo info) {
+            _uri = uri;
+            _info = info;
         }
 
-        public DocumentFile getFile() {
-            return _file;
+        public Uri getUri() {
+            return _uri;
         }
 
         public FileInfo getInfo() {
             return _info;
         }
+
+        public boolean isDelta() {
+            return _info.getFilename().equals(FILENAME_PREFIX_DELTA);
+        }
     }
 
     private static class FileComparator implements Comparator<BackupFile> {
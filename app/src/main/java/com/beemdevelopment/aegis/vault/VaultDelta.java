@@ -0,0 +1,267 @@
+package com.beemdevelopment.aegis.vault;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A set of changes between two versions of the vault, keyed by the UUID of the entries.
+ * Incremental backups consist of a full copy of the vault, followed by a chain of deltas
+ * that each refer to the backup that came before them.
+ */
+public class VaultDelta {
+    private static final int VERSION = 1;
+
+    private final String _parent;
+    private final List<JSONObject> _entries;
+    private final List<String> _removed;
+    private final List<String> _order;
+
+    private VaultDelta(String parent, List<JSONObject> entries, List<String> removed, List<String> order) {
+        _parent = parent;
+        _entries = entries;
+        _removed = removed;
+        _order = order;
+    }
+
+    /**
+     * Returns the changes that turn the vault 'from' into the vault 'to', or null if the
+     * two vaults can't be compared because anything other than their entries differs,
+     * like their version or entry keys. The name of the backup
+     * that 'from' was read from is recorded as the parent of the delta.
+     */
+    public static VaultDelta diff(String parent, JSONObject from, JSONObject to) throws VaultException {
+        return diff(parent, Snapshot.of(from), to);
+    }
+
+    /**
+     * Returns the changes that turn the vault the given snapshot was taken of into the
+     * vault 'to', or null if the two vaults can't be compared. See the other overload.
+     */
+    public static VaultDelta diff(String parent, Snapshot from, JSONObject to) throws VaultException {
+        try {
+            if (!Arrays.equals(from._header, hash(getHeader(to)))) {
+                return null;
+            }
+
+            Map<String, byte[]> oldEntries = from._entries;
+            Map<String, JSONObject> newEntries = getEntries(to);
+
+            List<String> removed = new ArrayList<>();
+            List<String> order = new ArrayList<>();
+            for (String uuid : oldEntries.keySet()) {
+                if (newEntries.containsKey(uuid)) {
+                    order.add(uuid);
+                } else {
+                    removed.add(uuid);
+                }
+            }
+
+            List<JSONObject> entries = new ArrayList<>();
+            for (Map.Entry<String, JSONObject> entry : newEntries.entrySet()) {
+                byte[] oldHash = oldEntries.get(entry.getKey());
+                if (oldHash == null) {
+                    order.add(entry.getKey());
+                }
+                if (oldHash == null || !Arrays.equals(oldHash, hash(entry.getValue()))) {
+                    entries.add(entry.getValue());
+                }
+            }
+
+            // only record the order of the entries if applying the delta wouldn't reproduce it
+            List<String> newOrder = new ArrayList<>(newEntries.keySet());
+            return new VaultDelta(parent, entries, removed, order.equals(newOrder) ? null : newOrder);
+        } catch (JSONException e) {
+            throw new VaultException(e);
+        }
+    }
+
+    /**
+     * Applies this delta to the given vault and returns the result. Changed entries keep
+     * their position, new entries are appended, unless the delta records a new order.
+     */
+    public JSONObject apply(JSONObject base) throws VaultException {
+        try {
+            Map<String, JSONObject> entries = getEntries(base);
+            for (String uuid : _removed) {
+                if (entries.remove(uuid) == null) {
+                    throw new VaultException(String.format("Removed entry not found: %s", uuid));
+                }
+            }
+
+            for (JSONObject entry : _entries) {
+                entries.put(entry.getString("uuid"), entry);
+            }
+
+            JSONArray array = new JSONArray();
+            if (_order != null) {
+                if (_order.size() != entries.size()) {
+                    throw new VaultException("The order of the entries doesn't match the vault");
+                }
+
+                for (String uuid : _order) {
+                    JSONObject entry = entries.get(uuid);
+                    if (entry == null) {
+                        throw new VaultException(String.format("Ordered entry not found: %s", uuid));
+                    }
+                    array.put(entry);
+                }
+            } else {
+                for (JSONObject entry : entries.values()) {
+                    array.put(entry);
+                }
+            }
+
+            JSONObject obj = getHeader(base);
+            obj.put("entries", array);
+            return obj;
+        } catch (JSONException e) {
+            throw new VaultException(e);
+        }
+    }
+
+    public JSONObject toJson() {
+        try {
+            JSONArray entries = new JSONArray();
+            for (JSONObject entry : _entries) {
+                entries.put(entry);
+            }
+
+            JSONObject obj = new JSONObject();
+            obj.put("version", VERSION);
+            obj.put("parent", _parent);
+            obj.put("entries", entries);
+            obj.put("removed", new JSONArray(_removed));
+            obj.put("order", _order != null ? new JSONArray(_order) : JSONObject.NULL);
+            return obj;
+        } catch (JSONException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static VaultDelta fromJson(JSONObject obj) throws VaultException {
+        try {
+            if (obj.getInt("version") != VERSION) {
+                throw new VaultException("Unsupported version");
+            }
+
+            List<JSONObject> entries = new ArrayList<>();
+            JSONArray array = obj.getJSONArray("entries");
+            for (int i = 0; i < array.length(); i++) {
+                entries.add(array.getJSONObject(i));
+            }
+
+            List<String> order = null;
+            if (!obj.isNull("order")) {
+                order = getStrings(obj.getJSONArray("order"));
+            }
+
+            return new VaultDelta(obj.getString("parent"), entries, getStrings(obj.getJSONArray("removed")), order);
+        } catch (JSONException e) {
+            throw new VaultException(e);
+        }
+    }
+
+    /**
+     * Reports whether the given JSON object is a delta, rather than a full copy of the vault.
+     */
+    public static boolean isDelta(JSONObject obj) {
+        return obj.has("parent");
+    }
+
+    public String getParent() {
+        return _parent;
+    }
+
+    public List<JSONObject> getEntries() {
+        return _entries;
+    }
+
+    public List<String> getRemoved() {
+        return _removed;
+    }
+
+    /**
+     * Returns a copy of the given vault without its entries.
+     */
+    private static JSONObject getHeader(JSONObject vault) throws JSONException {
+        JSONObject header = new JSONObject();
+        Iterator<String> keys = vault.keys();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            if (!key.equals("entries")) {
+                header.put(key, vault.get(key));
+            }
+        }
+
+        return header;
+    }
+
+    private static Map<String, JSONObject> getEntries(JSONObject vault) throws JSONException {
+        JSONArray array = vault.getJSONArray("entries");
+        Map<String, JSONObject> entries = new LinkedHashMap<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            JSONObject entry = array.getJSONObject(i);
+            entries.put(entry.getString("uuid"), entry);
+        }
+
+        return entries;
+    }
+
+    private static byte[] hash(JSONObject obj) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return digest.digest(obj.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static List<String> getStrings(JSONArray array) throws JSONException {
+        List<String> strings = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            strings.add(array.getString(i));
+        }
+
+        return strings;
+    }
+
+    /**
+     * What's needed of a version of the vault to compute a delta against it later: the
+     * order of its entries and a hash of each of them. Unlike the vault itself, this
+     * doesn't contain any secrets, so it can be kept in memory between backups.
+     */
+    public static class Snapshot {
+        private final byte[] _header;
+        private final Map<String, byte[]> _entries;
+
+        private Snapshot(byte[] header, Map<String, byte[]> entries) {
+            _header = header;
+            _entries = entries;
+        }
+
+        public static Snapshot of(JSONObject vault) throws VaultException {
+            try {
+                Map<String, JSONObject> entries = getEntries(vault);
+                Map<String, byte[]> hashes = new LinkedHashMap<>(entries.size());
+                for (Map.Entry<String, JSONObject> entry : entries.entrySet()) {
+                    hashes.put(entry.getKey(), hash(entry.getValue()));
+                }
+
+                return new Snapshot(hash(getHeader(vault)), hashes);
+            } catch (JSONException e) {
+                throw new VaultException(e);
+            }
+        }
+    }
+}
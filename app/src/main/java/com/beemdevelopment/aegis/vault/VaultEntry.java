@@ -1,5 +1,7 @@
 package com.beemdevelopment.aegis.vault;
 
+import com.beemdevelopment.aegis.crypto.EntryKeys;
+import com.beemdevelopment.aegis.crypto.MasterKeyException;
 import com.beemdevelopment.aegis.encoding.Base64;
 import com.beemdevelopment.aegis.encoding.EncodingException;
 import com.beemdevelopment.aegis.otp.GoogleAuthInfo;
@@ -11,6 +13,8 @@ import com.beemdevelopment.aegis.util.UUIDMap;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.text.CollationKey;
+import java.text.Collator;
 import java.util.Arrays;
 import java.util.Objects;
 import java.util.UUID;
@@ -20,7 +24,15 @@ public class VaultEntry extends UUIDMap.Value {
     private String _issuer = "";
     private String _group;
     private OtpInfo _info;
-    private byte[] _icon;
+    // the icon is kept in the form it's stored in the vault and only decoded when it's
+    // needed, so that loading a vault doesn't decode every icon. It takes about a third
+    // more memory than the decoded bytes would.
+    private String _icon;
+
+    // the keys to sort by are computed once per collator, instead of on every comparison
+    private transient Collator _sortCollator;
+    private transient CollationKey _nameSortKey;
+    private transient CollationKey _issuerSortKey;
 
     private VaultEntry(UUID uuid, OtpInfo info) {
         super(uuid);
@@ -49,7 +61,25 @@ public class VaultEntry extends UUIDMap.Value {
         this(info.getOtpInfo(), info.getAccountName(), info.getIssuer());
     }
 
+    /**
+     * Creates a deep copy of the given entry. The copy keeps the UUID of the original.
+     */
+    public VaultEntry(VaultEntry entry) {
+        this(entry.getUUID(), entry.getInfo().copy());
+        _name = entry._name;
+        _issuer = entry._issuer;
+        _group = entry._group;
+        _icon = entry._icon;
+    }
+
     public JSONObject toJson() {
+        return toJson(null);
+    }
+
+    /**
+     * Serializes this entry. If keys is not null, the secret is written in its encrypted form.
+     */
+    public JSONObject toJson(EntryKeys keys) {
         JSONObject obj = new JSONObject();
 
         try {
@@ -58,8 +88,8 @@ public class VaultEntry extends UUIDMap.Value {
             obj.put("name", _name);
             obj.put("issuer", _issuer);
             obj.put("group", _group);
-            obj.put("icon", _icon == null ? JSONObject.NULL : Base64.encode(_icon));
-            obj.put("info", _info.toJson());
+            obj.put("icon", _icon == null ? JSONObject.NULL : _icon);
+            obj.put("info", _info.toJson(keys, getUUID()));
         } catch (JSONException e) {
             throw new RuntimeException(e);
         }
@@ -68,6 +98,14 @@ public class VaultEntry extends UUIDMap.Value {
     }
 
     public static VaultEntry fromJson(JSONObject obj) throws JSONException, OtpInfoException, EncodingException {
+        return fromJson(obj, null);
+    }
+
+    /**
+     * Deserializes an entry. An encrypted secret is left encrypted until it's needed, so
+     * keys must be given if the secret of the entry was encrypted.
+     */
+    public static VaultEntry fromJson(JSONObject obj, EntryKeys keys) throws JSONException, OtpInfoException, EncodingException {
         // if there is no uuid, generate a new one
         UUID uuid;
         if (!obj.has("uuid")) {
@@ -76,7 +114,7 @@ public class VaultEntry extends UUIDMap.Value {
             uuid = UUID.fromString(obj.getString("uuid"));
         }
 
-        OtpInfo info = OtpInfo.fromJson(obj.getString("type"), obj.getJSONObject("info"));
+        OtpInfo info = OtpInfo.fromJson(obj.getString("type"), obj.getJSONObject("info"), keys, uuid);
         VaultEntry entry = new VaultEntry(uuid, info);
         entry.setName(obj.getString("name"));
         entry.setIssuer(obj.getString("issuer"));
@@ -84,12 +122,21 @@ public class VaultEntry extends UUIDMap.Value {
 
         Object icon = obj.get("icon");
         if (icon != JSONObject.NULL) {
-            entry.setIcon(Base64.decode((String) icon));
+            // make sure that the icon is valid, without decoding it
+            Base64.check((String) icon);
+            entry._icon = (String) icon;
         }
 
         return entry;
     }
 
+    /**
+     * Encrypts the secret of this entry with its own key and drops the plaintext copy of it.
+     */
+    public void sealSecret(EntryKeys keys) throws MasterKeyException {
+        _info.seal(keys, getUUID());
+    }
+
     public String getName() {
         return _name;
     }
@@ -102,20 +149,83 @@ public class VaultEntry extends UUIDMap.Value {
         return _group;
     }
 
+    /**
+     * Returns the icon of this entry. The icon is decoded on every call and the decoded
+     * bytes are not retained, so callers get their own copy.
+     */
     public byte[] getIcon() {
-        return _icon;
+        if (_icon == null) {
+            return null;
+        }
+
+        try {
+            return Base64.decode(_icon);
+        } catch (EncodingException e) {
+            // the icon is checked when it's read from the vault, so this can't happen
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Returns the size of the icon of this entry in bytes, or 0 if it doesn't have one. The
+     * icon is not decoded for this.
+     */
+    public int getIconSize() {
+        if (_icon == null) {
+            return 0;
+        }
+
+        try {
+            return Base64.getDecodedLength(_icon);
+        } catch (EncodingException e) {
+            throw new RuntimeException(e);
+        }
     }
 
     public OtpInfo getInfo() {
         return _info;
     }
 
+    /**
+     * Returns the key to sort this entry by its name with, using the given collator. The
+     * key is reused until the name changes or a different collator is passed.
+     */
+    public CollationKey getNameSortKey(Collator collator) {
+        checkSortCollator(collator);
+        if (_nameSortKey == null) {
+            _nameSortKey = collator.getCollationKey(_name);
+        }
+        return _nameSortKey;
+    }
+
+    /**
+     * Returns the key to sort this entry by its issuer with, using the given collator. The
+     * key is reused until the issuer changes or a different collator is passed.
+     */
+    public CollationKey getIssuerSortKey(Collator collator) {
+        checkSortCollator(collator);
+        if (_issuerSortKey == null) {
+            _issuerSortKey = collator.getCollationKey(_issuer);
+        }
+        return _issuerSortKey;
+    }
+
+    private void checkSortCollator(Collator collator) {
+        if (_sortCollator != collator) {
+            _sortCollator = collator;
+            _nameSortKey = null;
+            _issuerSortKey = null;
+        }
+    }
+
     public void setName(String name) {
         _name = name;
+        _nameSortKey = null;
     }
 
     public void setIssuer(String issuer) {
         _issuer = issuer;
+        _issuerSortKey = null;
     }
 
     public void setGroup(String group) {
@@ -127,7 +237,7 @@ public class VaultEntry extends UUIDMap.Value {
     }
 
     public void setIcon(byte[] icon) {
-        _icon = icon;
+        _icon = icon == null ? null : Base64.encode(icon);
     }
 
     public boolean hasIcon() {
@@ -154,7 +264,16 @@ public class VaultEntry extends UUIDMap.Value {
                 && getIssuer().equals(entry.getIssuer())
                 && Objects.equals(getGroup(), entry.getGroup())
                 && getInfo().equals(entry.getInfo())
-                && Arrays.equals(getIcon(), entry.getIcon());
+                && hasSameIcon(entry);
+    }
+
+    private boolean hasSameIcon(VaultEntry entry) {
+        if (Objects.equals(_icon, entry._icon)) {
+            return true;
+        }
+
+        // the same icon can be encoded differently if it was read from another vault file
+        return _icon != null && entry._icon != null && Arrays.equals(getIcon(), entry.getIcon());
     }
 
     /**
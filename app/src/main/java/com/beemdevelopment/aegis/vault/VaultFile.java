@@ -5,16 +5,34 @@ import com.beemdevelopment.aegis.crypto.CryptResult;
 import com.beemdevelopment.aegis.crypto.MasterKeyException;
 import com.beemdevelopment.aegis.encoding.Base64;
 import com.beemdevelopment.aegis.encoding.EncodingException;
+import com.beemdevelopment.aegis.util.JsonUtils;
 import com.beemdevelopment.aegis.vault.slots.SlotList;
 import com.beemdevelopment.aegis.vault.slots.SlotListException;
 
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
 public class VaultFile {
-    public static final byte VERSION = 1;
+    public static final byte VERSION = 2;
+
+    // files without compression are still written as version 1, so that older versions can read them
+    private static final byte VERSION_UNCOMPRESSED = 1;
+
+    public static final String COMPRESSION_DEFLATE = "deflate";
+
+    // deflate can reach ratios of about 1000:1, so a small crafted file could otherwise expand
+    // to more than fits in memory before anything about it has been checked. Real vaults don't
+    // come anywhere near this ratio, because most of a large vault consists of icons.
+    private static final int MAX_COMPRESSION_RATIO = 100;
+    private static final int MIN_DECOMPRESSED_LIMIT = 16 * 1024 * 1024;
 
     private Object _content;
     private Header _header;
@@ -39,11 +57,18 @@ public class VaultFile {
     public JSONObject toJson() {
         try {
             JSONObject obj = new JSONObject();
-            obj.put("version", VERSION);
+            obj.put("version", _header.isCompressed() ? VERSION : VERSION_UNCOMPRESSED);
             obj.put("header", _header.toJson());
-            obj.put("db", _content);
+
+            // the content of encrypted files is compressed before it is encrypted
+            if (_header.isCompressed() && !isEncrypted()) {
+                byte[] bytes = _content.toString().getBytes(StandardCharsets.UTF_8);
+                obj.put("db", Base64.encode(compress(bytes)));
+            } else {
+                obj.put("db", _content);
+            }
             return obj;
-        } catch (JSONException e) {
+        } catch (JSONException | IOException e) {
             throw new RuntimeException(e);
         }
     }
@@ -70,8 +95,13 @@ public class VaultFile {
                 return new VaultFile(obj.getString("db"), header);
             }
 
+            if (header.isCompressed()) {
+                byte[] bytes = decompress(Base64.decode(obj.getString("db")));
+                return new VaultFile(new JSONObject(new String(bytes, StandardCharsets.UTF_8)), header);
+            }
+
             return new VaultFile(obj.getJSONObject("db"), header);
-        } catch (JSONException e) {
+        } catch (JSONException | IOException e) {
             throw new VaultFileException(e);
         }
     }
@@ -93,48 +123,111 @@ public class VaultFile {
         try {
             byte[] bytes = Base64.decode((String) _content);
             CryptResult result = creds.decrypt(bytes, _header.getParams());
-            return new JSONObject(new String(result.getData(), StandardCharsets.UTF_8));
-        } catch (MasterKeyException | JSONException | EncodingException e) {
+            byte[] vaultBytes = result.getData();
+            if (_header.isCompressed()) {
+                vaultBytes = decompress(vaultBytes);
+            }
+            return new JSONObject(new String(vaultBytes, StandardCharsets.UTF_8));
+        } catch (MasterKeyException | JSONException | IOException e) {
             throw new VaultFileException(e);
         }
     }
 
     public void setContent(JSONObject obj) {
+        setContent(obj, false);
+    }
+
+    /**
+     * Sets the content of the file to the given vault. If compress is true, the vault is
+     * compressed with deflate when the file is serialized.
+     */
+    public void setContent(JSONObject obj, boolean compress) {
         _content = obj;
-        _header = new Header(null, null);
+        _header = new Header(null, null, compress ? COMPRESSION_DEFLATE : null);
     }
 
     public void setContent(JSONObject obj, VaultFileCredentials creds) throws VaultFileException {
+        setContent(obj, creds, false);
+    }
+
+    /**
+     * Sets the content of the file to the given vault, encrypted with the given credentials.
+     * If compress is true, the vault is compressed with deflate before it is encrypted.
+     */
+    public void setContent(JSONObject obj, VaultFileCredentials creds, boolean compress) throws VaultFileException {
         try {
-            String string = obj.toString(4);
-            byte[] vaultBytes = string.getBytes(StandardCharsets.UTF_8);
+            byte[] vaultBytes;
+            if (compress) {
+                // indentation is of no use to anyone if the vault is compressed
+                vaultBytes = compress(obj.toString().getBytes(StandardCharsets.UTF_8));
+            } else {
+                vaultBytes = obj.toString(4).getBytes(StandardCharsets.UTF_8);
+            }
 
             CryptResult result = creds.encrypt(vaultBytes);
             _content = Base64.encode(result.getData());
-            _header = new Header(creds.getSlots(), result.getParams());
-        } catch (MasterKeyException | JSONException e) {
+            _header = new Header(creds.getSlots(), result.getParams(), compress ? COMPRESSION_DEFLATE : null);
+        } catch (MasterKeyException | JSONException | IOException e) {
             throw new VaultFileException(e);
         }
     }
 
+    private static byte[] compress(byte[] bytes) throws IOException {
+        ByteArrayOutputStream outStream = new ByteArrayOutputStream(bytes.length / 4);
+        try (DeflaterOutputStream deflaterStream = new DeflaterOutputStream(outStream)) {
+            deflaterStream.write(bytes);
+        }
+
+        return outStream.toByteArray();
+    }
+
+    private static byte[] decompress(byte[] bytes) throws IOException, VaultFileException {
+        long limit = Math.min(Integer.MAX_VALUE - 8, Math.max(MIN_DECOMPRESSED_LIMIT, (long) bytes.length * MAX_COMPRESSION_RATIO));
+
+        try (InputStream inStream = new InflaterInputStream(new ByteArrayInputStream(bytes));
+             ByteArrayOutputStream outStream = new ByteArrayOutputStream(bytes.length * 4)) {
+            int read;
+            byte[] buf = new byte[64 * 1024];
+            while ((read = inStream.read(buf, 0, buf.length)) != -1) {
+                if (outStream.size() + read > limit) {
+                    throw new VaultFileException(String.format("The decompressed vault is larger than %d bytes", limit));
+                }
+                outStream.write(buf, 0, read);
+            }
+
+            return outStream.toByteArray();
+        }
+    }
+
     public static class Header {
         private SlotList _slots;
         private CryptParameters _params;
+        private String _compression;
 
         public Header(SlotList slots, CryptParameters params) {
+            this(slots, params, null);
+        }
+
+        public Header(SlotList slots, CryptParameters params, String compression) {
             _slots = slots;
             _params = params;
+            _compression = compression;
         }
 
         public static Header fromJson(JSONObject obj) throws VaultFileException {
+            String compression = JsonUtils.optString(obj, "compression");
+            if (compression != null && !compression.equals(COMPRESSION_DEFLATE)) {
+                throw new VaultFileException(String.format("unsupported compression: %s", compression));
+            }
+
             if (obj.isNull("slots") && obj.isNull("params")) {
-                return new Header(null, null);
+                return new Header(null, null, compression);
             }
 
             try {
                 SlotList slots = SlotList.fromJson(obj.getJSONArray("slots"));
                 CryptParameters params = CryptParameters.fromJson(obj.getJSONObject("params"));
-                return new Header(slots, params);
+                return new Header(slots, params, compression);
             } catch (SlotListException | JSONException | EncodingException e) {
                 throw new VaultFileException(e);
             }
@@ -145,6 +238,9 @@ public class VaultFile {
                 JSONObject obj = new JSONObject();
                 obj.put("slots", _slots != null ? _slots.toJson() : JSONObject.NULL);
                 obj.put("params", _params != null ? _params.toJson() : JSONObject.NULL);
+                if (_compression != null) {
+                    obj.put("compression", _compression);
+                }
                 return obj;
             } catch (JSONException e) {
                 throw new RuntimeException(e);
@@ -159,6 +255,10 @@ public class VaultFile {
             return _params;
         }
 
+        public boolean isCompressed() {
+            return _compression != null;
+        }
+
         public boolean isEmpty() {
             return _slots == null && _params == null;
         }
@@ -6,6 +6,12 @@ import android.content.Context;
 import androidx.core.util.AtomicFile;
 
 import com.beemdevelopment.aegis.Preferences;
+import com.beemdevelopment.aegis.crypto.EntryKeys;
+import com.beemdevelopment.aegis.crypto.MasterKeyException;
+import com.beemdevelopment.aegis.encoding.Hex;
+import com.beemdevelopment.aegis.helpers.BitmapHelper;
+import com.beemdevelopment.aegis.helpers.comparators.SortCollator;
+import com.beemdevelopment.aegis.helpers.UnlockTracer;
 import com.beemdevelopment.aegis.otp.GoogleAuthInfo;
 import com.beemdevelopment.aegis.util.IOUtils;
 
@@ -19,8 +25,13 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintStream;
 import java.nio.charset.StandardCharsets;
-import java.text.Collator;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.TreeSet;
 import java.util.UUID;
 
@@ -30,6 +41,8 @@ public class VaultManager {
     public static final String FILENAME_PREFIX_EXPORT_PLAIN = "aegis-export-plain";
     public static final String FILENAME_PREFIX_EXPORT_URI = "aegis-export-uri";
 
+    private static final String BACKUP_HASH_PURPOSE = "aegis-backup-hash";
+
     private Vault _vault;
     private VaultFileCredentials _creds;
 
@@ -68,8 +81,14 @@ public class VaultManager {
         AtomicFile file = getAtomicFile(context);
 
         try {
-            byte[] fileBytes = file.readFully();
-            return VaultFile.fromBytes(fileBytes);
+            byte[] fileBytes;
+            try (UnlockTracer.Section ignored = UnlockTracer.begin(UnlockTracer.STAGE_READ_FILE)) {
+                fileBytes = IOUtils.readFile(file.openRead());
+            }
+
+            try (UnlockTracer.Section ignored = UnlockTracer.begin(UnlockTracer.STAGE_PARSE_FILE)) {
+                return VaultFile.fromBytes(fileBytes);
+            }
         } catch (IOException | VaultFileException e) {
             throw new VaultManagerException(e);
         }
@@ -99,13 +118,17 @@ public class VaultManager {
         Vault vault;
         try {
             JSONObject obj;
-            if (!file.isEncrypted()) {
-                obj = file.getContent();
-            } else {
-                obj = file.getContent(creds);
+            try (UnlockTracer.Section ignored = UnlockTracer.begin(UnlockTracer.STAGE_DECRYPT)) {
+                if (!file.isEncrypted()) {
+                    obj = file.getContent();
+                } else {
+                    obj = file.getContent(creds);
+                }
             }
 
-            vault = Vault.fromJson(obj);
+            try (UnlockTracer.Section ignored = UnlockTracer.begin(UnlockTracer.STAGE_PARSE_VAULT)) {
+                vault = Vault.fromJson(obj, creds != null ? creds.getKey() : null);
+            }
         } catch (VaultException | VaultFileException e) {
             throw new VaultManagerException(e);
         }
@@ -127,9 +150,15 @@ public class VaultManager {
     }
 
     public void save(boolean backup) throws VaultManagerException {
+        JSONObject obj;
         try {
-            JSONObject obj = _vault.toJson();
+            _vault.sealSecrets();
+            obj = _vault.toJson();
+        } catch (VaultException e) {
+            throw new VaultManagerException(e);
+        }
 
+        try {
             VaultFile file = new VaultFile();
             if (isEncryptionEnabled()) {
                 file.setContent(obj, _creds);
@@ -145,7 +174,7 @@ public class VaultManager {
         if (backup) {
             if (_prefs.isBackupsEnabled()) {
                 try {
-                    backup();
+                    backup(obj, false);
                     _prefs.setBackupsError(null);
                 } catch (VaultManagerException e) {
                     _prefs.setBackupsError(e);
@@ -163,7 +192,16 @@ public class VaultManager {
      * is enabled, the vault will be encrypted automatically.
      */
     public void export(OutputStream stream) throws VaultManagerException {
-        export(stream, getCredentials());
+        export(stream, false);
+    }
+
+    /**
+     * Exports the vault bt serializing it and writing it to the given OutputStream. If encryption
+     * is enabled, the vault will be encrypted automatically. If compress is true, the vault
+     * will be compressed first.
+     */
+    public void export(OutputStream stream, boolean compress) throws VaultManagerException {
+        export(stream, getCredentials(), compress);
     }
 
     /**
@@ -171,17 +209,49 @@ public class VaultManager {
      * not null, it will be used to encrypt the vault first.
      */
     public void export(OutputStream stream, VaultFileCredentials creds) throws VaultManagerException {
+        export(stream, creds, false);
+    }
+
+    /**
+     * Exports the vault by serializing it and writing it to the given OutputStream. If creds is
+     * not null, it will be used to encrypt the vault first. If compress is true, the vault will
+     * be compressed before it's encrypted.
+     */
+    public void export(OutputStream stream, VaultFileCredentials creds, boolean compress) throws VaultManagerException {
+        try {
+            VaultFile vaultFile = toVaultFile(toJson(creds), creds, compress);
+            byte[] bytes = vaultFile.toBytes();
+            stream.write(bytes);
+        } catch (IOException e) {
+            throw new VaultManagerException(e);
+        }
+    }
+
+    /**
+     * Serializes the vault for a file that is encrypted with the given credentials. The
+     * secrets of the entries can only be kept in their encrypted form if the file is
+     * encrypted with the same master key as the vault.
+     */
+    private JSONObject toJson(VaultFileCredentials creds) {
+        EntryKeys keys = _vault.getEntryKeys();
+        if (keys != null && creds != null && keys.isDerivedFrom(creds.getKey())) {
+            return _vault.toJson();
+        }
+
+        return _vault.toPlainJson();
+    }
+
+    static VaultFile toVaultFile(JSONObject obj, VaultFileCredentials creds, boolean compress) throws VaultManagerException {
         try {
             VaultFile vaultFile = new VaultFile();
             if (creds != null) {
-                vaultFile.setContent(_vault.toJson(), creds);
+                vaultFile.setContent(obj, creds, compress);
             } else {
-                vaultFile.setContent(_vault.toJson());
+                vaultFile.setContent(obj, compress);
             }
 
-            byte[] bytes = vaultFile.toBytes();
-            stream.write(bytes);
-        } catch (IOException | VaultFileException e) {
+            return vaultFile;
+        } catch (VaultFileException e) {
             throw new VaultManagerException(e);
         }
     }
@@ -196,30 +266,56 @@ public class VaultManager {
                 GoogleAuthInfo info = new GoogleAuthInfo(entry.getInfo(), entry.getName(), entry.getIssuer());
                 stream.println(info.getUri().toString());
             }
+
+            // PrintStream swallows exceptions, so check whether any errors occurred
+            if (stream.checkError()) {
+                throw new IOException("Unable to write the list of URI's to the stream");
+            }
         } catch (IOException e) {
             throw new VaultManagerException(e);
         }
     }
 
+    /**
+     * Creates a backup of the vault right away, even if the vault hasn't changed
+     * since the latest backup.
+     */
     public void backup() throws VaultManagerException {
-        try {
-            File dir = new File(_context.getCacheDir(), "backup");
-            if (!dir.exists() && !dir.mkdir()) {
-                throw new IOException(String.format("Unable to create directory %s", dir));
-            }
+        backup(_vault.toJson(), true);
+    }
 
-            File tempFile = File.createTempFile(VaultBackupManager.FILENAME_PREFIX, ".json", dir);
-            try (InputStream inStream = getAtomicFile(_context).openRead();
-                OutputStream outStream = new FileOutputStream(tempFile)) {
-                IOUtils.copy(inStream, outStream);
+    private void backup(JSONObject obj, boolean force) throws VaultManagerException {
+        String hash = getContentHash(obj);
+        _backups.scheduleBackup(obj, getCredentials(), hash, _prefs.getBackupsLocation(), _prefs.getBackupsVersionCount(), force);
+    }
+
+    /**
+     * Returns a hash of the content of the vault and the slots it's encrypted with. The vault
+     * file itself can't be used for this, because it is encrypted with a new nonce every time
+     * it is saved. The hash is stored outside of the vault, so for an encrypted vault it's an
+     * HMAC with a key derived from the master key, which doesn't reveal anything about the
+     * plaintext. An unencrypted vault is stored as plaintext anyway, so a plain hash will do.
+     */
+    private String getContentHash(JSONObject obj) throws VaultManagerException {
+        byte[] content = obj.toString().getBytes(StandardCharsets.UTF_8);
+
+        try {
+            if (isEncryptionEnabled()) {
+                byte[] slots = _creds.getSlots().toJson().toString().getBytes(StandardCharsets.UTF_8);
+                return Hex.encode(_creds.getKey().hmac(BACKUP_HASH_PURPOSE, content, slots));
             }
 
-            _backups.scheduleBackup(tempFile, _prefs.getBackupsLocation(), _prefs.getBackupsVersionCount());
-        } catch (IOException e) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Hex.encode(digest.digest(content));
+        } catch (MasterKeyException | NoSuchAlgorithmException e) {
             throw new VaultManagerException(e);
         }
     }
 
+    public VaultBackupManager getBackupManager() {
+        return _backups;
+    }
+
     public void androidBackupDataChanged() {
         _androidBackups.dataChanged();
     }
@@ -228,6 +324,14 @@ public class VaultManager {
         _vault.getEntries().add(entry);
     }
 
+    /**
+     * Adds all of the given entries to the vault at once. The caller is expected to
+     * save the vault only once afterwards.
+     */
+    public void addEntries(Collection<VaultEntry> entries) {
+        _vault.getEntries().addAll(entries);
+    }
+
     public VaultEntry getEntryByUUID(UUID uuid) {
         return _vault.getEntries().getByUUID(uuid);
     }
@@ -236,6 +340,14 @@ public class VaultManager {
         return _vault.getEntries().remove(entry);
     }
 
+    /**
+     * Removes all of the given entries from the vault at once. The caller is expected to
+     * save the vault only once afterwards.
+     */
+    public List<VaultEntry> removeEntries(Collection<VaultEntry> entries) {
+        return _vault.getEntries().removeAll(entries);
+    }
+
     public void wipeEntries() {
         _vault.getEntries().wipe();
     }
@@ -256,8 +368,74 @@ public class VaultManager {
         return _vault.getEntries().getValues();
     }
 
+    /**
+     * Returns the entries of the given collection that have an icon that is larger than the
+     * maximum icon size. Only the dimensions of the icons are read, so this is cheap enough
+     * to call before deciding whether normalizeIcons needs to run at all.
+     */
+    public static List<VaultEntry> findOversizedIcons(Collection<VaultEntry> entries) {
+        List<VaultEntry> res = new ArrayList<>();
+        for (VaultEntry entry : entries) {
+            byte[] icon = entry.getIcon();
+            if (icon != null && BitmapHelper.isIconOversized(icon)) {
+                res.add(entry);
+            }
+        }
+
+        return res;
+    }
+
+    /**
+     * Re-encodes the icons of the given entries that are larger than the maximum icon size,
+     * to reduce the size of the vault. Icons that can't be decoded or wouldn't get any
+     * smaller are left alone. Returns the new icons by the UUID of their entry.
+     *
+     * The icons are decoded and encoded on the calling thread, so this should be called
+     * from a background thread with a snapshot of the entries. The entries themselves are
+     * not changed, the caller is expected to apply the result with setIcons on the main
+     * thread and save the vault afterwards.
+     */
+    public static Map<UUID, byte[]> normalizeIcons(Collection<VaultEntry> entries) {
+        Map<UUID, byte[]> res = new HashMap<>();
+        for (VaultEntry entry : entries) {
+            byte[] icon = entry.getIcon();
+            if (icon == null) {
+                continue;
+            }
+
+            byte[] normalized = BitmapHelper.normalizeIcon(icon);
+            if (normalized != icon) {
+                res.put(entry.getUUID(), normalized);
+            }
+        }
+
+        return res;
+    }
+
+    /**
+     * Replaces the icons of the entries with the given UUIDs. Entries that were removed in
+     * the meantime are skipped. Returns the number of bytes saved.
+     */
+    public long setIcons(Map<UUID, byte[]> icons) {
+        long saved = 0;
+        for (VaultEntry entry : getEntries()) {
+            byte[] icon = icons.get(entry.getUUID());
+            if (icon == null) {
+                continue;
+            }
+
+            int oldSize = entry.getIconSize();
+            entry.setIcon(icon);
+            if (oldSize > 0) {
+                saved += oldSize - icon.length;
+            }
+        }
+
+        return saved;
+    }
+
     public TreeSet<String> getGroups() {
-        TreeSet<String> groups = new TreeSet<>(Collator.getInstance());
+        TreeSet<String> groups = new TreeSet<>(SortCollator.getInstance());
         for (VaultEntry entry : getEntries()) {
             String group = entry.getGroup();
             if (group != null) {
@@ -272,6 +450,12 @@ public class VaultManager {
     }
 
     public void setCredentials(VaultFileCredentials creds) {
+        // the entry keys are derived from the master key, so they change along with it
+        EntryKeys keys = _vault.getEntryKeys();
+        if (keys != null && !keys.isDerivedFrom(creds.getKey())) {
+            _vault.setEntryKeys(EntryKeys.generate(creds.getKey()));
+        }
+
         _creds = creds;
     }
 
@@ -285,7 +469,37 @@ public class VaultManager {
     }
 
     public void disableEncryption() throws VaultManagerException {
+        _vault.setEntryKeys(null);
         _creds = null;
         save(true);
     }
+
+    public boolean isEntryEncryptionEnabled() {
+        return _vault.getEntryKeys() != null;
+    }
+
+    /**
+     * Enables or disables encrypting the secret of every entry with its own key, derived
+     * from the master key. With this enabled, secrets are only decrypted when they're
+     * needed, rather than all at once when the vault is unlocked. This requires the vault
+     * to be encrypted.
+     */
+    public void setEntryEncryptionEnabled(boolean enabled) throws VaultManagerException {
+        if (enabled == isEntryEncryptionEnabled()) {
+            return;
+        }
+
+        if (enabled && !isEncryptionEnabled()) {
+            throw new IllegalStateException("Entry encryption requires the vault to be encrypted");
+        }
+
+        EntryKeys oldKeys = _vault.getEntryKeys();
+        _vault.setEntryKeys(enabled ? EntryKeys.generate(_creds.getKey()) : null);
+        try {
+            save(true);
+        } catch (VaultManagerException e) {
+            _vault.setEntryKeys(oldKeys);
+            throw e;
+        }
+    }
 }
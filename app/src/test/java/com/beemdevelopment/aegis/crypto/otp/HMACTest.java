@@ -0,0 +1,49 @@
+package com.beemdevelopment.aegis.crypto.otp;
+
+import org.junit.Test;
+
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThrows;
+
+public class HMACTest {
+    private static final String[] ALGORITHMS = { "HmacSHA1", "HmacSHA256", "HmacSHA512" };
+
+    // covers keys shorter than, equal to and longer than the block size of every algorithm
+    private static final int[] KEY_SIZES = { 1, 10, 20, 32, 64, 65, 100, 128, 129, 300 };
+
+    @Test
+    public void testMatchesMac() throws NoSuchAlgorithmException, InvalidKeyException {
+        Random random = new Random(0);
+        for (String algo : ALGORITHMS) {
+            for (int keySize : KEY_SIZES) {
+                byte[] key = new byte[keySize];
+                random.nextBytes(key);
+
+                Mac mac = Mac.getInstance(algo);
+                mac.init(new SecretKeySpec(key, "RAW"));
+                HMAC hmac = HMAC.create(key, algo);
+
+                // reuse the same HMAC for several messages to make sure its state is kept intact
+                for (int i = 0; i < 5; i++) {
+                    byte[] message = new byte[i * 7];
+                    random.nextBytes(message);
+                    assertArrayEquals(mac.doFinal(message), hmac.doFinal(message));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBadParameters() {
+        assertThrows(NoSuchAlgorithmException.class, () -> HMAC.create(new byte[10], "HmacMD5"));
+        assertThrows(InvalidKeyException.class, () -> HMAC.create(new byte[0], "HmacSHA1"));
+        assertThrows(InvalidKeyException.class, () -> HMAC.create(null, "HmacSHA1"));
+    }
+}
@@ -0,0 +1,234 @@
+package com.beemdevelopment.aegis.encoding;
+
+import com.google.common.io.BaseEncoding;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.fail;
+
+public class EncodingTest {
+    private static final long SEED = 0xae915L;
+    private static final int ITERATIONS = 20000;
+
+    // the characters of all alphabets, padding and some that are never valid
+    private static final String FUZZ_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/=-_ .\né€";
+
+    private Random _random;
+    private Locale _locale;
+
+    @Before
+    public void init() {
+        _random = new Random(SEED);
+        _locale = Locale.getDefault();
+    }
+
+    @After
+    public void reset() {
+        Locale.setDefault(_locale);
+    }
+
+    @Test
+    public void testRoundTrip() throws EncodingException {
+        for (int i = 0; i < 1000; i++) {
+            byte[] data = randomBytes(i % 300);
+
+            assertArrayEquals(data, Base32.decode(Base32.encode(data)));
+            assertArrayEquals(data, Base64.decode(Base64.encode(data)));
+            assertArrayEquals(data, Hex.decode(Hex.encode(data)));
+            assertArrayEquals(data, Base64.decode(Base64.encode(data).getBytes(StandardCharsets.US_ASCII)));
+        }
+    }
+
+    @Test
+    public void testEncodeMatchesGuava() {
+        for (int i = 0; i < 1000; i++) {
+            byte[] data = randomBytes(i % 300);
+
+            assertEquals(BaseEncoding.base32().omitPadding().encode(data), Base32.encode(data));
+            assertEquals(BaseEncoding.base64().encode(data), Base64.encode(data));
+            assertEquals(BaseEncoding.base16().lowerCase().encode(data), Hex.encode(data));
+        }
+    }
+
+    @Test
+    public void testDecodeMatchesGuava() {
+        for (int i = 0; i < ITERATIONS; i++) {
+            // mostly valid input with a few mutations, so that both outcomes are covered
+            byte[] data = randomBytes(_random.nextInt(64));
+            assertDecodesLikeGuava(mutate(BaseEncoding.base32().encode(data)));
+            assertDecodesLikeGuava(mutate(BaseEncoding.base64().encode(data)));
+            assertDecodesLikeGuava(mutate(BaseEncoding.base16().encode(data)));
+
+            // and input that is random altogether
+            assertDecodesLikeGuava(randomString(_random.nextInt(24)));
+        }
+    }
+
+    @Test
+    public void testDecodeIgnoresCase() throws EncodingException {
+        byte[] data = randomBytes(100);
+        assertArrayEquals(data, Base32.decode(Base32.encode(data).toLowerCase(Locale.ROOT)));
+        assertArrayEquals(data, Hex.decode(Hex.encode(data).toUpperCase(Locale.ROOT)));
+        assertFalse(Arrays.equals(Base64.decode("QUJD"), Base64.decode("qujd")));
+
+        // converting the input to upper case first broke lower case secrets in some locales
+        Locale.setDefault(new Locale("tr"));
+        assertArrayEquals(Base32.decode("MFRGGZDF"), Base32.decode("mfrggzdf"));
+        assertArrayEquals(Base32.decode("IRXWE==="), Base32.decode("irxwe"));
+    }
+
+    @Test
+    public void testBuffers() throws EncodingException {
+        byte[] data = randomBytes(77);
+
+        String base32 = Base32.encode(data);
+        byte[] out = new byte[Base32.getMaxDecodedLength(base32.length()) + 4];
+        assertEquals(data.length, Base32.decode(base32, out, 4));
+        assertArrayEquals(data, Arrays.copyOfRange(out, 4, 4 + data.length));
+
+        byte[] encoded = new byte[Base64.getEncodedLength(data.length) + 2];
+        assertEquals(encoded.length - 2, Base64.encode(data, 0, data.length, encoded, 2));
+        assertEquals(Base64.encode(data), new String(encoded, 2, encoded.length - 2, StandardCharsets.US_ASCII));
+
+        byte[] hex = new byte[data.length * 2];
+        Hex.encode(data, 0, data.length, hex, 0);
+        assertEquals(Hex.encode(data), new String(hex, StandardCharsets.US_ASCII));
+        assertArrayEquals(data, Hex.decode(new String(hex, StandardCharsets.US_ASCII)));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> Base32.decode(base32, new byte[data.length - 1], 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> Base64.encode(data, 0, data.length, new byte[4], 0));
+    }
+
+    @Test
+    public void testDecodeInPlace() throws EncodingException {
+        for (int i = 0; i < 100; i++) {
+            byte[] data = randomBytes(i);
+            byte[] buf = Base64.encode(data).getBytes(StandardCharsets.US_ASCII);
+            int len = Base64.decode(buf, 0, buf.length, buf, 0);
+            assertArrayEquals(data, Arrays.copyOf(buf, len));
+        }
+    }
+
+    @Test
+    public void testCheck() {
+        for (int i = 0; i < ITERATIONS; i++) {
+            String s = _random.nextBoolean() ? mutate(BaseEncoding.base64().encode(randomBytes(_random.nextInt(64)))) : randomString(_random.nextInt(24));
+
+            byte[] expected;
+            try {
+                expected = Base64.decode(s);
+            } catch (EncodingException e) {
+                expected = null;
+            }
+
+            try {
+                int len = Base64.check(s);
+                if (expected == null) {
+                    fail(String.format("Check accepted undecodable input: %s", s));
+                }
+                assertEquals(expected.length, len);
+                assertEquals(expected.length, Base64.getDecodedLength(s));
+            } catch (EncodingException e) {
+                if (expected != null) {
+                    fail(String.format("Check rejected decodable input: %s", s));
+                }
+            }
+        }
+    }
+
+    private static void assertDecodesLikeGuava(String s) {
+        assertDecodesLike(s, BaseEncoding.base32(), s.toUpperCase(Locale.ROOT), Base32::decode);
+        assertDecodesLike(s, BaseEncoding.base64(), s, Base64::decode);
+        assertDecodesLike(s, BaseEncoding.base16(), s.toUpperCase(Locale.ROOT), Hex::decode);
+        assertDecodesLike(s, BaseEncoding.base64(), s, input -> Base64.decode(input.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void assertDecodesLike(String s, BaseEncoding encoding, String guavaInput, Decoder decoder) {
+        byte[] expected;
+        try {
+            expected = encoding.decode(guavaInput);
+        } catch (IllegalArgumentException e) {
+            expected = null;
+        }
+
+        byte[] actual;
+        try {
+            actual = decoder.decode(s);
+        } catch (EncodingException e) {
+            actual = null;
+        }
+
+        if (expected == null && actual != null) {
+            fail(String.format("Expected \"%s\" to be rejected", s));
+        } else if (expected != null && actual == null) {
+            fail(String.format("Expected \"%s\" to be accepted", s));
+        }
+        assertArrayEquals(String.format("Input: \"%s\"", s), expected, actual);
+    }
+
+    private String mutate(String s) {
+        StringBuilder builder = new StringBuilder(s);
+        switch (_random.nextInt(6)) {
+            case 0:
+                // leave it alone
+                break;
+            case 1:
+                if (builder.length() > 0) {
+                    builder.setCharAt(_random.nextInt(builder.length()), randomChar());
+                }
+                break;
+            case 2:
+                if (builder.length() > 0) {
+                    builder.deleteCharAt(_random.nextInt(builder.length()));
+                }
+                break;
+            case 3:
+                builder.insert(_random.nextInt(builder.length() + 1), randomChar());
+                break;
+            case 4:
+                builder.append("=");
+                break;
+            case 5:
+                for (int i = 0; i < builder.length(); i++) {
+                    if (_random.nextBoolean()) {
+                        builder.setCharAt(i, Character.toLowerCase(builder.charAt(i)));
+                    }
+                }
+                break;
+        }
+        return builder.toString();
+    }
+
+    private String randomString(int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(randomChar());
+        }
+        return builder.toString();
+    }
+
+    private char randomChar() {
+        return FUZZ_CHARS.charAt(_random.nextInt(FUZZ_CHARS.length()));
+    }
+
+    private byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        _random.nextBytes(bytes);
+        return bytes;
+    }
+
+    private interface Decoder {
+        byte[] decode(String s) throws EncodingException;
+    }
+}
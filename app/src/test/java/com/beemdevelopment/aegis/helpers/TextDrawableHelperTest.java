@@ -0,0 +1,99 @@
+package com.beemdevelopment.aegis.helpers;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
+import android.os.Build;
+import android.util.LruCache;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.amulyakhare.textdrawable.TextDrawable;
+import com.amulyakhare.textdrawable.util.ColorGenerator;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@Config(sdk = { Build.VERSION_CODES.P })
+@RunWith(RobolectricTestRunner.class)
+public class TextDrawableHelperTest {
+    // the palette and mapping that letter avatars have always used
+    private static final ColorGenerator GENERATOR = ColorGenerator.create(Arrays.asList(
+            0xFFD32F2F, 0xFFC2185B, 0xFF7B1FA2, 0xFF512DA8, 0xFF303F9F, 0xFF1976D2, 0xFF0288D1,
+            0xFF0097A7, 0xFF00796B, 0xFF388E3C, 0xFF689F38, 0xFFAFB42B, 0xFFFBC02D, 0xFFFFA000,
+            0xFFF57C00, 0xFFE64A19, 0xFF5D4037, 0xFF616161, 0xFF455A64
+    ));
+
+    private Resources _res;
+
+    @Before
+    public void init() {
+        _res = ApplicationProvider.getApplicationContext().getResources();
+        TextDrawableHelper.getCache().evictAll();
+    }
+
+    @Test
+    public void testCacheHits() {
+        Bitmap bitmap = TextDrawableHelper.getBitmap("Google", 40, 40);
+        assertSame(bitmap, TextDrawableHelper.getBitmap("Google", 40, 40));
+        assertNotSame(bitmap, TextDrawableHelper.getBitmap("Google", 30, 30));
+
+        // every view gets its own drawable, but they all draw the same bitmap
+        BitmapDrawable drawable = (BitmapDrawable) TextDrawableHelper.generate("Google", null, _res, 40, 40);
+        BitmapDrawable fallbackDrawable = (BitmapDrawable) TextDrawableHelper.generate(null, "Google", _res, 40, 40);
+        assertNotSame(drawable, fallbackDrawable);
+        assertSame(bitmap, drawable.getBitmap());
+        assertSame(bitmap, fallbackDrawable.getBitmap());
+
+        // scrolling through a large list only renders a bitmap per letter and color
+        String[] issuers = new String[2000];
+        for (int i = 0; i < issuers.length; i++) {
+            issuers[i] = String.format("Issuer %d", i);
+        }
+        for (String issuer : issuers) {
+            TextDrawableHelper.generate(issuer, null, _res, 40, 40);
+        }
+
+        LruCache<TextDrawableHelper.Key, Bitmap> cache = TextDrawableHelper.getCache();
+        int puts = cache.putCount();
+        for (String issuer : issuers) {
+            TextDrawableHelper.generate(issuer, null, _res, 40, 40);
+        }
+        assertEquals(puts, cache.putCount());
+        assertEquals(0, cache.evictionCount());
+    }
+
+    @Test
+    public void testUnknownSize() {
+        // views without a fixed size get an avatar that is drawn at the size of its bounds
+        assertTrue(TextDrawableHelper.generate("Google", null, _res, -1, -1) instanceof TextDrawable);
+        assertEquals(0, TextDrawableHelper.getCache().size());
+    }
+
+    @Test
+    public void testColors() {
+        String[] texts = { "Google", "GitHub", "aegis", "Ácme", "日本", "1Password", "x" };
+        for (String text : texts) {
+            int expected = GENERATOR.getColor(text);
+            assertEquals(expected, TextDrawableHelper.getColor(text));
+            assertEquals(expected, TextDrawableHelper.createDrawable(text, 40, 40).getPaint().getColor());
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        assertNull(TextDrawableHelper.generate(null, null, _res, 40, 40));
+        assertNull(TextDrawableHelper.generate("", "", _res, 40, 40));
+    }
+}
@@ -0,0 +1,115 @@
+package com.beemdevelopment.aegis.helpers.comparators;
+
+import com.beemdevelopment.aegis.SortCategory;
+import com.beemdevelopment.aegis.otp.OtpInfoException;
+import com.beemdevelopment.aegis.otp.TotpInfo;
+import com.beemdevelopment.aegis.vault.VaultEntry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class EntryComparatorTest {
+    private static final byte[] SECRET = "12345678901234567890".getBytes();
+
+    private Locale _locale;
+
+    @Before
+    public void init() {
+        _locale = Locale.getDefault();
+        Locale.setDefault(Locale.ENGLISH);
+    }
+
+    @After
+    public void reset() {
+        Locale.setDefault(_locale);
+    }
+
+    @Test
+    public void testIssuerOrder() throws OtpInfoException {
+        List<VaultEntry> entries = createEntries("zulu", "Épicerie", "apple", "Banana", "eagle", "Zebra", "elephant");
+        Collections.sort(entries, SortCategory.ISSUER.getComparator());
+        assertEquals(Arrays.asList("apple", "Banana", "eagle", "elephant", "Épicerie", "Zebra", "zulu"), getIssuers(entries));
+
+        Collections.sort(entries, SortCategory.ISSUER_REVERSED.getComparator());
+        assertEquals(Arrays.asList("zulu", "Zebra", "Épicerie", "elephant", "eagle", "Banana", "apple"), getIssuers(entries));
+    }
+
+    @Test
+    public void testAccountOrder() throws OtpInfoException {
+        List<VaultEntry> entries = new ArrayList<>();
+        for (String name : new String[] { "bob", "Alice", "Ærøskøbing", "carol" }) {
+            entries.add(new VaultEntry(new TotpInfo(SECRET), name, "issuer"));
+        }
+
+        Collections.sort(entries, SortCategory.ACCOUNT.getComparator());
+        List<String> names = new ArrayList<>();
+        for (VaultEntry entry : entries) {
+            names.add(entry.getName());
+        }
+        assertEquals(Arrays.asList("Ærøskøbing", "Alice", "bob", "carol"), names);
+    }
+
+    @Test
+    public void testConsistentWithGroups() throws OtpInfoException {
+        // groups are sorted with the same collator as the entries, so both lists agree
+        String[] names = { "Work", "éclair", "Personal", "echo", "ärger", "Zoo", "apple" };
+        TreeSet<String> groups = new TreeSet<>(SortCollator.getInstance());
+        groups.addAll(Arrays.asList(names));
+
+        List<VaultEntry> entries = createEntries(names);
+        Collections.sort(entries, SortCategory.ISSUER.getComparator());
+        assertEquals(new ArrayList<>(groups), getIssuers(entries));
+    }
+
+    @Test
+    public void testSortKeyCache() throws OtpInfoException {
+        Collator collator = SortCollator.getInstance();
+        assertSame(collator, SortCollator.getInstance());
+
+        VaultEntry entry = new VaultEntry(new TotpInfo(SECRET), "name", "issuer");
+        CollationKey key = entry.getIssuerSortKey(collator);
+        assertSame(key, entry.getIssuerSortKey(collator));
+
+        // editing the entry invalidates its key
+        entry.setIssuer("other");
+        CollationKey newKey = entry.getIssuerSortKey(collator);
+        assertNotSame(key, newKey);
+        assertEquals("other", newKey.getSourceString());
+
+        // so does a change of the locale
+        Locale.setDefault(Locale.GERMAN);
+        Collator newCollator = SortCollator.getInstance();
+        assertNotSame(collator, newCollator);
+        assertNotSame(newKey, entry.getIssuerSortKey(newCollator));
+    }
+
+    private static List<VaultEntry> createEntries(String... issuers) throws OtpInfoException {
+        List<VaultEntry> entries = new ArrayList<>();
+        for (String issuer : issuers) {
+            entries.add(new VaultEntry(new TotpInfo(SECRET), "name", issuer));
+        }
+        return entries;
+    }
+
+    private static List<String> getIssuers(List<VaultEntry> entries) {
+        List<String> issuers = new ArrayList<>();
+        for (VaultEntry entry : entries) {
+            issuers.add(entry.getIssuer());
+        }
+        return issuers;
+    }
+}
@@ -24,4 +24,14 @@ public class OtpTest {
             assertEquals(vector.OTP, info.getOtp(vector.Time));
         }
     }
+
+    @Test
+    public void testReleaseHmac() throws OtpInfoException {
+        HotpInfo info = new HotpInfo(HOTPTest.SECRET, OtpInfo.DEFAULT_ALGORITHM, OtpInfo.DEFAULT_DIGITS, 0);
+        assertEquals(HOTPTest.VECTORS[0], info.getOtp());
+
+        // a released HMAC is recreated with the same key
+        info.releaseHmac();
+        assertEquals(HOTPTest.VECTORS[0], info.getOtp());
+    }
 }
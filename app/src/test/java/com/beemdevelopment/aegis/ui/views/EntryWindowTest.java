@@ -0,0 +1,99 @@
+package com.beemdevelopment.aegis.ui.views;
+
+import com.beemdevelopment.aegis.otp.OtpInfoException;
+import com.beemdevelopment.aegis.otp.TotpInfo;
+import com.beemdevelopment.aegis.vault.VaultEntry;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class EntryWindowTest {
+    private static final byte[] SECRET = "12345678901234567890".getBytes();
+    private static final int MARGIN = 5;
+
+    private List<VaultEntry> _entries;
+    private List<VaultEntry> _released;
+    private EntryWindow _window;
+
+    @Before
+    public void init() throws OtpInfoException {
+        _entries = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            _entries.add(new VaultEntry(new TotpInfo(SECRET), String.format("user%d", i), "issuer"));
+        }
+
+        _released = new ArrayList<>();
+        _window = new EntryWindow(MARGIN, _released::add);
+    }
+
+    @Test
+    public void testScroll() {
+        _window.update(_entries, 0, 9);
+        assertEquals(10 + MARGIN, _window.size());
+        assertTrue(_released.isEmpty());
+
+        // scroll down by a few entries, the window is still cut off at the top of the list
+        _window.update(_entries, 3, 12);
+        assertEquals(3 + 10 + MARGIN, _window.size());
+        assertTrue(_released.isEmpty());
+
+        // jump far ahead, which releases everything that was in the window
+        _window.update(_entries, 500, 509);
+        assertEquals(10 + 2 * MARGIN, _window.size());
+        assertEquals(3 + 10 + MARGIN, _released.size());
+        assertTrue(_released.contains(_entries.get(0)));
+        assertFalse(_window.contains(_entries.get(0)));
+        assertTrue(_window.contains(_entries.get(500 - MARGIN)));
+        assertTrue(_window.contains(_entries.get(509 + MARGIN)));
+
+        // the window doesn't grow, no matter how far the list is scrolled
+        for (int i = 0; i < _entries.size() - 10; i++) {
+            _window.update(_entries, i, i + 9);
+            assertTrue(_window.size() <= 10 + 2 * MARGIN);
+        }
+        assertTrue(_window.contains(_entries.get(_entries.size() - 1)));
+    }
+
+    @Test
+    public void testListChange() {
+        _window.update(_entries, 10, 19);
+
+        // a removal doesn't change the visible range, but does change the entries in it
+        VaultEntry removed = _entries.remove(15);
+        _window.update(_entries, 10, 19);
+        assertTrue(_window.contains(removed));
+        assertTrue(_released.isEmpty());
+
+        _window.invalidate();
+        _window.update(_entries, 10, 19);
+        assertFalse(_window.contains(removed));
+        assertEquals(1, _released.size());
+        assertSame(removed, _released.get(0));
+    }
+
+    @Test
+    public void testEmpty() {
+        _window.update(_entries, 0, 9);
+
+        // the layout manager reports no visible positions if the list is empty
+        _window.update(new ArrayList<>(), -1, -1);
+        assertEquals(0, _window.size());
+        assertEquals(10 + MARGIN, _released.size());
+    }
+
+    @Test
+    public void testClear() {
+        _window.update(_entries, 100, 109);
+        _window.clear();
+        assertEquals(0, _window.size());
+        assertEquals(10 + 2 * MARGIN, _released.size());
+    }
+}
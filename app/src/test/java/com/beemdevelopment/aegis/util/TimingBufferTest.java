@@ -0,0 +1,51 @@
+package com.beemdevelopment.aegis.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+public class TimingBufferTest {
+    @Test
+    public void testPercentiles() {
+        TimingBuffer buffer = new TimingBuffer(100);
+        for (int i = 100; i >= 1; i--) {
+            buffer.add(i);
+        }
+
+        assertEquals(100, buffer.size());
+        assertEquals(1, buffer.getPercentile(0));
+        assertEquals(50, buffer.getPercentile(50));
+        assertEquals(95, buffer.getPercentile(95));
+        assertEquals(100, buffer.getPercentile(100));
+        assertEquals(1, buffer.getLast());
+    }
+
+    @Test
+    public void testWrapAround() {
+        TimingBuffer buffer = new TimingBuffer(4);
+        for (int i = 1; i <= 10; i++) {
+            buffer.add(i * 10);
+        }
+
+        // only the last 4 samples should remain: 70, 80, 90, 100
+        assertEquals(4, buffer.size());
+        assertEquals(100, buffer.getLast());
+        assertEquals(70, buffer.getPercentile(0));
+        assertEquals(80, buffer.getPercentile(50));
+        assertEquals(100, buffer.getPercentile(95));
+    }
+
+    @Test
+    public void testEmpty() {
+        TimingBuffer buffer = new TimingBuffer(4);
+        assertEquals(-1, buffer.getLast());
+        assertEquals(-1, buffer.getPercentile(50));
+
+        buffer.add(5);
+        buffer.clear();
+        assertEquals(0, buffer.size());
+        assertEquals(-1, buffer.getPercentile(50));
+        assertThrows(IllegalArgumentException.class, () -> buffer.getPercentile(101));
+    }
+}
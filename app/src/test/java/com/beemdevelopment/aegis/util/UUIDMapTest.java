@@ -4,6 +4,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -33,7 +34,7 @@ public class UUIDMapTest {
         assertThrows(AssertionError.class, () -> _map.add(value));
 
         // try adding a clone of the value
-        assertThrows(AssertionError.class, () -> _map.add(Cloner.clone(value)));
+        assertThrows(AssertionError.class, () -> _map.add(new Value(value)));
     }
 
     @Test
@@ -51,16 +52,54 @@ public class UUIDMapTest {
 
         // try removing a value using a clone
         Value value2 = addNewValue();
-        _map.remove(Cloner.clone(value2));
+        _map.remove(new Value(value2));
         assertFalse(_map.has(value2));
     }
 
+    @Test
+    public void addValues() {
+        Value value1 = new Value();
+        Value value2 = new Value();
+        _map.addAll(Arrays.asList(value1, value2));
+        assertTrue(_map.has(value1));
+        assertTrue(_map.has(value2));
+
+        // try adding a batch that contains a value that is already present
+        Value value3 = new Value();
+        assertThrows(AssertionError.class, () -> _map.addAll(Arrays.asList(value3, value1)));
+        assertFalse(_map.has(value3));
+
+        // try adding a batch that contains the same value twice
+        Value value4 = new Value();
+        assertThrows(AssertionError.class, () -> _map.addAll(Arrays.asList(value4, value4)));
+        assertFalse(_map.has(value4));
+    }
+
+    @Test
+    public void removeValues() {
+        Value value1 = addNewValue();
+        Value value2 = addNewValue();
+        Value value3 = addNewValue();
+
+        // try removing a batch using clones and ensure we got the original values back
+        List<Value> oldValues = _map.removeAll(Arrays.asList(new Value(value1), new Value(value3)));
+        assertSame(value1, oldValues.get(0));
+        assertSame(value3, oldValues.get(1));
+        assertFalse(_map.has(value1));
+        assertTrue(_map.has(value2));
+        assertFalse(_map.has(value3));
+
+        // try removing a batch that contains a non-existent value
+        assertThrows(AssertionError.class, () -> _map.removeAll(Arrays.asList(value2, value1)));
+        assertTrue(_map.has(value2));
+    }
+
     @Test
     public void replaceValue() {
         Value value = addNewValue();
 
         // replace the value with a clone
-        Value valueClone = Cloner.clone(value);
+        Value valueClone = new Value(value);
         Value oldValue = _map.replace(valueClone);
 
         // ensure we got the original value back
@@ -102,6 +141,12 @@ public class UUIDMapTest {
     }
 
     private static class Value extends UUIDMap.Value {
+        Value() {
+            super();
+        }
 
+        Value(Value value) {
+            super(value.getUUID());
+        }
     }
 }
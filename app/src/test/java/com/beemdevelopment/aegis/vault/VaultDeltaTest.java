@@ -0,0 +1,106 @@
+package com.beemdevelopment.aegis.vault;
+
+import android.os.Build;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+@Config(sdk = { Build.VERSION_CODES.P })
+@RunWith(RobolectricTestRunner.class)
+public class VaultDeltaTest {
+    @Test
+    public void testDiffAndApply() throws VaultException, JSONException {
+        JSONObject from = createVault(entry("a", "1"), entry("b", "2"), entry("c", "3"));
+        JSONObject to = createVault(entry("a", "1"), entry("c", "4"), entry("d", "5"));
+
+        VaultDelta delta = VaultDelta.diff("parent.json", from, to);
+        assertEquals(2, delta.getEntries().size());
+        assertEquals(1, delta.getRemoved().size());
+        assertEquals("b", delta.getRemoved().get(0));
+
+        VaultDelta readDelta = VaultDelta.fromJson(new JSONObject(delta.toJson().toString()));
+        assertEquals("parent.json", readDelta.getParent());
+        assertEquals(to.toString(), readDelta.apply(from).toString());
+    }
+
+    @Test
+    public void testReorder() throws VaultException, JSONException {
+        JSONObject from = createVault(entry("a", "1"), entry("b", "2"), entry("c", "3"));
+        JSONObject to = createVault(entry("c", "3"), entry("a", "1"), entry("b", "2"));
+
+        VaultDelta delta = VaultDelta.diff("parent.json", from, to);
+        assertTrue(delta.getEntries().isEmpty());
+        assertTrue(delta.getRemoved().isEmpty());
+        assertFalse(delta.toJson().isNull("order"));
+        assertEquals(to.toString(), delta.apply(from).toString());
+    }
+
+    @Test
+    public void testUnchanged() throws VaultException, JSONException {
+        JSONObject vault = createVault(entry("a", "1"), entry("b", "2"));
+
+        VaultDelta delta = VaultDelta.diff("parent.json", vault, vault);
+        assertTrue(delta.getEntries().isEmpty());
+        assertTrue(delta.getRemoved().isEmpty());
+        assertTrue(delta.toJson().isNull("order"));
+        assertEquals(vault.toString(), delta.apply(vault).toString());
+    }
+
+    @Test
+    public void testVersionMismatch() throws VaultException, JSONException {
+        JSONObject from = createVault(entry("a", "1"));
+        JSONObject to = createVault(entry("a", "1"));
+        to.put("version", 2);
+
+        assertNull(VaultDelta.diff("parent.json", from, to));
+    }
+
+    @Test
+    public void testApplyToWrongBase() throws VaultException, JSONException {
+        JSONObject from = createVault(entry("a", "1"), entry("b", "2"));
+        JSONObject to = createVault(entry("a", "1"));
+
+        VaultDelta delta = VaultDelta.diff("parent.json", from, to);
+        assertThrows(VaultException.class, () -> delta.apply(to));
+    }
+
+    @Test
+    public void testIsDelta() throws VaultException, JSONException {
+        JSONObject vault = createVault(entry("a", "1"));
+        assertFalse(VaultDelta.isDelta(vault));
+        assertTrue(VaultDelta.isDelta(VaultDelta.diff("parent.json", vault, vault).toJson()));
+    }
+
+    private static JSONObject createVault(JSONObject... entries) throws JSONException {
+        JSONArray array = new JSONArray();
+        for (JSONObject entry : entries) {
+            array.put(entry);
+        }
+
+        JSONObject obj = new JSONObject();
+        obj.put("version", 1);
+        obj.put("entries", array);
+        return obj;
+    }
+
+    private static JSONObject entry(String uuid, String secret) throws JSONException {
+        JSONObject info = new JSONObject();
+        info.put("secret", secret);
+
+        JSONObject obj = new JSONObject();
+        obj.put("uuid", uuid);
+        obj.put("info", info);
+        return obj;
+    }
+}
@@ -0,0 +1,152 @@
+package com.beemdevelopment.aegis.vault;
+
+import android.os.Build;
+
+import com.beemdevelopment.aegis.crypto.EntryKeys;
+import com.beemdevelopment.aegis.crypto.MasterKey;
+import com.beemdevelopment.aegis.otp.HotpInfo;
+import com.beemdevelopment.aegis.otp.OtpInfoException;
+
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+@Config(sdk = { Build.VERSION_CODES.P })
+@RunWith(RobolectricTestRunner.class)
+public class VaultEntryKeysTest {
+    private static final byte[] SECRET = "12345678901234567890".getBytes();
+
+    private MasterKey _key;
+    private Vault _vault;
+    private VaultEntry _entry;
+
+    @Before
+    public void init() throws OtpInfoException {
+        _key = MasterKey.generate();
+        _vault = new Vault();
+        _entry = new VaultEntry(new HotpInfo(SECRET, "SHA1", 6, 1), "name", "issuer");
+        _vault.getEntries().add(_entry);
+        _vault.setEntryKeys(EntryKeys.generate(_key));
+    }
+
+    @Test
+    public void testSealedRoundTrip() throws VaultException {
+        String otp = _entry.getInfo().getOtp();
+        _vault.sealSecrets();
+        assertTrue(_entry.getInfo().isSealed());
+        assertEquals(otp, _entry.getInfo().getOtp());
+
+        JSONObject obj = _vault.toJson();
+        assertFalse(obj.toString().contains(new String(SECRET)));
+        assertFalse(obj.toString().contains("\"secret\""));
+
+        // sealed secrets are written as-is, so the serialized vault doesn't change between saves
+        assertEquals(obj.toString(), _vault.toJson().toString());
+
+        Vault vault = Vault.fromJson(obj, _key);
+        VaultEntry entry = vault.getEntries().getByUUID(_entry.getUUID());
+        assertTrue(entry.getInfo().isSealed());
+        assertArrayEquals(SECRET, entry.getInfo().getSecret());
+        assertEquals(otp, entry.getInfo().getOtp());
+        assertEquals(_entry, entry);
+    }
+
+    @Test
+    public void testPlainJson() throws VaultException {
+        _vault.sealSecrets();
+
+        JSONObject obj = _vault.toPlainJson();
+        Vault vault = Vault.fromJson(obj);
+        assertNull(vault.getEntryKeys());
+        assertFalse(vault.getEntries().getByUUID(_entry.getUUID()).getInfo().isSealed());
+        assertEquals(_entry, vault.getEntries().getByUUID(_entry.getUUID()));
+    }
+
+    @Test
+    public void testWrongKey() throws VaultException {
+        _vault.sealSecrets();
+        JSONObject obj = _vault.toJson();
+
+        assertThrows(VaultException.class, () -> Vault.fromJson(obj));
+
+        Vault vault = Vault.fromJson(obj, MasterKey.generate());
+        assertThrows(RuntimeException.class, () -> vault.getEntries().getByUUID(_entry.getUUID()).getInfo().getSecret());
+    }
+
+    @Test
+    public void testResealing() throws VaultException {
+        _vault.sealSecrets();
+
+        // a new UUID or new entry keys require the secret to be sealed again
+        _entry.resetUUID();
+        MasterKey key = MasterKey.generate();
+        _vault.setEntryKeys(EntryKeys.generate(key));
+        _vault.sealSecrets();
+
+        Vault vault = Vault.fromJson(_vault.toJson(), key);
+        assertArrayEquals(SECRET, vault.getEntries().getByUUID(_entry.getUUID()).getInfo().getSecret());
+    }
+
+    @Test
+    public void testSetSecretUnseals() throws VaultException {
+        _vault.sealSecrets();
+
+        byte[] secret = "abcdefghijabcdefghij".getBytes();
+        _entry.getInfo().setSecret(secret);
+        assertFalse(_entry.getInfo().isSealed());
+        assertArrayEquals(secret, _entry.getInfo().getSecret());
+    }
+
+    @Test
+    public void testEquals() throws Exception {
+        _vault.sealSecrets();
+
+        // copies share the sealed secret, entries that were read again have an equal one
+        JSONObject obj = _vault.toJson();
+        Vault vault = Vault.fromJson(obj, _key);
+        VaultEntry entry = vault.getEntries().getByUUID(_entry.getUUID());
+        assertEquals(_entry, new VaultEntry(_entry));
+        assertEquals(_vault.getEntryKeys(), vault.getEntryKeys());
+        assertEquals(_entry, entry);
+
+        // equal keys don't require the secrets to be sealed again
+        assertEquals(obj.toString(), vault.toJson().toString());
+
+        // the same secret sealed twice has a different ciphertext, but is still equal
+        VaultEntry copy = new VaultEntry(_entry);
+        copy.getInfo().setSecret(SECRET.clone());
+        copy.sealSecret(_vault.getEntryKeys());
+        assertEquals(_entry, copy);
+
+        copy.getInfo().setSecret("abcdefghijabcdefghij".getBytes());
+        copy.sealSecret(_vault.getEntryKeys());
+        assertNotEquals(_entry, copy);
+
+        assertNotEquals(_vault.getEntryKeys(), EntryKeys.generate(_key));
+        assertNotEquals(_vault.getEntryKeys(), new EntryKeys(MasterKey.generate(), _vault.getEntryKeys().getSalt()));
+    }
+
+    @Test
+    public void testSecretIsCopied() throws VaultException {
+        // callers wipe the secret when they're done with it
+        Arrays.fill(_entry.getInfo().getSecret(), (byte) 0);
+        assertArrayEquals(SECRET, _entry.getInfo().getSecret());
+
+        _vault.sealSecrets();
+        Arrays.fill(_entry.getInfo().getSecret(), (byte) 0);
+        assertArrayEquals(SECRET, _entry.getInfo().getSecret());
+    }
+}
@@ -0,0 +1,88 @@
+package com.beemdevelopment.aegis.vault;
+
+import com.beemdevelopment.aegis.encoding.EncodingException;
+import com.beemdevelopment.aegis.otp.HotpInfo;
+import com.beemdevelopment.aegis.otp.OtpInfoException;
+import com.beemdevelopment.aegis.otp.SteamInfo;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class VaultEntryTest {
+    @Test
+    public void testCopy() throws OtpInfoException {
+        VaultEntry entry = new VaultEntry(new HotpInfo(new byte[] { 1, 2, 3, 4 }, "SHA256", 8, 5), "name", "issuer", "group");
+        entry.setIcon(new byte[] { 5, 6, 7 });
+
+        VaultEntry copy = new VaultEntry(entry);
+        assertEquals(entry, copy);
+        assertEquals(entry.getUUID(), copy.getUUID());
+        assertNotSame(entry.getInfo(), copy.getInfo());
+        assertNotSame(entry.getInfo().getSecret(), copy.getInfo().getSecret());
+        assertNotSame(entry.getIcon(), copy.getIcon());
+
+        // changes to the copy must not leak into the original
+        ((HotpInfo) copy.getInfo()).incrementCounter();
+        copy.getIcon()[0] = 0;
+        copy.getInfo().getSecret()[0] = 0;
+        assertEquals(5, ((HotpInfo) entry.getInfo()).getCounter());
+        assertArrayEquals(new byte[] { 5, 6, 7 }, entry.getIcon());
+        assertArrayEquals(new byte[] { 1, 2, 3, 4 }, entry.getInfo().getSecret());
+        assertNotEquals(entry, copy);
+    }
+
+    @Test
+    public void testIcon() throws Exception {
+        VaultEntry entry = new VaultEntry(new HotpInfo(new byte[] { 1, 2, 3, 4 }), "name", "issuer");
+        entry.setIcon(new byte[] { 5, 6, 7 });
+
+        // the icon is decoded again on every call, so callers can't change it
+        assertNotSame(entry.getIcon(), entry.getIcon());
+        entry.getIcon()[0] = 0;
+        assertArrayEquals(new byte[] { 5, 6, 7 }, entry.getIcon());
+
+        // the icon is written back as it was read, without decoding and encoding it again
+        JSONObject obj = entry.toJson();
+        String icon = obj.getString("icon");
+        VaultEntry read = VaultEntry.fromJson(obj);
+        assertSame(icon, read.toJson().getString("icon"));
+        assertArrayEquals(new byte[] { 5, 6, 7 }, read.getIcon());
+        assertEquals(3, read.getIconSize());
+        assertEquals(entry, read);
+
+        entry.setIcon(null);
+        assertFalse(entry.hasIcon());
+        assertNull(entry.getIcon());
+        assertEquals(0, entry.getIconSize());
+    }
+
+    @Test
+    public void testInvalidIcon() throws Exception {
+        VaultEntry entry = new VaultEntry(new HotpInfo(new byte[] { 1, 2, 3, 4 }), "name", "issuer");
+        entry.setIcon(new byte[] { 5, 6, 7, 8 });
+
+        JSONObject obj = entry.toJson();
+        obj.put("icon", "BQYHCA*=");
+        assertThrows(EncodingException.class, () -> VaultEntry.fromJson(obj));
+        obj.put("icon", "BQYHC");
+        assertThrows(EncodingException.class, () -> VaultEntry.fromJson(obj));
+    }
+
+    @Test
+    public void testCopyKeepsType() throws OtpInfoException {
+        VaultEntry entry = new VaultEntry(new SteamInfo(new byte[] { 1, 2, 3, 4 }));
+        VaultEntry copy = new VaultEntry(entry);
+        assertTrue(copy.getInfo() instanceof SteamInfo);
+        assertEquals(entry.getInfo(), copy.getInfo());
+    }
+}
@@ -0,0 +1,114 @@
+package com.beemdevelopment.aegis.vault;
+
+import android.os.Build;
+
+import com.beemdevelopment.aegis.encoding.Base64;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+@Config(sdk = { Build.VERSION_CODES.P })
+@RunWith(RobolectricTestRunner.class)
+public class VaultFileTest {
+    private JSONObject _vault;
+
+    @Before
+    public void init() throws JSONException {
+        StringBuilder icon = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            icon.append("aegis");
+        }
+
+        _vault = new JSONObject();
+        _vault.put("version", 1);
+        _vault.put("icon", icon.toString());
+    }
+
+    @Test
+    public void testCompressedRoundTrip() throws VaultFileException, JSONException {
+        VaultFile file = new VaultFile();
+        file.setContent(_vault, true);
+
+        byte[] bytes = file.toBytes();
+        JSONObject obj = new JSONObject(new String(bytes));
+        assertEquals(VaultFile.VERSION, obj.getInt("version"));
+        assertEquals(VaultFile.COMPRESSION_DEFLATE, obj.getJSONObject("header").getString("compression"));
+        assertTrue(bytes.length < _vault.toString().length());
+
+        VaultFile readFile = VaultFile.fromBytes(bytes);
+        assertFalse(readFile.isEncrypted());
+        assertTrue(readFile.getHeader().isCompressed());
+        assertEquals(_vault.toString(), readFile.getContent().toString());
+    }
+
+    @Test
+    public void testCompressedEncryptedRoundTrip() throws VaultFileException {
+        VaultFileCredentials creds = new VaultFileCredentials();
+        VaultFile file = new VaultFile();
+        file.setContent(_vault, creds, true);
+
+        VaultFile readFile = VaultFile.fromBytes(file.toBytes());
+        assertTrue(readFile.isEncrypted());
+        assertTrue(readFile.getHeader().isCompressed());
+        assertEquals(_vault.toString(), readFile.getContent(creds).toString());
+    }
+
+    @Test
+    public void testUncompressedCompatibility() throws VaultFileException, JSONException {
+        VaultFile file = new VaultFile();
+        file.setContent(_vault);
+
+        JSONObject obj = new JSONObject(new String(file.toBytes()));
+        assertEquals(1, obj.getInt("version"));
+        assertFalse(obj.getJSONObject("header").has("compression"));
+        assertEquals(_vault.toString(), obj.getJSONObject("db").toString());
+    }
+
+    @Test
+    public void testUnsupportedCompression() throws JSONException {
+        VaultFile file = new VaultFile();
+        file.setContent(_vault, true);
+
+        JSONObject obj = file.toJson();
+        obj.getJSONObject("header").put("compression", "zstd");
+        assertThrows(VaultFileException.class, () -> VaultFile.fromJson(obj));
+    }
+
+    @Test
+    public void testDecompressionBomb() throws IOException, JSONException {
+        // valid JSON padded with whitespace, which deflates to about a thousandth of its size
+        ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflateStream = new DeflaterOutputStream(outStream)) {
+            byte[] spaces = new byte[1024 * 1024];
+            Arrays.fill(spaces, (byte) ' ');
+
+            deflateStream.write(_vault.toString().getBytes(StandardCharsets.UTF_8));
+            for (int i = 0; i < 64; i++) {
+                deflateStream.write(spaces);
+            }
+        }
+
+        VaultFile file = new VaultFile();
+        file.setContent(_vault, true);
+
+        JSONObject obj = file.toJson();
+        obj.put("db", Base64.encode(outStream.toByteArray()));
+        assertThrows(VaultFileException.class, () -> VaultFile.fromJson(obj));
+    }
+}
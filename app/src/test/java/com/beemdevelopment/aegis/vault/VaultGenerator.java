@@ -0,0 +1,150 @@
+package com.beemdevelopment.aegis.vault;
+
+import com.beemdevelopment.aegis.encoding.EncodingException;
+import com.beemdevelopment.aegis.otp.HotpInfo;
+import com.beemdevelopment.aegis.otp.OtpInfo;
+import com.beemdevelopment.aegis.otp.OtpInfoException;
+import com.beemdevelopment.aegis.otp.SteamInfo;
+import com.beemdevelopment.aegis.otp.TotpInfo;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Generates synthetic vaults for tests that need more than a handful of entries. The
+ * output only depends on the seed and the options, down to the UUIDs of the entries, so
+ * that failures and measurements can be reproduced.
+ */
+public class VaultGenerator {
+    private static final String[] ALGORITHMS = { "SHA1", "SHA256", "SHA512" };
+    private static final String[] ISSUERS = {
+            "Google", "GitHub", "GitLab", "Microsoft", "Amazon", "Dropbox", "Facebook", "Twitter",
+            "Reddit", "Discord", "Slack", "Steam", "Bitwarden", "Cloudflare", "DigitalOcean",
+            "Mozilla", "Proton", "Tutanota", "Nextcloud", "Coinbase", "Kraken", "PayPal", "eBay",
+            "npm", "PyPI", "Docker Hub", "Atlassian", "Heroku", "Linode", "OVH", "Hetzner",
+            "Ubiquiti", "Synology", "Épicerie", "Ørsted", "Straße", "Zürich", "東京", "Ελλάδα"
+    };
+
+    private final Random _random;
+    private int _groupCount = 8;
+    private int _iconMinSize;
+    private int _iconMaxSize;
+    private float _iconRatio;
+    private String[] _types = { TotpInfo.ID, TotpInfo.ID, TotpInfo.ID, TotpInfo.ID, HotpInfo.ID, SteamInfo.ID };
+
+    public VaultGenerator(long seed) {
+        _random = new Random(seed);
+    }
+
+    /**
+     * Sets the number of distinct groups the entries are spread over. Some entries are
+     * always left without a group. A count of 0 disables groups entirely.
+     */
+    public VaultGenerator setGroupCount(int count) {
+        _groupCount = count;
+        return this;
+    }
+
+    /**
+     * Gives the given ratio of entries an icon of a random size between minSize and
+     * maxSize bytes. The icons consist of random bytes, so they don't compress, just like
+     * real PNG and JPEG files.
+     */
+    public VaultGenerator setIcons(float ratio, int minSize, int maxSize) {
+        if (ratio < 0 || ratio > 1 || minSize < 0 || maxSize < minSize) {
+            throw new IllegalArgumentException("Bad icon options");
+        }
+
+        _iconRatio = ratio;
+        _iconMinSize = minSize;
+        _iconMaxSize = maxSize;
+        return this;
+    }
+
+    /**
+     * Sets the OTP types to pick from. Every type is equally likely, so a type can be
+     * listed more than once to make it more common.
+     */
+    public VaultGenerator setOtpTypes(String... types) {
+        if (types.length == 0) {
+            throw new IllegalArgumentException("No OTP types");
+        }
+
+        _types = types;
+        return this;
+    }
+
+    public Vault generateVault(int entryCount) {
+        Vault vault = new Vault();
+        for (VaultEntry entry : generateEntries(entryCount)) {
+            vault.getEntries().add(entry);
+        }
+        return vault;
+    }
+
+    public List<VaultEntry> generateEntries(int count) {
+        List<VaultEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            entries.add(generateEntry(i));
+        }
+        return entries;
+    }
+
+    public VaultEntry generateEntry(int index) {
+        String issuer = ISSUERS[_random.nextInt(ISSUERS.length)];
+        if (_random.nextBoolean()) {
+            issuer = String.format("%s %d", issuer, _random.nextInt(100));
+        }
+        String name = String.format("user%d@example.com", index);
+        String group = null;
+        if (_groupCount > 0 && _random.nextInt(4) != 0) {
+            group = String.format("Group %d", _random.nextInt(_groupCount));
+        }
+
+        VaultEntry entry = new VaultEntry(generateInfo(), name, issuer, group);
+        if (_iconRatio > 0 && _random.nextFloat() < _iconRatio) {
+            entry.setIcon(generateBytes(_iconMinSize + _random.nextInt(_iconMaxSize - _iconMinSize + 1)));
+        }
+
+        // entries get a random UUID by default, so replace it with one derived from the seed
+        try {
+            JSONObject obj = entry.toJson();
+            obj.put("uuid", new UUID(_random.nextLong(), _random.nextLong()).toString());
+            return VaultEntry.fromJson(obj);
+        } catch (JSONException | OtpInfoException | EncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public byte[] generateBytes(int length) {
+        byte[] bytes = new byte[length];
+        _random.nextBytes(bytes);
+        return bytes;
+    }
+
+    private OtpInfo generateInfo() {
+        byte[] secret = generateBytes(20);
+        String algo = ALGORITHMS[_random.nextInt(ALGORITHMS.length)];
+        String type = _types[_random.nextInt(_types.length)];
+
+        try {
+            switch (type) {
+                case TotpInfo.ID:
+                    return new TotpInfo(secret, algo, _random.nextBoolean() ? 6 : 8, _random.nextInt(4) == 0 ? 60 : 30);
+                case HotpInfo.ID:
+                    return new HotpInfo(secret, algo, 6, _random.nextInt(1000));
+                case SteamInfo.ID:
+                    return new SteamInfo(secret);
+                default:
+                    throw new IllegalArgumentException(String.format("Unsupported OTP type: %s", type));
+            }
+        } catch (OtpInfoException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.beemdevelopment.aegis.vault;
+
+import android.os.Build;
+
+import com.beemdevelopment.aegis.SortCategory;
+import com.beemdevelopment.aegis.ui.views.EntryAdapter;
+
+import org.json.JSONObject;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Measures how long the common operations on a vault take, and how much they allocate, for
+ * vaults with a large number of entries. A test fails if an operation exceeds its budget.
+ *
+ * The measurements depend on the machine and take a while, so they're opt-in. By default,
+ * the operations only run once on a small vault, to check that they work at all. The
+ * measurements are enabled by passing the sizes to test with, along with any of the other
+ * system properties below. Gradle passes them on if they're given as project properties
+ * (e.g. ./gradlew test -Paegis.scale.sizes=1000,10000,50000):
+ * - aegis.scale.sizes: the entry counts to test with
+ * - aegis.scale.runs: the number of measured runs, of which the best one is kept
+ * - aegis.scale.budget.factor: a multiplier for all budgets, for slow machines
+ * - aegis.scale.budget.[operation].time: the time budget in milliseconds per 1000 entries
+ * - aegis.scale.budget.[operation].alloc: the allocation budget in bytes per entry
+ */
+@Config(sdk = { Build.VERSION_CODES.P })
+@RunWith(RobolectricTestRunner.class)
+public class VaultScaleTest {
+    private static final long SEED = 0x5eedL;
+    private static final String[] SEARCH_QUERIES = { "g", "hub", "user42", "zürich", "nothing matches this" };
+
+    private static final Budget ENCRYPT = new Budget("encrypt", 500, 32 * 1024);
+    private static final Budget DECRYPT = new Budget("decrypt", 500, 32 * 1024);
+    private static final Budget SAVE = new Budget("save", 2000, 64 * 1024);
+    private static final Budget LOAD = new Budget("load", 2000, 64 * 1024);
+    private static final Budget SEARCH = new Budget("search", 100, 4 * 1024);
+    private static final Budget SORT = new Budget("sort", 100, 1024);
+
+    private static final int DEFAULT_SIZE = 100;
+
+    private static int[] _sizes;
+    private static int _runs;
+    private static boolean _measure;
+
+    @BeforeClass
+    public static void init() {
+        String sizesProp = System.getProperty("aegis.scale.sizes");
+        _measure = sizesProp != null;
+        if (!_measure) {
+            _sizes = new int[] { DEFAULT_SIZE };
+            return;
+        }
+
+        String[] sizes = sizesProp.split(",");
+        _sizes = new int[sizes.length];
+        for (int i = 0; i < sizes.length; i++) {
+            _sizes[i] = Integer.parseInt(sizes[i].trim());
+        }
+        _runs = Integer.getInteger("aegis.scale.runs", 3);
+    }
+
+    @Test
+    public void testEncryptDecrypt() throws Exception {
+        for (int size : _sizes) {
+            VaultFileCredentials creds = new VaultFileCredentials();
+            JSONObject obj = generateVault(size).toJson();
+
+            VaultFile file = new VaultFile();
+            measure(ENCRYPT, size, () -> file.setContent(obj, creds));
+            JSONObject[] content = new JSONObject[1];
+            measure(DECRYPT, size, () -> content[0] = file.getContent(creds));
+            assertEquals(size, content[0].getJSONArray("entries").length());
+        }
+    }
+
+    @Test
+    public void testSaveLoad() throws Exception {
+        for (int size : _sizes) {
+            VaultFileCredentials creds = new VaultFileCredentials();
+            Vault vault = generateVault(size);
+
+            // the same steps VaultManager takes to write and read the vault
+            byte[][] bytes = new byte[1][];
+            measure(SAVE, size, () -> {
+                VaultFile file = new VaultFile();
+                file.setContent(vault.toJson(), creds);
+                bytes[0] = file.toBytes();
+            });
+
+            Vault[] loaded = new Vault[1];
+            measure(LOAD, size, () -> {
+                VaultFile file = VaultFile.fromBytes(bytes[0]);
+                loaded[0] = Vault.fromJson(file.getContent(creds), creds.getKey());
+            });
+            assertEquals(size, loaded[0].getEntries().getValues().size());
+        }
+    }
+
+    @Test
+    public void testSearch() throws Exception {
+        for (int size : _sizes) {
+            List<VaultEntry> entries = new ArrayList<>(generateVault(size).getEntries().getValues());
+            List<String> groups = Collections.singletonList("Group 1");
+
+            int[] shown = new int[1];
+            measure(SEARCH, size, () -> {
+                shown[0] = 0;
+                for (String query : SEARCH_QUERIES) {
+                    for (VaultEntry entry : entries) {
+                        if (!EntryAdapter.isEntryFiltered(entry, Collections.emptyList(), query)) {
+                            shown[0]++;
+                        }
+                    }
+                }
+                for (VaultEntry entry : entries) {
+                    if (!EntryAdapter.isEntryFiltered(entry, groups, null)) {
+                        shown[0]++;
+                    }
+                }
+            });
+            assertTrue(shown[0] > 0);
+        }
+    }
+
+    @Test
+    public void testSort() throws Exception {
+        for (int size : _sizes) {
+            List<VaultEntry> entries = new ArrayList<>(generateVault(size).getEntries().getValues());
+
+            List<VaultEntry> sorted = new ArrayList<>(entries.size());
+            measure(SORT, size, () -> {
+                for (SortCategory category : SortCategory.values()) {
+                    Comparator<VaultEntry> comparator = category.getComparator();
+                    if (comparator != null) {
+                        sorted.clear();
+                        sorted.addAll(entries);
+                        Collections.sort(sorted, comparator);
+                    }
+                }
+            });
+            assertEquals(size, sorted.size());
+        }
+    }
+
+    private static Vault generateVault(int size) {
+        return new VaultGenerator(SEED)
+                .setGroupCount(16)
+                .setIcons(0.1f, 1024, 8 * 1024)
+                .generateVault(size);
+    }
+
+    private static void measure(Budget budget, int size, Operation op) throws Exception {
+        if (!_measure) {
+            op.run();
+            return;
+        }
+
+        // warm up first, so that class loading and JIT compilation don't count
+        op.run();
+
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        com.sun.management.ThreadMXBean allocBean = null;
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            allocBean = (com.sun.management.ThreadMXBean) bean;
+            if (!allocBean.isThreadAllocatedMemorySupported() || !allocBean.isThreadAllocatedMemoryEnabled()) {
+                allocBean = null;
+            }
+        }
+
+        long bestTime = Long.MAX_VALUE;
+        long bestAlloc = Long.MAX_VALUE;
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < _runs; i++) {
+            long allocStart = allocBean != null ? allocBean.getThreadAllocatedBytes(threadId) : 0;
+            long start = System.nanoTime();
+            op.run();
+            long time = System.nanoTime() - start;
+            long alloc = allocBean != null ? allocBean.getThreadAllocatedBytes(threadId) - allocStart : 0;
+
+            bestTime = Math.min(bestTime, time);
+            bestAlloc = Math.min(bestAlloc, alloc);
+        }
+
+        long timeMillis = bestTime / 1000000;
+        System.out.println(String.format("%s (%d entries): %d ms, %d KiB allocated%s",
+                budget.getName(), size, timeMillis, bestAlloc / 1024, allocBean == null ? " (unavailable)" : ""));
+
+        long timeBudget = budget.getTimeBudget(size);
+        if (timeMillis > timeBudget) {
+            fail(String.format("%s (%d entries) took %d ms, exceeding the budget of %d ms",
+                    budget.getName(), size, timeMillis, timeBudget));
+        }
+
+        long allocBudget = budget.getAllocBudget(size);
+        if (allocBean != null && bestAlloc > allocBudget) {
+            fail(String.format("%s (%d entries) allocated %d KiB, exceeding the budget of %d KiB",
+                    budget.getName(), size, bestAlloc / 1024, allocBudget / 1024));
+        }
+    }
+
+    private interface Operation {
+        void run() throws Exception;
+    }
+
+    private static class Budget {
+        private final String _name;
+        private final long _timePerThousand;
+        private final long _allocPerEntry;
+
+        public Budget(String name, long timePerThousand, long allocPerEntry) {
+            _name = name;
+            _timePerThousand = Long.getLong(String.format("aegis.scale.budget.%s.time", name), timePerThousand);
+            _allocPerEntry = Long.getLong(String.format("aegis.scale.budget.%s.alloc", name), allocPerEntry);
+        }
+
+        public String getName() {
+            return _name;
+        }
+
+        public long getTimeBudget(int size) {
+            // leave some room for fixed costs, so that small vaults don't get a tiny budget
+            return (long) (Math.max(size, 1000) * _timePerThousand / 1000 * getFactor());
+        }
+
+        public long getAllocBudget(int size) {
+            return (long) (Math.max(size, 1000) * _allocPerEntry * getFactor());
+        }
+
+        private static double getFactor() {
+            return Double.parseDouble(System.getProperty("aegis.scale.budget.factor", "1"));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.beemdevelopment.aegis.benchmark;
+
+import com.beemdevelopment.aegis.encoding.Base32;
+import com.beemdevelopment.aegis.encoding.Base64;
+import com.beemdevelopment.aegis.encoding.EncodingException;
+import com.beemdevelopment.aegis.encoding.Hex;
+import com.beemdevelopment.aegis.vault.VaultGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EncodingBenchmark {
+    // the size of a secret, the size of a typical icon and the size of a large icon
+    @Param({"20", "4096", "65536"})
+    public int size;
+
+    private byte[] _data;
+    private String _base32;
+    private String _base64;
+    private String _hex;
+    private byte[] _base64Bytes;
+    private byte[] _buffer;
+
+    @Setup
+    public void setup() {
+        _data = new VaultGenerator(0).generateBytes(size);
+        _base32 = Base32.encode(_data);
+        _base64 = Base64.encode(_data);
+        _hex = Hex.encode(_data);
+        _base64Bytes = _base64.getBytes(StandardCharsets.US_ASCII);
+        _buffer = new byte[Base64.getEncodedLength(size)];
+    }
+
+    @Benchmark
+    public String base32Encode() {
+        return Base32.encode(_data);
+    }
+
+    @Benchmark
+    public byte[] base32Decode() throws EncodingException {
+        return Base32.decode(_base32);
+    }
+
+    @Benchmark
+    public String base64Encode() {
+        return Base64.encode(_data);
+    }
+
+    @Benchmark
+    public byte[] base64Decode() throws EncodingException {
+        return Base64.decode(_base64);
+    }
+
+    @Benchmark
+    public int base64EncodeToBuffer() {
+        return Base64.encode(_data, 0, _data.length, _buffer, 0);
+    }
+
+    @Benchmark
+    public int base64DecodeToBuffer() throws EncodingException {
+        return Base64.decode(_base64Bytes, 0, _base64Bytes.length, _buffer, 0);
+    }
+
+    @Benchmark
+    public String hexEncode() {
+        return Hex.encode(_data);
+    }
+
+    @Benchmark
+    public byte[] hexDecode() throws EncodingException {
+        return Hex.decode(_hex);
+    }
+}
@@ -0,0 +1,52 @@
+package com.beemdevelopment.aegis.benchmark;
+
+import com.beemdevelopment.aegis.crypto.CryptResult;
+import com.beemdevelopment.aegis.crypto.MasterKey;
+import com.beemdevelopment.aegis.crypto.MasterKeyException;
+import com.beemdevelopment.aegis.vault.VaultGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MasterKeyBenchmark {
+    @Param({"64", "4096", "65536", "1048576"})
+    public int size;
+
+    private MasterKey _key;
+    private byte[] _data;
+    private CryptResult _encrypted;
+
+    @Setup
+    public void setup() throws MasterKeyException {
+        _key = MasterKey.generate();
+        _data = new VaultGenerator(0).generateBytes(size);
+        _encrypted = _key.encrypt(_data);
+    }
+
+    @Benchmark
+    public CryptResult encrypt() throws MasterKeyException {
+        return _key.encrypt(_data);
+    }
+
+    @Benchmark
+    public CryptResult decrypt() throws MasterKeyException {
+        return _key.decrypt(_encrypted.getData(), _encrypted.getParams());
+    }
+}
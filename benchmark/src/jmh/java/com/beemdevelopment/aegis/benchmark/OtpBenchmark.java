@@ -0,0 +1,85 @@
+package com.beemdevelopment.aegis.benchmark;
+
+import com.beemdevelopment.aegis.crypto.otp.HMAC;
+import com.beemdevelopment.aegis.crypto.otp.HOTP;
+import com.beemdevelopment.aegis.crypto.otp.OTP;
+import com.beemdevelopment.aegis.crypto.otp.TOTP;
+import com.beemdevelopment.aegis.vault.VaultGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OtpBenchmark {
+    @Param({"HmacSHA1", "HmacSHA256", "HmacSHA512"})
+    public String algorithm;
+
+    private byte[] _secret;
+    private HMAC _hmac;
+    private long _counter;
+
+    @Setup
+    public void setup() throws InvalidKeyException, NoSuchAlgorithmException {
+        _secret = new VaultGenerator(0).generateBytes(20);
+        _hmac = HMAC.create(_secret, algorithm);
+    }
+
+    /**
+     * The baseline: a JCA Mac that is set up from scratch for every code, which is how
+     * codes were generated before the keyed HMAC states were reused.
+     */
+    @Benchmark
+    public byte[] hotpMac() throws InvalidKeyException, NoSuchAlgorithmException {
+        byte[] counterBytes = new byte[8];
+        long counter = _counter++;
+        for (int i = counterBytes.length - 1; i >= 0; i--) {
+            counterBytes[i] = (byte) counter;
+            counter >>>= 8;
+        }
+
+        Mac mac = Mac.getInstance(algorithm);
+        mac.init(new SecretKeySpec(_secret, "RAW"));
+        return mac.doFinal(counterBytes);
+    }
+
+    @Benchmark
+    public OTP hotp() throws InvalidKeyException, NoSuchAlgorithmException {
+        return HOTP.generateOTP(_secret, algorithm, 6, _counter++);
+    }
+
+    @Benchmark
+    public OTP hotpPrecomputed() {
+        return HOTP.generateOTP(_hmac, 6, _counter++);
+    }
+
+    @Benchmark
+    public OTP totpPrecomputed() {
+        return TOTP.generateOTP(_hmac, 6, 30, 1_600_000_000L + _counter++);
+    }
+
+    @Benchmark
+    public String steamPrecomputed() {
+        return TOTP.generateOTP(_hmac, 5, 30, 1_600_000_000L + _counter++).toSteamString();
+    }
+}
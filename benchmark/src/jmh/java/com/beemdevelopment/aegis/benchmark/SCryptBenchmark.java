@@ -0,0 +1,47 @@
+package com.beemdevelopment.aegis.benchmark;
+
+import com.beemdevelopment.aegis.crypto.CryptoUtils;
+import com.beemdevelopment.aegis.crypto.SCryptParameters;
+import com.beemdevelopment.aegis.vault.VaultGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SCryptBenchmark {
+    // the last value is the one that is used for new password slots
+    @Param({"4096", "16384", "32768"})
+    public int n;
+
+    private char[] _password;
+    private SCryptParameters _params;
+
+    @Setup
+    public void setup() {
+        _password = "benchmark password".toCharArray();
+        _params = new SCryptParameters(n, CryptoUtils.CRYPTO_SCRYPT_r, CryptoUtils.CRYPTO_SCRYPT_p, new VaultGenerator(0).generateBytes(32));
+    }
+
+    @Benchmark
+    public SecretKey deriveKey() {
+        return CryptoUtils.deriveKey(_password, _params);
+    }
+}
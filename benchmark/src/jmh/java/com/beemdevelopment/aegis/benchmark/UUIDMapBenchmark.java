@@ -0,0 +1,80 @@
+package com.beemdevelopment.aegis.benchmark;
+
+import com.beemdevelopment.aegis.util.UUIDMap;
+import com.beemdevelopment.aegis.vault.VaultEntry;
+import com.beemdevelopment.aegis.vault.VaultGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UUIDMapBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int entries;
+
+    private List<VaultEntry> _entries;
+    private UUIDMap<VaultEntry> _map;
+    private VaultEntry _first;
+    private VaultEntry _middle;
+    private VaultEntry _last;
+
+    @Setup
+    public void setup() {
+        _entries = new VaultGenerator(0).generateEntries(entries);
+        _map = new UUIDMap<>();
+        _map.addAll(_entries);
+
+        _first = _entries.get(0);
+        _middle = _entries.get(_entries.size() / 2);
+        _last = _entries.get(_entries.size() - 1);
+    }
+
+    /**
+     * Adds all entries to an empty map, one by one.
+     */
+    @Benchmark
+    public UUIDMap<VaultEntry> add() {
+        UUIDMap<VaultEntry> map = new UUIDMap<>();
+        for (VaultEntry entry : _entries) {
+            map.add(entry);
+        }
+        return map;
+    }
+
+    /**
+     * Removes an entry from the map and adds it back, so that the size of the map stays
+     * the same across invocations.
+     */
+    @Benchmark
+    public UUIDMap<VaultEntry> removeAndAdd() {
+        _map.remove(_middle);
+        _map.add(_middle);
+        return _map;
+    }
+
+    /**
+     * Swaps the first and the last entry, which is what reordering the entry list does.
+     */
+    @Benchmark
+    public UUIDMap<VaultEntry> swap() {
+        _map.swap(_first, _last);
+        return _map;
+    }
+}
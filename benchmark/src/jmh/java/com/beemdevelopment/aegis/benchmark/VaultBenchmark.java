@@ -0,0 +1,91 @@
+package com.beemdevelopment.aegis.benchmark;
+
+import com.beemdevelopment.aegis.vault.Vault;
+import com.beemdevelopment.aegis.vault.VaultException;
+import com.beemdevelopment.aegis.vault.VaultFile;
+import com.beemdevelopment.aegis.vault.VaultFileCredentials;
+import com.beemdevelopment.aegis.vault.VaultFileException;
+import com.beemdevelopment.aegis.vault.VaultGenerator;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class VaultBenchmark {
+    // the size of a typical icon
+    private static final int ICON_SIZE = 4 * 1024;
+
+    @Param({"100", "1000", "10000"})
+    public int entries;
+
+    @Param({"false", "true"})
+    public boolean icons;
+
+    private Vault _vault;
+    private JSONObject _vaultJson;
+    private VaultFileCredentials _creds;
+    private VaultFile _file;
+    private byte[] _fileBytes;
+
+    @Setup
+    public void setup() throws VaultFileException {
+        _vault = new VaultGenerator(0)
+                .setIcons(icons ? 1 : 0, ICON_SIZE, ICON_SIZE)
+                .generateVault(entries);
+        _vaultJson = _vault.toJson();
+        _creds = new VaultFileCredentials();
+
+        _file = new VaultFile();
+        _file.setContent(_vaultJson, _creds);
+        _fileBytes = _file.toBytes();
+    }
+
+    @Benchmark
+    public JSONObject toJson() {
+        return _vault.toJson();
+    }
+
+    @Benchmark
+    public Vault fromJson() throws VaultException {
+        return Vault.fromJson(_vaultJson);
+    }
+
+    @Benchmark
+    public byte[] fileToBytes() {
+        return _file.toBytes();
+    }
+
+    @Benchmark
+    public VaultFile fileFromBytes() throws VaultFileException {
+        return VaultFile.fromBytes(_fileBytes);
+    }
+
+    @Benchmark
+    public VaultFile fileEncrypt() throws VaultFileException {
+        VaultFile file = new VaultFile();
+        file.setContent(_vaultJson, _creds);
+        return file;
+    }
+
+    @Benchmark
+    public JSONObject fileDecrypt() throws VaultFileException {
+        return _file.getContent(_creds);
+    }
+}
@@ -0,0 +1,99 @@
+package com.beemdevelopment.aegis.cli;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The arguments of a command: positional arguments, options that take a value
+ * (--name value) and flags (--name).
+ */
+public class Arguments {
+    private final List<String> _positional = new ArrayList<>();
+    private final Map<String, String> _options = new HashMap<>();
+    private final Set<String> _flags = new HashSet<>();
+
+    private Arguments() {
+
+    }
+
+    /**
+     * Parses the given arguments. Only the given option and flag names are accepted.
+     */
+    public static Arguments parse(String[] args, Collection<String> options, Collection<String> flags) throws UsageException {
+        Arguments res = new Arguments();
+
+        List<String> list = Arrays.asList(args);
+        for (int i = 0; i < list.size(); i++) {
+            String arg = list.get(i);
+            if (!arg.startsWith("--")) {
+                res._positional.add(arg);
+                continue;
+            }
+
+            String name = arg.substring(2);
+            if (flags.contains(name)) {
+                res._flags.add(name);
+            } else if (options.contains(name)) {
+                if (i + 1 >= list.size()) {
+                    throw new UsageException(String.format("Option --%s requires a value", name));
+                }
+                res._options.put(name, list.get(++i));
+            } else {
+                throw new UsageException(String.format("Unknown option: %s", arg));
+            }
+        }
+
+        return res;
+    }
+
+    public String getPositional(int index, String name) throws UsageException {
+        if (index >= _positional.size()) {
+            throw new UsageException(String.format("Missing argument: %s", name));
+        }
+        return _positional.get(index);
+    }
+
+    public int getPositionalCount() {
+        return _positional.size();
+    }
+
+    public String getOption(String name) {
+        return _options.get(name);
+    }
+
+    public int getIntOption(String name, int def) throws UsageException {
+        String value = _options.get(name);
+        if (value == null) {
+            return def;
+        }
+
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new UsageException(String.format("Option --%s requires a number, got: %s", name, value));
+        }
+    }
+
+    public long getLongOption(String name, long def) throws UsageException {
+        String value = _options.get(name);
+        if (value == null) {
+            return def;
+        }
+
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new UsageException(String.format("Option --%s requires a number, got: %s", name, value));
+        }
+    }
+
+    public boolean hasFlag(String name) {
+        return _flags.contains(name);
+    }
+}
@@ -0,0 +1,118 @@
+package com.beemdevelopment.aegis.cli;
+
+import com.beemdevelopment.aegis.vault.Vault;
+import com.beemdevelopment.aegis.vault.VaultEntry;
+import com.beemdevelopment.aegis.vault.VaultFile;
+import com.beemdevelopment.aegis.vault.VaultFileCredentials;
+import com.beemdevelopment.aegis.vault.VaultFileException;
+
+import org.json.JSONObject;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Repeatedly goes through the steps of unlocking, reading and saving a vault, and reports
+ * how long each of them takes.
+ */
+public class BenchCommand extends Command {
+    private static final String OPTION_ITERATIONS = "iterations";
+    private static final String FLAG_SKIP_KDF = "skip-kdf";
+
+    @Override
+    public String getName() {
+        return "bench";
+    }
+
+    @Override
+    public String getUsage() {
+        return "bench <file> [--iterations <count>] [--skip-kdf] [--password-file <file>]";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Measure how long it takes to unlock, load and save a vault";
+    }
+
+    @Override
+    public Collection<String> getOptions() {
+        return Arrays.asList(OPTION_PASSWORD_FILE, OPTION_ITERATIONS);
+    }
+
+    @Override
+    public Collection<String> getFlags() {
+        return Collections.singletonList(FLAG_SKIP_KDF);
+    }
+
+    @Override
+    public int run(Arguments args, PrintStream out) throws CliException {
+        Path path = Paths.get(args.getPositional(0, "file"));
+        int iterations = args.getIntOption(OPTION_ITERATIONS, 5);
+        if (iterations < 1) {
+            throw new UsageException("The number of iterations must be larger than 0");
+        }
+
+        // the first run warms up the JVM, so its timings are thrown away
+        VaultLoader warmupLoader = new VaultLoader(new Timings());
+        VaultFile warmupFile = warmupLoader.read(path);
+        char[] password = warmupFile.isEncrypted() ? readPassword(args) : null;
+        VaultFileCredentials creds = warmupFile.isEncrypted() ? warmupLoader.unlock(warmupFile, password).getCredentials() : null;
+        Vault warmupVault = runOnce(warmupLoader, new Timings(), path, password, creds, false);
+
+        out.println(String.format("Entries: %d", warmupVault.getEntries().getValues().size()));
+        out.println(String.format("Encrypted: %s", warmupFile.isEncrypted() ? "yes" : "no"));
+        out.println(String.format("Compressed: %s", warmupFile.getHeader().isCompressed() ? "yes" : "no"));
+
+        Timings timings = new Timings();
+        VaultLoader loader = new VaultLoader(timings);
+        boolean deriveKey = !args.hasFlag(FLAG_SKIP_KDF);
+        for (int i = 0; i < iterations; i++) {
+            runOnce(loader, timings, path, password, creds, deriveKey);
+        }
+
+        timings.print(out);
+        return EXIT_OK;
+    }
+
+    private static Vault runOnce(VaultLoader loader, Timings timings, Path path, char[] password, VaultFileCredentials creds, boolean deriveKey)
+            throws CliException {
+        long start = System.nanoTime();
+        VaultFile file = loader.read(path);
+        if (file.isEncrypted() && deriveKey) {
+            creds = loader.unlock(file, password).getCredentials();
+        }
+
+        JSONObject obj = loader.decrypt(file, creds);
+        Vault vault = loader.parse(obj, creds);
+
+        timings.time("generate codes", () -> {
+            for (VaultEntry entry : vault.getEntries()) {
+                entry.getInfo().getOtp();
+            }
+            return null;
+        });
+
+        JSONObject newObj = timings.time("serialize", vault::toJson);
+        VaultFileCredentials fileCreds = creds;
+        timings.time("encrypt", () -> {
+            try {
+                VaultFile newFile = new VaultFile();
+                if (fileCreds != null) {
+                    newFile.setContent(newObj, fileCreds, file.getHeader().isCompressed());
+                } else {
+                    newFile.setContent(newObj, file.getHeader().isCompressed());
+                }
+                return newFile.toBytes();
+            } catch (VaultFileException e) {
+                throw new CliException("Unable to encrypt the vault", e);
+            }
+        });
+
+        timings.add("total", System.nanoTime() - start);
+        return vault;
+    }
+}
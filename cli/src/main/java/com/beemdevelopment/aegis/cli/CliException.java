@@ -0,0 +1,14 @@
+package com.beemdevelopment.aegis.cli;
+
+/**
+ * An error that is reported to the user as-is, without a stack trace.
+ */
+public class CliException extends Exception {
+    public CliException(String message) {
+        super(message);
+    }
+
+    public CliException(String message, Throwable cause) {
+        super(String.format("%s: %s", message, cause.getMessage()), cause);
+    }
+}
@@ -0,0 +1,50 @@
+package com.beemdevelopment.aegis.cli;
+
+import com.beemdevelopment.aegis.vault.Vault;
+import com.beemdevelopment.aegis.vault.VaultEntry;
+import com.beemdevelopment.aegis.vault.VaultFile;
+import com.beemdevelopment.aegis.vault.VaultFileCredentials;
+
+import org.json.JSONObject;
+
+import java.io.PrintStream;
+import java.nio.file.Paths;
+
+/**
+ * Prints the current code of every entry in a vault, separated by tabs.
+ */
+public class CodesCommand extends Command {
+    @Override
+    public String getName() {
+        return "codes";
+    }
+
+    @Override
+    public String getUsage() {
+        return "codes <file> [--password-file <file>]";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Print the current code of every entry in a vault";
+    }
+
+    @Override
+    public int run(Arguments args, PrintStream out) throws CliException {
+        VaultLoader loader = new VaultLoader(new Timings());
+        VaultFile file = loader.read(Paths.get(args.getPositional(0, "file")));
+
+        VaultFileCredentials creds = null;
+        if (file.isEncrypted()) {
+            creds = loader.unlock(file, readPassword(args)).getCredentials();
+        }
+
+        JSONObject obj = loader.decrypt(file, creds);
+        Vault vault = loader.parse(obj, creds);
+        for (VaultEntry entry : vault.getEntries()) {
+            out.println(String.format("%s\t%s\t%s", entry.getIssuer(), entry.getName(), entry.getInfo().getOtp()));
+        }
+
+        return EXIT_OK;
+    }
+}
@@ -0,0 +1,121 @@
+package com.beemdevelopment.aegis.cli;
+
+import java.io.Console;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+public abstract class Command {
+    public static final int EXIT_OK = 0;
+    public static final int EXIT_FAILURE = 1;
+    public static final int EXIT_USAGE = 2;
+
+    protected static final String OPTION_PASSWORD_FILE = "password-file";
+    protected static final String FLAG_FORCE = "force";
+
+    private static final String PASSWORD_ENV = "AEGIS_PASSWORD";
+
+    public abstract String getName();
+
+    public abstract String getUsage();
+
+    public abstract String getDescription();
+
+    public Collection<String> getOptions() {
+        return Collections.singletonList(OPTION_PASSWORD_FILE);
+    }
+
+    public Collection<String> getFlags() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Runs the command and returns the exit code of the process.
+     */
+    public abstract int run(Arguments args, PrintStream out) throws CliException;
+
+    /**
+     * Reads the password of the vault from the file given with --password-file, the
+     * AEGIS_PASSWORD environment variable or the console, in that order.
+     */
+    protected static char[] readPassword(Arguments args) throws CliException {
+        String file = args.getOption(OPTION_PASSWORD_FILE);
+        if (file != null) {
+            return readPasswordFile(file);
+        }
+
+        String env = System.getenv(PASSWORD_ENV);
+        if (env != null) {
+            return env.toCharArray();
+        }
+
+        Console console = System.console();
+        if (console == null) {
+            throw new CliException(String.format("The vault is encrypted, but no password was given with --%s or %s", OPTION_PASSWORD_FILE, PASSWORD_ENV));
+        }
+
+        char[] password = console.readPassword("Password: ");
+        if (password == null) {
+            throw new CliException("No password was given");
+        }
+        return password;
+    }
+
+    /**
+     * Reads a password from the given file. Trailing line breaks are not part of the password.
+     */
+    protected static char[] readPasswordFile(String file) throws CliException {
+        try {
+            byte[] bytes = Files.readAllBytes(Paths.get(file));
+            int len = bytes.length;
+            while (len > 0 && (bytes[len - 1] == '\n' || bytes[len - 1] == '\r')) {
+                len--;
+            }
+
+            CharBuffer buf = StandardCharsets.UTF_8.decode(ByteBuffer.wrap(bytes, 0, len));
+            char[] password = Arrays.copyOf(buf.array(), buf.limit());
+            Arrays.fill(bytes, (byte) 0);
+            Arrays.fill(buf.array(), '\0');
+            return password;
+        } catch (IOException e) {
+            throw new CliException(String.format("Unable to read %s", file), e);
+        }
+    }
+
+    /**
+     * Writes the given bytes to the given path. The file is first written next to its
+     * destination and then moved in place, so that an existing vault is never left
+     * half-written.
+     */
+    protected static void writeOutput(Path path, byte[] bytes, boolean overwrite) throws CliException {
+        if (Files.exists(path) && !overwrite) {
+            throw new CliException(String.format("%s already exists, use --%s to overwrite it", path, FLAG_FORCE));
+        }
+
+        Path dir = path.toAbsolutePath().getParent();
+        Path tempPath = null;
+        try {
+            tempPath = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+            Files.write(tempPath, bytes);
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            if (tempPath != null) {
+                try {
+                    Files.deleteIfExists(tempPath);
+                } catch (IOException ignored) {
+
+                }
+            }
+            throw new CliException(String.format("Unable to write %s", path), e);
+        }
+    }
+}
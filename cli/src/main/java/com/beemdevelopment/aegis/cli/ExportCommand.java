@@ -0,0 +1,71 @@
+package com.beemdevelopment.aegis.cli;
+
+import com.beemdevelopment.aegis.vault.Vault;
+import com.beemdevelopment.aegis.vault.VaultFile;
+import com.beemdevelopment.aegis.vault.VaultFileCredentials;
+
+import org.json.JSONObject;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Decrypts a vault and writes it to a file without any encryption, in the same format as
+ * an unencrypted export from the app.
+ */
+public class ExportCommand extends Command {
+    private static final String FLAG_COMPRESS = "compress";
+
+    @Override
+    public String getName() {
+        return "export";
+    }
+
+    @Override
+    public String getUsage() {
+        return "export <file> <output> [--compress] [--password-file <file>] [--force]";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Decrypt a vault and write it to an unencrypted vault file";
+    }
+
+    @Override
+    public Collection<String> getFlags() {
+        return Arrays.asList(FLAG_COMPRESS, FLAG_FORCE);
+    }
+
+    @Override
+    public int run(Arguments args, PrintStream out) throws CliException {
+        Path input = Paths.get(args.getPositional(0, "file"));
+        Path output = Paths.get(args.getPositional(1, "output"));
+
+        Timings timings = new Timings();
+        VaultLoader loader = new VaultLoader(timings);
+        VaultFile file = loader.read(input);
+
+        VaultFileCredentials creds = null;
+        if (file.isEncrypted()) {
+            creds = loader.unlock(file, readPassword(args)).getCredentials();
+        }
+
+        JSONObject obj = loader.decrypt(file, creds);
+        Vault vault = loader.parse(obj, creds);
+
+        // the secrets of the entries are written in plain text as well
+        byte[] bytes = timings.time("serialize", () -> {
+            VaultFile newFile = new VaultFile();
+            newFile.setContent(vault.toPlainJson(), args.hasFlag(FLAG_COMPRESS));
+            return newFile.toBytes();
+        });
+        writeOutput(output, bytes, args.hasFlag(FLAG_FORCE));
+
+        out.println(String.format("Exported %d entries to %s. The output is NOT encrypted.", vault.getEntries().getValues().size(), output));
+        timings.print(out);
+        return EXIT_OK;
+    }
+}
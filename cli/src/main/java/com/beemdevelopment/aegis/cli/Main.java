@@ -0,0 +1,67 @@
+package com.beemdevelopment.aegis.cli;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+public class Main {
+    private static final Command[] COMMANDS = {
+            new VerifyCommand(),
+            new CodesCommand(),
+            new RekeyCommand(),
+            new MergeCommand(),
+            new ExportCommand(),
+            new BenchCommand()
+    };
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        if (args.length == 0 || args[0].equals("help") || args[0].equals("--help")) {
+            printUsage(args.length == 0 ? err : out);
+            return args.length == 0 ? Command.EXIT_USAGE : Command.EXIT_OK;
+        }
+
+        Command command = findCommand(args[0]);
+        if (command == null) {
+            err.println(String.format("Unknown command: %s", args[0]));
+            printUsage(err);
+            return Command.EXIT_USAGE;
+        }
+
+        try {
+            String[] commandArgs = Arrays.copyOfRange(args, 1, args.length);
+            return command.run(Arguments.parse(commandArgs, command.getOptions(), command.getFlags()), out);
+        } catch (UsageException e) {
+            err.println(String.format("Error: %s", e.getMessage()));
+            err.println(String.format("Usage: aegis-cli %s", command.getUsage()));
+            return Command.EXIT_USAGE;
+        } catch (CliException e) {
+            err.println(String.format("Error: %s", e.getMessage()));
+            return Command.EXIT_FAILURE;
+        }
+    }
+
+    private static Command findCommand(String name) {
+        for (Command command : COMMANDS) {
+            if (command.getName().equals(name)) {
+                return command;
+            }
+        }
+        return null;
+    }
+
+    private static void printUsage(PrintStream out) {
+        out.println("Usage: aegis-cli <command> [arguments]");
+        out.println();
+        out.println("Commands:");
+        for (Command command : COMMANDS) {
+            out.println(String.format("  %s", command.getUsage()));
+            out.println(String.format("      %s", command.getDescription()));
+        }
+        out.println();
+        out.println("The password of an encrypted vault is read from the file given with --password-file,");
+        out.println("the AEGIS_PASSWORD environment variable or the console, in that order.");
+    }
+}
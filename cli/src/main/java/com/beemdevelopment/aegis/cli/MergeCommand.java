@@ -0,0 +1,171 @@
+package com.beemdevelopment.aegis.cli;
+
+import com.beemdevelopment.aegis.vault.Vault;
+import com.beemdevelopment.aegis.vault.VaultEntry;
+import com.beemdevelopment.aegis.vault.VaultFile;
+import com.beemdevelopment.aegis.vault.VaultFileCredentials;
+import com.beemdevelopment.aegis.vault.VaultFileException;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adds the entries of one vault to another one. Entries that the vault already has an
+ * equivalent of are skipped. The output keeps the slots, and thus the password, of the
+ * vault that the entries are added to.
+ */
+public class MergeCommand extends Command {
+    private static final String OPTION_OTHER_PASSWORD_FILE = "other-password-file";
+
+    @Override
+    public String getName() {
+        return "merge";
+    }
+
+    @Override
+    public String getUsage() {
+        return "merge <file> <other> <output> [--password-file <file>] [--other-password-file <file>] [--force]";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Add the entries of another vault to a vault, skipping the ones it already has";
+    }
+
+    @Override
+    public Collection<String> getOptions() {
+        return Arrays.asList(OPTION_PASSWORD_FILE, OPTION_OTHER_PASSWORD_FILE);
+    }
+
+    @Override
+    public Collection<String> getFlags() {
+        return Collections.singletonList(FLAG_FORCE);
+    }
+
+    @Override
+    public int run(Arguments args, PrintStream out) throws CliException {
+        Path input = Paths.get(args.getPositional(0, "file"));
+        Path otherInput = Paths.get(args.getPositional(1, "other"));
+        Path output = Paths.get(args.getPositional(2, "output"));
+
+        Timings timings = new Timings();
+        VaultLoader loader = new VaultLoader(timings);
+        VaultFile file = loader.read(input);
+        VaultFile otherFile = loader.read(otherInput);
+
+        char[] password = null;
+        VaultFileCredentials creds = null;
+        if (file.isEncrypted()) {
+            password = readPassword(args);
+            creds = loader.unlock(file, password).getCredentials();
+        }
+
+        // the other vault is assumed to have the same password, unless another one is given
+        VaultFileCredentials otherCreds = null;
+        if (otherFile.isEncrypted()) {
+            String otherPasswordFile = args.getOption(OPTION_OTHER_PASSWORD_FILE);
+            char[] otherPassword = otherPasswordFile != null ? readPasswordFile(otherPasswordFile)
+                    : password != null ? password : readPassword(args);
+            otherCreds = loader.unlock(otherFile, otherPassword).getCredentials();
+            Arrays.fill(otherPassword, '\0');
+        }
+        if (password != null) {
+            Arrays.fill(password, '\0');
+        }
+
+        Vault vault = loader.parse(loader.decrypt(file, creds), creds);
+        Vault otherVault = loader.parse(loader.decrypt(otherFile, otherCreds), otherCreds);
+
+        MergeResult result = timings.time("merge", () -> merge(vault, otherVault));
+
+        VaultFileCredentials outputCreds = creds;
+        boolean compress = file.getHeader().isCompressed();
+        byte[] bytes = timings.time(outputCreds != null ? "encrypt" : "serialize", () -> {
+            try {
+                VaultFile newFile = new VaultFile();
+                if (outputCreds != null) {
+                    newFile.setContent(vault.toJson(), outputCreds, compress);
+                } else {
+                    newFile.setContent(vault.toJson(), compress);
+                }
+                return newFile.toBytes();
+            } catch (VaultFileException e) {
+                throw new CliException("Unable to encrypt the vault", e);
+            }
+        });
+        writeOutput(output, bytes, args.hasFlag(FLAG_FORCE));
+
+        out.println(String.format("Added %d entries, of which %d got a new UUID, and skipped %d duplicates. The vault now has %d entries.",
+                result._added, result._renamed, result._skipped, vault.getEntries().getValues().size()));
+        timings.print(out);
+        return EXIT_OK;
+    }
+
+    private static MergeResult merge(Vault vault, Vault otherVault) {
+        // group the entries by issuer and name, so that looking for an equivalent entry
+        // doesn't have to go through the whole vault for every entry of the other one
+        Map<String, List<VaultEntry>> index = new HashMap<>();
+        for (VaultEntry entry : vault.getEntries()) {
+            addToIndex(index, entry);
+        }
+
+        MergeResult result = new MergeResult();
+        for (VaultEntry entry : otherVault.getEntries()) {
+            List<VaultEntry> candidates = index.get(getIndexKey(entry));
+            if (candidates != null && hasEquivalent(candidates, entry)) {
+                result._skipped++;
+                continue;
+            }
+
+            // both vaults can have an entry with the same UUID if they were copied from
+            // each other at some point, the app handles this the same way when importing
+            if (vault.getEntries().has(entry)) {
+                entry.resetUUID();
+                result._renamed++;
+            }
+
+            vault.getEntries().add(entry);
+            addToIndex(index, entry);
+            result._added++;
+        }
+
+        return result;
+    }
+
+    private static boolean hasEquivalent(List<VaultEntry> entries, VaultEntry entry) {
+        for (VaultEntry candidate : entries) {
+            if (candidate.equivalates(entry)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void addToIndex(Map<String, List<VaultEntry>> index, VaultEntry entry) {
+        String key = getIndexKey(entry);
+        List<VaultEntry> entries = index.get(key);
+        if (entries == null) {
+            entries = new ArrayList<>(1);
+            index.put(key, entries);
+        }
+        entries.add(entry);
+    }
+
+    private static String getIndexKey(VaultEntry entry) {
+        return String.format("%s\0%s", entry.getIssuer(), entry.getName());
+    }
+
+    private static class MergeResult {
+        private int _added;
+        private int _renamed;
+        private int _skipped;
+    }
+}
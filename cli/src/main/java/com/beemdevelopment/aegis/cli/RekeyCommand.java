@@ -0,0 +1,123 @@
+package com.beemdevelopment.aegis.cli;
+
+import com.beemdevelopment.aegis.crypto.CryptoUtils;
+import com.beemdevelopment.aegis.crypto.SCryptParameters;
+import com.beemdevelopment.aegis.vault.VaultFile;
+import com.beemdevelopment.aegis.vault.VaultFileCredentials;
+import com.beemdevelopment.aegis.vault.VaultFileException;
+import com.beemdevelopment.aegis.vault.slots.PasswordSlot;
+import com.beemdevelopment.aegis.vault.slots.Slot;
+import com.beemdevelopment.aegis.vault.slots.SlotException;
+import com.beemdevelopment.aegis.vault.slots.SlotList;
+
+import org.json.JSONObject;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import javax.crypto.SecretKey;
+
+/**
+ * Replaces the password slot that the given password unlocks with one that is derived
+ * using different scrypt parameters. The master key stays the same, so the other slots
+ * of the vault, including biometric ones, keep working.
+ */
+public class RekeyCommand extends Command {
+    private static final String OPTION_N = "n";
+    private static final String OPTION_R = "r";
+    private static final String OPTION_P = "p";
+
+    @Override
+    public String getName() {
+        return "rekey";
+    }
+
+    @Override
+    public String getUsage() {
+        return "rekey <file> <output> [--n <cost>] [--r <block size>] [--p <parallelization>] [--password-file <file>] [--force]";
+    }
+
+    @Override
+    public String getDescription() {
+        return String.format("Change the key derivation parameters of a password slot (default: N=%d, r=%d, p=%d)",
+                CryptoUtils.CRYPTO_SCRYPT_N, CryptoUtils.CRYPTO_SCRYPT_r, CryptoUtils.CRYPTO_SCRYPT_p);
+    }
+
+    @Override
+    public Collection<String> getOptions() {
+        return Arrays.asList(OPTION_PASSWORD_FILE, OPTION_N, OPTION_R, OPTION_P);
+    }
+
+    @Override
+    public Collection<String> getFlags() {
+        return Collections.singletonList(FLAG_FORCE);
+    }
+
+    @Override
+    public int run(Arguments args, PrintStream out) throws CliException {
+        Path input = Paths.get(args.getPositional(0, "file"));
+        Path output = Paths.get(args.getPositional(1, "output"));
+        int n = args.getIntOption(OPTION_N, CryptoUtils.CRYPTO_SCRYPT_N);
+        int r = args.getIntOption(OPTION_R, CryptoUtils.CRYPTO_SCRYPT_r);
+        int p = args.getIntOption(OPTION_P, CryptoUtils.CRYPTO_SCRYPT_p);
+        if (n < 2 || (n & (n - 1)) != 0) {
+            throw new UsageException(String.format("N must be a power of 2 larger than 1, got: %d", n));
+        }
+        if (r < 1 || p < 1) {
+            throw new UsageException("r and p must be larger than 0");
+        }
+
+        Timings timings = new Timings();
+        VaultLoader loader = new VaultLoader(timings);
+        VaultFile file = loader.read(input);
+        if (!file.isEncrypted()) {
+            throw new CliException("The vault is not encrypted");
+        }
+
+        char[] password = readPassword(args);
+        VaultLoader.Result result = loader.unlock(file, password);
+        VaultFileCredentials creds = result.getCredentials();
+        JSONObject obj = loader.decrypt(file, creds);
+
+        SCryptParameters oldParams = result.getSlot().getSCryptParameters();
+        SCryptParameters newParams = new SCryptParameters(n, r, p, CryptoUtils.generateSalt());
+        PasswordSlot slot = timings.time("derive new key", () -> {
+            try {
+                PasswordSlot newSlot = new PasswordSlot();
+                SecretKey key = newSlot.deriveKey(password, newParams);
+                newSlot.setKey(creds.getKey(), Slot.createEncryptCipher(key));
+                return newSlot;
+            } catch (SlotException e) {
+                throw new CliException("Unable to create the new password slot", e);
+            }
+        });
+        Arrays.fill(password, '\0');
+
+        SlotList slots = creds.getSlots();
+        slots.remove(result.getSlot());
+        slots.add(slot);
+
+        byte[] bytes = timings.time("encrypt", () -> {
+            try {
+                VaultFile newFile = new VaultFile();
+                newFile.setContent(obj, creds, file.getHeader().isCompressed());
+                return newFile.toBytes();
+            } catch (VaultFileException e) {
+                throw new CliException("Unable to encrypt the vault", e);
+            }
+        });
+        writeOutput(output, bytes, args.hasFlag(FLAG_FORCE));
+
+        out.println(String.format("Changed the parameters of password slot %s from N=%d, r=%d, p=%d to N=%d, r=%d, p=%d",
+                slot.getUUID(), oldParams.getN(), oldParams.getR(), oldParams.getP(), n, r, p));
+        if (slots.findAll(PasswordSlot.class).size() > 1) {
+            out.println("The vault has other password slots, which were left as they were");
+        }
+        timings.print(out);
+        return EXIT_OK;
+    }
+}
@@ -0,0 +1,70 @@
+package com.beemdevelopment.aegis.cli;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps track of how long the stages of a command take. A stage can be timed more than
+ * once, in which case the minimum, median and maximum are reported.
+ */
+public class Timings {
+    private final Map<String, List<Long>> _samples = new LinkedHashMap<>();
+
+    public <T> T time(String stage, Action<T> action) throws CliException {
+        long start = System.nanoTime();
+        T res = action.run();
+        add(stage, System.nanoTime() - start);
+        return res;
+    }
+
+    public void add(String stage, long nanos) {
+        List<Long> samples = _samples.get(stage);
+        if (samples == null) {
+            samples = new ArrayList<>();
+            _samples.put(stage, samples);
+        }
+        samples.add(nanos);
+    }
+
+    public long getTotal(String stage) {
+        long total = 0;
+        List<Long> samples = _samples.get(stage);
+        if (samples != null) {
+            for (long sample : samples) {
+                total += sample;
+            }
+        }
+        return total;
+    }
+
+    public void print(PrintStream out) {
+        out.println("Timings:");
+        for (Map.Entry<String, List<Long>> entry : _samples.entrySet()) {
+            List<Long> samples = new ArrayList<>(entry.getValue());
+            if (samples.size() == 1) {
+                out.println(String.format("  %-16s %10.2f ms", entry.getKey(), toMillis(samples.get(0))));
+                continue;
+            }
+
+            Collections.sort(samples);
+            out.println(String.format("  %-16s %10.2f ms (min), %10.2f ms (median), %10.2f ms (max), %d runs",
+                    entry.getKey(),
+                    toMillis(samples.get(0)),
+                    toMillis(samples.get(samples.size() / 2)),
+                    toMillis(samples.get(samples.size() - 1)),
+                    samples.size()));
+        }
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1000000.0;
+    }
+
+    public interface Action<T> {
+        T run() throws CliException;
+    }
+}
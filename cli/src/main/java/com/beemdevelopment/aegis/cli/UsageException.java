@@ -0,0 +1,11 @@
+package com.beemdevelopment.aegis.cli;
+
+/**
+ * Thrown if the arguments of a command are invalid. The usage of the command is printed
+ * along with the message.
+ */
+public class UsageException extends CliException {
+    public UsageException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,137 @@
+package com.beemdevelopment.aegis.cli;
+
+import com.beemdevelopment.aegis.crypto.CryptoUtils;
+import com.beemdevelopment.aegis.crypto.MasterKey;
+import com.beemdevelopment.aegis.vault.Vault;
+import com.beemdevelopment.aegis.vault.VaultException;
+import com.beemdevelopment.aegis.vault.VaultFile;
+import com.beemdevelopment.aegis.vault.VaultFileCredentials;
+import com.beemdevelopment.aegis.vault.VaultFileException;
+import com.beemdevelopment.aegis.vault.slots.PasswordSlot;
+import com.beemdevelopment.aegis.vault.slots.SlotException;
+import com.beemdevelopment.aegis.vault.slots.SlotIntegrityException;
+
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+
+/**
+ * Reads, unlocks and decrypts vault files, timing every step.
+ */
+public class VaultLoader {
+    private final Timings _timings;
+
+    public VaultLoader(Timings timings) {
+        _timings = timings;
+    }
+
+    public VaultFile read(Path path) throws CliException {
+        byte[] bytes = _timings.time("read", () -> {
+            try {
+                return Files.readAllBytes(path);
+            } catch (IOException e) {
+                throw new CliException(String.format("Unable to read %s", path), e);
+            }
+        });
+
+        return _timings.time("parse file", () -> {
+            try {
+                return VaultFile.fromBytes(bytes);
+            } catch (VaultFileException e) {
+                throw new CliException(String.format("%s is not a valid vault file", path), e);
+            }
+        });
+    }
+
+    /**
+     * Unlocks the given encrypted vault file with the given password, by trying all of
+     * its password slots. Biometric slots can only be unlocked in the app.
+     */
+    public Result unlock(VaultFile file, char[] password) throws CliException {
+        List<PasswordSlot> slots = file.getHeader().getSlots().findAll(PasswordSlot.class);
+        if (slots.isEmpty()) {
+            throw new CliException("The vault doesn't have a password slot, so it can only be unlocked in the app");
+        }
+
+        return _timings.time("derive key", () -> {
+            for (PasswordSlot slot : slots) {
+                try {
+                    MasterKey key = decryptPasswordSlot(slot, password);
+                    return new Result(new VaultFileCredentials(key, file.getHeader().getSlots()), slot);
+                } catch (SlotException e) {
+                    throw new CliException("Unable to decrypt password slot", e);
+                } catch (SlotIntegrityException ignored) {
+
+                }
+            }
+
+            throw new CliException("Wrong password");
+        });
+    }
+
+    public JSONObject decrypt(VaultFile file, VaultFileCredentials creds) throws CliException {
+        if (!file.isEncrypted()) {
+            return file.getContent();
+        }
+
+        return _timings.time("decrypt", () -> {
+            try {
+                return file.getContent(creds);
+            } catch (VaultFileException e) {
+                throw new CliException("Unable to decrypt the vault", e);
+            }
+        });
+    }
+
+    public Vault parse(JSONObject obj, VaultFileCredentials creds) throws CliException {
+        return _timings.time("parse vault", () -> {
+            try {
+                return Vault.fromJson(obj, creds != null ? creds.getKey() : null);
+            } catch (VaultException e) {
+                throw new CliException("Unable to parse the vault", e);
+            }
+        });
+    }
+
+    private static MasterKey decryptPasswordSlot(PasswordSlot slot, char[] password)
+            throws SlotException, SlotIntegrityException {
+        SecretKey key = slot.deriveKey(password);
+        try {
+            return slot.getKey(slot.createDecryptCipher(key));
+        } catch (SlotIntegrityException e) {
+            // slots that were created before issue #95 was fixed may have been derived
+            // from a differently encoded password, like the app, try that one as well
+            byte[] oldPasswordBytes = CryptoUtils.toBytesOld(password);
+            if (slot.isRepaired() || oldPasswordBytes.length <= 64) {
+                throw e;
+            }
+
+            Cipher cipher = slot.createDecryptCipher(slot.deriveKey(oldPasswordBytes));
+            return slot.getKey(cipher);
+        }
+    }
+
+    public static class Result {
+        private final VaultFileCredentials _creds;
+        private final PasswordSlot _slot;
+
+        public Result(VaultFileCredentials creds, PasswordSlot slot) {
+            _creds = creds;
+            _slot = slot;
+        }
+
+        public VaultFileCredentials getCredentials() {
+            return _creds;
+        }
+
+        public PasswordSlot getSlot() {
+            return _slot;
+        }
+    }
+}
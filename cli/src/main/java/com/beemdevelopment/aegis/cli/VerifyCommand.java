@@ -0,0 +1,117 @@
+package com.beemdevelopment.aegis.cli;
+
+import com.beemdevelopment.aegis.otp.OtpInfo;
+import com.beemdevelopment.aegis.vault.Vault;
+import com.beemdevelopment.aegis.vault.VaultEntry;
+import com.beemdevelopment.aegis.vault.VaultFile;
+import com.beemdevelopment.aegis.vault.VaultFileCredentials;
+import com.beemdevelopment.aegis.vault.slots.BiometricSlot;
+import com.beemdevelopment.aegis.vault.slots.PasswordSlot;
+import com.beemdevelopment.aegis.vault.slots.RawSlot;
+import com.beemdevelopment.aegis.vault.slots.SlotList;
+
+import org.json.JSONObject;
+
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Decrypts a vault and checks that the secret of every entry can be decrypted and used
+ * to generate a code.
+ */
+public class VerifyCommand extends Command {
+    @Override
+    public String getName() {
+        return "verify";
+    }
+
+    @Override
+    public String getUsage() {
+        return "verify <file> [--password-file <file>]";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Decrypt a vault and check that all of its entries are valid";
+    }
+
+    @Override
+    public int run(Arguments args, PrintStream out) throws CliException {
+        Timings timings = new Timings();
+        VaultLoader loader = new VaultLoader(timings);
+
+        VaultFile file = loader.read(Paths.get(args.getPositional(0, "file")));
+        out.println(String.format("Encrypted: %s", file.isEncrypted() ? "yes" : "no"));
+        out.println(String.format("Compressed: %s", file.getHeader().isCompressed() ? "yes" : "no"));
+
+        VaultFileCredentials creds = null;
+        if (file.isEncrypted()) {
+            SlotList slots = file.getHeader().getSlots();
+            out.println(String.format("Slots: %d password, %d biometric, %d raw",
+                    slots.findAll(PasswordSlot.class).size(),
+                    slots.findAll(BiometricSlot.class).size(),
+                    slots.findAll(RawSlot.class).size()));
+            creds = loader.unlock(file, readPassword(args)).getCredentials();
+        }
+
+        JSONObject obj = loader.decrypt(file, creds);
+        Vault vault = loader.parse(obj, creds);
+        out.println(String.format("Entry encryption: %s", vault.getEntryKeys() != null ? "yes" : "no"));
+
+        int failures = timings.time("check entries", () -> checkEntries(vault, out));
+        timings.print(out);
+
+        if (failures > 0) {
+            out.println(String.format("%d of %d entries are invalid", failures, vault.getEntries().getValues().size()));
+            return EXIT_FAILURE;
+        }
+
+        out.println("The vault is valid");
+        return EXIT_OK;
+    }
+
+    private static int checkEntries(Vault vault, PrintStream out) {
+        Map<String, Integer> types = new TreeMap<>();
+        TreeSet<String> groups = new TreeSet<>();
+        int icons = 0;
+        int failures = 0;
+
+        for (VaultEntry entry : vault.getEntries()) {
+            OtpInfo info = entry.getInfo();
+            try {
+                byte[] secret = info.getSecret();
+                boolean empty = secret.length == 0;
+                Arrays.fill(secret, (byte) 0);
+                if (empty) {
+                    throw new IllegalStateException("The secret is empty");
+                }
+                info.getOtp();
+            } catch (RuntimeException e) {
+                out.println(String.format("Invalid entry %s (%s / %s): %s", entry.getUUID(), entry.getIssuer(), entry.getName(), e));
+                failures++;
+                continue;
+            }
+
+            Integer count = types.get(info.getTypeId());
+            types.put(info.getTypeId(), count == null ? 1 : count + 1);
+            if (entry.getGroup() != null) {
+                groups.add(entry.getGroup());
+            }
+            if (entry.hasIcon()) {
+                icons++;
+            }
+        }
+
+        out.println(String.format("Entries: %d", vault.getEntries().getValues().size()));
+        for (Map.Entry<String, Integer> type : types.entrySet()) {
+            out.println(String.format("  %s: %d", type.getKey(), type.getValue()));
+        }
+        out.println(String.format("Groups: %d", groups.size()));
+        out.println(String.format("Icons: %d", icons));
+        return failures;
+    }
+}
@@ -0,0 +1,224 @@
+package com.beemdevelopment.aegis.cli;
+
+import com.beemdevelopment.aegis.crypto.CryptoUtils;
+import com.beemdevelopment.aegis.crypto.MasterKey;
+import com.beemdevelopment.aegis.crypto.SCryptParameters;
+import com.beemdevelopment.aegis.otp.HotpInfo;
+import com.beemdevelopment.aegis.otp.TotpInfo;
+import com.beemdevelopment.aegis.vault.Vault;
+import com.beemdevelopment.aegis.vault.VaultEntry;
+import com.beemdevelopment.aegis.vault.VaultFile;
+import com.beemdevelopment.aegis.vault.VaultFileCredentials;
+import com.beemdevelopment.aegis.vault.VaultGenerator;
+import com.beemdevelopment.aegis.vault.slots.PasswordSlot;
+import com.beemdevelopment.aegis.vault.slots.Slot;
+import com.beemdevelopment.aegis.vault.slots.SlotList;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import javax.crypto.SecretKey;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MainTest {
+    private static final String PASSWORD = "test";
+    private static final byte[] SECRET = "12345678901234567890".getBytes(StandardCharsets.UTF_8);
+
+    // cheap parameters, so that the tests don't spend most of their time in scrypt
+    private static final int SCRYPT_N = 1 << 10;
+
+    @Rule
+    public TemporaryFolder _folder = new TemporaryFolder();
+
+    private Vault _vault;
+    private VaultFileCredentials _creds;
+    private File _vaultFile;
+    private File _passwordFile;
+    private ByteArrayOutputStream _out;
+
+    @Before
+    public void init() throws Exception {
+        _vault = new Vault();
+        _vault.getEntries().add(new VaultEntry(new TotpInfo(SECRET, "SHA1", 6, 30), "alice@example.com", "Example"));
+        _vault.getEntries().add(new VaultEntry(new HotpInfo(SECRET, "SHA1", 6, 0), "bob@example.com", "Example"));
+
+        _creds = createCredentials(PASSWORD);
+        _vaultFile = writeVault("vault.json", _vault, _creds, false);
+        _passwordFile = writePassword("password", PASSWORD);
+    }
+
+    @Test
+    public void testVerify() {
+        assertEquals(Command.EXIT_OK, run("verify", _vaultFile.getPath(), "--password-file", _passwordFile.getPath()));
+        assertTrue(getOutput().contains("Entries: 2"));
+        assertTrue(getOutput().contains("The vault is valid"));
+    }
+
+    @Test
+    public void testWrongPassword() throws Exception {
+        Files.write(_passwordFile.toPath(), "wrong".getBytes(StandardCharsets.UTF_8));
+        assertEquals(Command.EXIT_FAILURE, run("verify", _vaultFile.getPath(), "--password-file", _passwordFile.getPath()));
+    }
+
+    @Test
+    public void testCodes() {
+        assertEquals(Command.EXIT_OK, run("codes", _vaultFile.getPath(), "--password-file", _passwordFile.getPath()));
+        // the first HOTP code of the RFC 4226 test secret
+        assertTrue(getOutput().contains("Example\tbob@example.com\t755224"));
+    }
+
+    @Test
+    public void testRekey() throws Exception {
+        File output = new File(_folder.getRoot(), "rekeyed.json");
+        assertEquals(Command.EXIT_OK, run("rekey", _vaultFile.getPath(), output.getPath(),
+                "--n", String.valueOf(SCRYPT_N * 2), "--r", "4", "--password-file", _passwordFile.getPath()));
+
+        VaultFile file = VaultFile.fromBytes(Files.readAllBytes(output.toPath()));
+        List<PasswordSlot> slots = file.getHeader().getSlots().findAll(PasswordSlot.class);
+        assertEquals(1, slots.size());
+        assertEquals(SCRYPT_N * 2, slots.get(0).getSCryptParameters().getN());
+        assertEquals(4, slots.get(0).getSCryptParameters().getR());
+
+        assertEquals(Command.EXIT_OK, run("verify", output.getPath(), "--password-file", _passwordFile.getPath()));
+
+        // the output is never overwritten by accident
+        assertEquals(Command.EXIT_FAILURE, run("rekey", _vaultFile.getPath(), output.getPath(), "--password-file", _passwordFile.getPath()));
+    }
+
+    @Test
+    public void testRekeyBadParams() {
+        assertEquals(Command.EXIT_USAGE, run("rekey", _vaultFile.getPath(), "out.json", "--n", "1000"));
+    }
+
+    @Test
+    public void testExport() throws Exception {
+        File output = new File(_folder.getRoot(), "export.json");
+        assertEquals(Command.EXIT_OK, run("export", _vaultFile.getPath(), output.getPath(), "--password-file", _passwordFile.getPath()));
+
+        VaultFile file = VaultFile.fromBytes(Files.readAllBytes(output.toPath()));
+        assertFalse(file.isEncrypted());
+        Vault vault = Vault.fromJson(file.getContent());
+        assertEquals(2, vault.getEntries().getValues().size());
+
+        // plain vaults can be read without a password
+        assertEquals(Command.EXIT_OK, run("verify", output.getPath()));
+    }
+
+    @Test
+    public void testBench() {
+        assertEquals(Command.EXIT_OK, run("bench", _vaultFile.getPath(), "--iterations", "2", "--password-file", _passwordFile.getPath()));
+        assertTrue(getOutput().contains("derive key"));
+        assertTrue(getOutput().contains("2 runs"));
+    }
+
+    @Test
+    public void testVerifyGenerated() throws Exception {
+        Vault vault = new VaultGenerator(0).setIcons(0.5f, 1024, 8 * 1024).generateVault(500);
+        File file = writeVault("generated.json", vault, _creds, true);
+
+        assertEquals(Command.EXIT_OK, run("verify", file.getPath(), "--password-file", _passwordFile.getPath()));
+        assertTrue(getOutput().contains("Compressed: yes"));
+        assertTrue(getOutput().contains("Entries: 500"));
+        assertTrue(getOutput().contains("The vault is valid"));
+    }
+
+    @Test
+    public void testMerge() throws Exception {
+        String otherPassword = "other";
+        Vault otherVault = new VaultGenerator(0).generateVault(50);
+
+        // an entry that's already in the vault is skipped, even though the other vault is
+        // encrypted with a different key
+        VaultEntry bob = _vault.getEntries().getValues().stream()
+                .filter(e -> e.getName().startsWith("bob"))
+                .findFirst().get();
+        otherVault.getEntries().add(new VaultEntry(bob));
+
+        // a different entry that happens to have the same UUID as an existing one is added
+        VaultEntry alice = _vault.getEntries().getValues().stream()
+                .filter(e -> e.getName().startsWith("alice"))
+                .findFirst().get();
+        VaultEntry carol = new VaultEntry(alice);
+        carol.setName("carol@example.com");
+        otherVault.getEntries().add(carol);
+
+        File otherFile = writeVault("other.json", otherVault, createCredentials(otherPassword), false);
+        File otherPasswordFile = writePassword("other-password", otherPassword);
+        File output = new File(_folder.getRoot(), "merged.json");
+        assertEquals(Command.EXIT_OK, run("merge", _vaultFile.getPath(), otherFile.getPath(), output.getPath(),
+                "--password-file", _passwordFile.getPath(), "--other-password-file", otherPasswordFile.getPath()));
+        assertTrue(getOutput().contains("Added 51 entries, of which 1 got a new UUID, and skipped 1 duplicates"));
+
+        // the output can be decrypted with the password of the first vault
+        assertEquals(Command.EXIT_OK, run("verify", output.getPath(), "--password-file", _passwordFile.getPath()));
+        assertTrue(getOutput().contains("Entries: 53"));
+
+        VaultFile file = VaultFile.fromBytes(Files.readAllBytes(output.toPath()));
+        Vault merged = Vault.fromJson(file.getContent(_creds));
+        assertEquals(53, merged.getEntries().getValues().size());
+        for (VaultEntry entry : otherVault.getEntries()) {
+            if (entry != carol) {
+                assertTrue(merged.getEntries().has(entry));
+            }
+        }
+
+        // the other vault has a different password, so the first one doesn't unlock it
+        assertEquals(Command.EXIT_FAILURE, run("merge", _vaultFile.getPath(), otherFile.getPath(), output.getPath(),
+                "--password-file", _passwordFile.getPath(), "--force"));
+    }
+
+    @Test
+    public void testUsage() {
+        assertEquals(Command.EXIT_USAGE, run());
+        assertEquals(Command.EXIT_USAGE, run("nope"));
+        assertEquals(Command.EXIT_USAGE, run("verify"));
+        assertEquals(Command.EXIT_USAGE, run("verify", _vaultFile.getPath(), "--nope"));
+        assertEquals(Command.EXIT_OK, run("help"));
+    }
+
+    private File writeVault(String name, Vault vault, VaultFileCredentials creds, boolean compress) throws Exception {
+        VaultFile file = new VaultFile();
+        file.setContent(vault.toJson(), creds, compress);
+        File res = _folder.newFile(name);
+        Files.write(res.toPath(), file.toBytes());
+        return res;
+    }
+
+    private File writePassword(String name, String password) throws Exception {
+        File res = _folder.newFile(name);
+        Files.write(res.toPath(), (password + "\n").getBytes(StandardCharsets.UTF_8));
+        return res;
+    }
+
+    private static VaultFileCredentials createCredentials(String password) throws Exception {
+        MasterKey masterKey = MasterKey.generate();
+        PasswordSlot slot = new PasswordSlot();
+        SecretKey key = slot.deriveKey(password.toCharArray(), new SCryptParameters(SCRYPT_N, 8, 1, CryptoUtils.generateSalt()));
+        slot.setKey(masterKey, Slot.createEncryptCipher(key));
+        SlotList slots = new SlotList();
+        slots.add(slot);
+        return new VaultFileCredentials(masterKey, slots);
+    }
+
+    private int run(String... args) {
+        _out = new ByteArrayOutputStream();
+        PrintStream stream = new PrintStream(_out, true);
+        return Main.run(args, stream, stream);
+    }
+
+    private String getOutput() {
+        return new String(_out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -12,6 +12,7 @@ import getpass
 import io
 import json
 import sys
+import zlib
 
 from cryptography.hazmat.primitives.ciphers.aead import AESGCM
 from cryptography.hazmat.primitives.kdf.scrypt import Scrypt
@@ -82,6 +83,10 @@ def main():
         associated_data=None
     )
 
+    # decompress the vault contents if needed
+    if header.get("compression") == "deflate":
+        db = zlib.decompress(db)
+
     db = db.decode("utf-8")
     if args.output != "-":
         with io.open(args.output, "w") as f:
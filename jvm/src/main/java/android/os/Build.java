@@ -0,0 +1,16 @@
+package android.os;
+
+/**
+ * Stands in for the Build class of Android when parts of the app run on a regular JVM. The
+ * SDK version is 0, so that code that checks for old versions of Android takes the path
+ * for the current ones.
+ */
+public class Build {
+    public static class VERSION {
+        public static final int SDK_INT = 0;
+    }
+
+    public static class VERSION_CODES {
+        public static final int KITKAT = 19;
+    }
+}
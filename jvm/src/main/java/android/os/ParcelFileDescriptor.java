@@ -0,0 +1,28 @@
+package android.os;
+
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+
+/**
+ * Stands in for the ParcelFileDescriptor class of Android when parts of the app run on a
+ * regular JVM. Only the stream classes are referenced there, and no instances of them are
+ * ever created outside of Android.
+ */
+public class ParcelFileDescriptor {
+    private ParcelFileDescriptor() {
+
+    }
+
+    public static class AutoCloseInputStream extends FileInputStream {
+        private AutoCloseInputStream(FileDescriptor fd) {
+            super(fd);
+        }
+    }
+
+    public static class AutoCloseOutputStream extends FileOutputStream {
+        private AutoCloseOutputStream(FileDescriptor fd) {
+            super(fd);
+        }
+    }
+}